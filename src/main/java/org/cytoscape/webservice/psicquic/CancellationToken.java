@@ -0,0 +1,163 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cancellation state of one search or import operation.
+ *
+ * The task which starts the operation owns the token and cancels it. Streams
+ * and iterators wrapped by the token end as soon as it is cancelled, so every
+ * stage stops reading and works with the data it already has. Cancelling one
+ * operation never affects another one running at the same time.
+ */
+public final class CancellationToken {
+
+	private static final Logger logger = LoggerFactory.getLogger(CancellationToken.class);
+
+	private volatile boolean canceled = false;
+
+	private final Set<Runnable> callbacks = ConcurrentHashMap.newKeySet();
+
+	public boolean isCanceled() {
+		return canceled;
+	}
+
+	public void cancel() {
+		if (canceled)
+			return;
+		canceled = true;
+
+		for (final Runnable callback : callbacks) {
+			try {
+				callback.run();
+			} catch (RuntimeException e) {
+				logger.warn("Error in cancel callback.", e);
+			}
+		}
+		callbacks.clear();
+	}
+
+	/**
+	 * Run the callback when this token is cancelled, or right now if it already
+	 * is.
+	 */
+	public void onCancel(final Runnable callback) {
+		callbacks.add(callback);
+		if (canceled && callbacks.remove(callback))
+			callback.run();
+	}
+
+	public void removeOnCancel(final Runnable callback) {
+		callbacks.remove(callback);
+	}
+
+	/**
+	 * @return Stream which is closed on cancel and then behaves as if it had
+	 *         reached its end. A blocked read returns immediately.
+	 */
+	public InputStream wrap(final InputStream is) {
+		return new CancellableInputStream(is);
+	}
+
+	/**
+	 * @return Iterator which ends on cancel.
+	 */
+	public <T> Iterator<T> wrap(final Iterator<T> itr) {
+		return new Iterator<T>() {
+			@Override
+			public boolean hasNext() {
+				return !canceled && itr.hasNext();
+			}
+
+			@Override
+			public T next() {
+				if (canceled)
+					throw new NoSuchElementException();
+				return itr.next();
+			}
+		};
+	}
+
+	private final class CancellableInputStream extends FilterInputStream {
+
+		private final Runnable closer = this::closeQuietly;
+
+		private CancellableInputStream(final InputStream in) {
+			super(in);
+			onCancel(closer);
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (canceled)
+				return -1;
+			try {
+				return super.read();
+			} catch (IOException e) {
+				if (canceled)
+					return -1;
+				throw e;
+			}
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if (canceled)
+				return -1;
+			try {
+				return super.read(b, off, len);
+			} catch (IOException e) {
+				if (canceled)
+					return -1;
+				throw e;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			removeOnCancel(closer);
+			super.close();
+		}
+
+		private void closeQuietly() {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// Ignore
+			}
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import org.cytoscape.webservice.psicquic.PSICQUICRestClient.SearchMode;
+
+/**
+ * Short-lived in-memory cache of record counts.
+ *
+ * Concurrent requests for the same (service, mode, query) share one call to
+ * the service: the first caller loads the count and the others wait for its
+ * result. Failed loads are not cached.
+ */
+final class CountCache {
+
+	static final long DEF_TTL_MSEC = 60000;
+
+	// Expired entries are removed when the cache grows over this size.
+	private static final int PRUNE_THRESHOLD = 1000;
+
+	interface Loader {
+		long load() throws Exception;
+	}
+
+	private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+	private final long ttlMsec;
+
+	CountCache(final long ttlMsec) {
+		this.ttlMsec = ttlMsec;
+	}
+
+	/**
+	 * @return the cached count, or null if there is no fresh one.
+	 */
+	Long getIfPresent(final String serviceURL, final SearchMode mode, final String query) {
+		final Entry entry = entries.get(new Key(serviceURL, mode, query));
+		if (entry == null || entry.isExpired(System.currentTimeMillis()) || !entry.future.isDone()
+				|| entry.future.isCompletedExceptionally())
+			return null;
+		return entry.future.getNow(null);
+	}
+
+	long get(final String serviceURL, final SearchMode mode, final String query, final Loader loader)
+			throws Exception {
+		final Key key = new Key(serviceURL, mode, query);
+
+		while (true) {
+			final Entry existing = entries.get(key);
+			if (existing != null && !existing.isExpired(System.currentTimeMillis())) {
+				try {
+					return existing.future.get();
+				} catch (ExecutionException e) {
+					// The caller who loaded it was cancelled. Try again.
+					if (isInterruption(e.getCause()))
+						continue;
+					throw unwrap(e);
+				}
+			}
+
+			final Entry entry = new Entry();
+			final boolean added = existing == null ? entries.putIfAbsent(key, entry) == null
+					: entries.replace(key, existing, entry);
+			if (!added)
+				continue;
+
+			if (entries.size() > PRUNE_THRESHOLD)
+				prune();
+
+			try {
+				final long count = loader.load();
+				entry.expiresAt = System.currentTimeMillis() + ttlMsec;
+				entry.future.complete(count);
+				return count;
+			} catch (Exception e) {
+				entries.remove(key, entry);
+				entry.future.completeExceptionally(e);
+				throw e;
+			}
+		}
+	}
+
+	void clear() {
+		entries.clear();
+	}
+
+	private void prune() {
+		final long now = System.currentTimeMillis();
+		entries.values().removeIf(entry -> entry.isExpired(now));
+	}
+
+	private static boolean isInterruption(final Throwable t) {
+		return t instanceof InterruptedException || t instanceof InterruptedIOException;
+	}
+
+	private static Exception unwrap(final ExecutionException e) {
+		final Throwable cause = e.getCause();
+		return cause instanceof Exception ? (Exception) cause : e;
+	}
+
+	private static final class Entry {
+		private final CompletableFuture<Long> future = new CompletableFuture<Long>();
+
+		// Never expires while it is loading.
+		private volatile long expiresAt = Long.MAX_VALUE;
+
+		private boolean isExpired(final long now) {
+			return now > expiresAt;
+		}
+	}
+
+	private static final class Key {
+		private final String serviceURL;
+		private final SearchMode mode;
+		private final String query;
+
+		private Key(final String serviceURL, final SearchMode mode, final String query) {
+			this.serviceURL = serviceURL;
+			this.mode = mode;
+			this.query = query.trim();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			final Key other = (Key) obj;
+			return serviceURL.equals(other.serviceURL) && mode == other.mode && query.equals(other.query);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(serviceURL, mode, query);
+		}
+	}
+}
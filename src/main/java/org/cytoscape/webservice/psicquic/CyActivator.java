@@ -1,19 +1,31 @@
 package org.cytoscape.webservice.psicquic;
 
+import static org.cytoscape.work.ServiceProperties.ENABLE_FOR;
+import static org.cytoscape.work.ServiceProperties.ENABLE_FOR_SELECTED_NODES;
 import static org.cytoscape.work.ServiceProperties.MENU_GRAVITY;
+import static org.cytoscape.work.ServiceProperties.NETWORK_APPS_MENU;
 import static org.cytoscape.work.ServiceProperties.NODE_APPS_MENU;
 import static org.cytoscape.work.ServiceProperties.PREFERRED_MENU;
 import static org.cytoscape.work.ServiceProperties.TITLE;
 
+import java.io.File;
 import java.util.Properties;
 
+import org.cytoscape.application.CyApplicationConfiguration;
 import org.cytoscape.service.util.AbstractCyActivator;
 import org.cytoscape.service.util.CyServiceRegistrar;
+import org.cytoscape.task.NetworkViewTaskFactory;
 import org.cytoscape.task.NodeViewTaskFactory;
 import org.cytoscape.webservice.psicquic.mapper.CyNetworkBuilder;
+import org.cytoscape.webservice.psicquic.mapper.NodeIndexManager;
+import org.cytoscape.webservice.psicquic.simpleclient.HttpTransport;
+import org.cytoscape.webservice.psicquic.simpleclient.ResponseCache;
 import org.cytoscape.webservice.psicquic.task.ExpandNodeContextMenuFactory;
+import org.cytoscape.webservice.psicquic.task.ExpandSelectedNodesTaskFactory;
+import org.cytoscape.webservice.psicquic.task.ImportLocalMitabTaskFactory;
 import org.cytoscape.webservice.psicquic.task.PSICQUICSearchFactory;
 import org.cytoscape.webservice.psicquic.ui.PSIMITagManager;
+import org.cytoscape.work.TaskFactory;
 import org.osgi.framework.BundleContext;
 
 /*
@@ -51,20 +63,45 @@ public class CyActivator extends AbstractCyActivator {
 			"<ul><li><a href=\"" + MIQL_URL + "\">Query language (MIQL) Syntax</a></li>" +
 			"<li><a href=\"" + REGISTRY_URL + "\">List of Supported Databases</a></li></ul>";
 	
+	private static final String CACHE_DIR = "response-cache";
+	
+	private PSICQUICScheduler scheduler;
+	
 	@Override
 	public void start(BundleContext bc) {
 		CyServiceRegistrar serviceRegistrar = getService(bc, CyServiceRegistrar.class);
 
 		PSIMITagManager tagManager = new PSIMITagManager();
 		PSIMI25VisualStyleBuilder vsBuilder = new PSIMI25VisualStyleBuilder(serviceRegistrar);
-		CyNetworkBuilder builder = new CyNetworkBuilder(serviceRegistrar);
+		NodeIndexManager nodeIndexManager = new NodeIndexManager(serviceRegistrar);
+		registerAllServices(bc, nodeIndexManager);
+		CyNetworkBuilder builder = new CyNetworkBuilder(serviceRegistrar, nodeIndexManager);
+
+		PSICQUICProperties psicquicProps = new PSICQUICProperties(serviceRegistrar);
+		scheduler = new PSICQUICScheduler(
+				Math.max(1, psicquicProps.getInt(PSICQUICProperties.THREADS, PSICQUICScheduler.DEF_POOL_SIZE)),
+				Math.max(1, psicquicProps.getInt(PSICQUICProperties.THREADS_PER_HOST, PSICQUICScheduler.DEF_PER_HOST_LIMIT)),
+				PSICQUICScheduler.ThreadMode.parse(psicquicProps.getString(PSICQUICProperties.THREAD_MODE, null)));
+		ResponseCache cache = null;
+		if (psicquicProps.getBoolean(PSICQUICProperties.CACHE_ENABLED, true)) {
+			CyApplicationConfiguration appConfig = getService(bc, CyApplicationConfiguration.class);
+			cache = new ResponseCache(
+					new File(appConfig.getAppConfigurationDirectoryLocation(CyActivator.class), CACHE_DIR),
+					psicquicProps.getLong(PSICQUICProperties.CACHE_TTL, ResponseCache.DEF_TTL_MSEC),
+					psicquicProps.getLong(PSICQUICProperties.CACHE_MAX_SIZE_MB, ResponseCache.DEF_MAX_BYTES >> 20) << 20,
+					psicquicProps.getBoolean(PSICQUICProperties.OFFLINE, false));
+		}
+		HttpTransport transport = new HttpTransport(
+				psicquicProps.getLong(PSICQUICProperties.CONNECT_TIMEOUT, HttpTransport.DEF_CONNECT_TIMEOUT_MSEC),
+				psicquicProps.getLong(PSICQUICProperties.REQUEST_TIMEOUT, HttpTransport.DEF_REQUEST_TIMEOUT_MSEC),
+				cache);
 
 		PSICQUICWebServiceClient psicquicClient = new PSICQUICWebServiceClient(
 				WEB_SERVICE_URL,
 				"Universal Interaction Database Client",
 				CLIENT_DISCRIPTION, 
 				builder, vsBuilder, tagManager,
-				serviceRegistrar);
+				scheduler, transport, serviceRegistrar);
 		{
 			Properties props = new Properties();
 			props.put("id", "PSICQUICWebServiceClient");
@@ -80,9 +117,35 @@ public class CyActivator extends AbstractCyActivator {
 			props.setProperty(TITLE, "Extend Network by public interaction database...");
 			registerService(bc, factory, NodeViewTaskFactory.class, props);
 		}
+		{
+			ExpandSelectedNodesTaskFactory factory = new ExpandSelectedNodesTaskFactory(
+					psicquicClient.getRestClient(), psicquicClient.getRegistryManager(), builder, serviceRegistrar);
+			Properties props = new Properties();
+			props.setProperty("preferredTaskManager", "menu");
+			props.setProperty(PREFERRED_MENU, NETWORK_APPS_MENU);
+			props.setProperty(ENABLE_FOR, ENABLE_FOR_SELECTED_NODES);
+			props.setProperty(MENU_GRAVITY, "10.0");
+			props.setProperty(TITLE, "Extend Network from Selected Nodes by public interaction database...");
+			registerService(bc, factory, NetworkViewTaskFactory.class, props);
+		}
+		{
+			ImportLocalMitabTaskFactory factory = new ImportLocalMitabTaskFactory(builder, vsBuilder, serviceRegistrar);
+			Properties props = new Properties();
+			props.setProperty(PREFERRED_MENU, "File.Import.Network");
+			props.setProperty(MENU_GRAVITY, "10.0");
+			props.setProperty(TITLE, "Local MITAB File (PSICQUIC)...");
+			registerService(bc, factory, TaskFactory.class, props);
+		}
 		{
 			PSICQUICSearchFactory factory = new PSICQUICSearchFactory(psicquicClient, vsBuilder, tagManager, serviceRegistrar);
 			registerAllServices(bc, factory);
 		}
 	}
+	
+	@Override
+	public void shutDown() {
+		if (scheduler != null)
+			scheduler.shutdown();
+		super.shutDown();
+	}
 }
@@ -0,0 +1,217 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * One request to a PSICQUIC service which may also be sent to its mirrors.
+ *
+ * The request goes to the first URL. If it has not answered after the hedge
+ * delay, the same request is sent to the next mirror, and so on. The first
+ * successful answer wins and the other attempts are cancelled. If an attempt
+ * fails, the next mirror is tried right away. Each attempt is cancelled when
+ * it runs past the per-provider timeout. A URL which may not be called right
+ * now is skipped when its turn comes, and counts as a failed attempt.
+ *
+ * Only use this for tasks whose result is complete when they return, since a
+ * losing attempt may already have done part of its work.
+ */
+final class HedgedRequest<T> extends FutureTask<T> {
+
+	/**
+	 * Gets the outcome of each attempt, except for the ones cancelled because
+	 * another attempt won or the whole request was cancelled.
+	 */
+	interface Listener<T> {
+		void succeeded(String url, long latencyMsec, T result);
+
+		void failed(String url, Throwable error);
+	}
+
+	private final PSICQUICScheduler scheduler;
+	private final List<String> urls;
+	private final Predicate<String> allowRequest;
+	private final Function<String, Callable<T>> taskFactory;
+	private final long timeoutMsec;
+	private final Listener<T> listener;
+	private final BlockingQueue<Future<T>> completionQueue;
+
+	// Guarded by this.
+	private final List<Future<T>> attempts = new ArrayList<Future<T>>();
+	private int next = 0;
+	private int failed = 0;
+	private Throwable firstError;
+
+	private volatile ScheduledFuture<?> hedgeTimer;
+
+	/**
+	 * @param urls
+	 *            The service URL followed by its mirrors.
+	 * @param allowRequest
+	 *            Asked right before an attempt is launched, e.g. to take the
+	 *            probe slot of an open circuit. False skips the URL.
+	 * @param taskFactory
+	 *            Creates the task for one of the URLs.
+	 * @param timeoutMsec
+	 *            Per-attempt timeout. 0 or less for none.
+	 * @param hedgeDelayMsec
+	 *            Time to wait before asking the next mirror. 0 or less to only
+	 *            use mirrors when an attempt fails.
+	 * @param listener
+	 *            Gets the result of each attempt.
+	 * @param completionQueue
+	 *            Gets this future once it is done.
+	 */
+	static <T> HedgedRequest<T> submit(final PSICQUICScheduler scheduler, final List<String> urls,
+			final Predicate<String> allowRequest, final Function<String, Callable<T>> taskFactory,
+			final long timeoutMsec, final long hedgeDelayMsec, final Listener<T> listener,
+			final BlockingQueue<Future<T>> completionQueue) {
+		final HedgedRequest<T> request = new HedgedRequest<T>(scheduler, urls, allowRequest, taskFactory,
+				timeoutMsec, listener, completionQueue);
+		request.launchNext();
+		if (hedgeDelayMsec > 0 && urls.size() > 1)
+			request.startHedgeTimer(hedgeDelayMsec);
+		return request;
+	}
+
+	private HedgedRequest(final PSICQUICScheduler scheduler, final List<String> urls,
+			final Predicate<String> allowRequest, final Function<String, Callable<T>> taskFactory,
+			final long timeoutMsec, final Listener<T> listener, final BlockingQueue<Future<T>> completionQueue) {
+		// Never run. Completed by the attempts.
+		super(() -> null);
+		this.scheduler = scheduler;
+		this.urls = urls;
+		this.allowRequest = allowRequest;
+		this.taskFactory = taskFactory;
+		this.timeoutMsec = timeoutMsec;
+		this.listener = listener;
+		this.completionQueue = completionQueue;
+	}
+
+	private void startHedgeTimer(final long hedgeDelayMsec) {
+		hedgeTimer = scheduler.scheduleWithFixedDelay(() -> {
+			if (!launchNext()) {
+				final ScheduledFuture<?> t = hedgeTimer;
+				if (t != null)
+					t.cancel(false);
+			}
+		}, hedgeDelayMsec);
+		if (isDone())
+			hedgeTimer.cancel(false);
+	}
+
+	/**
+	 * @return false if there was nothing left to launch.
+	 */
+	private boolean launchNext() {
+		final Throwable error;
+		synchronized (this) {
+			while (!isDone() && next < urls.size()) {
+				final String url = urls.get(next++);
+				if (allowRequest.test(url)) {
+					final long start = System.nanoTime();
+					attempts.add(scheduler.submit(url, taskFactory.apply(url), timeoutMsec,
+							attempt -> onAttemptDone(url, attempt, start)));
+					return true;
+				}
+
+				failed++;
+				if (firstError == null)
+					firstError = new IOException("PSICQUIC service is skipped while it is failing: " + url);
+			}
+			if (isDone() || failed < urls.size())
+				return false;
+			error = firstError;
+		}
+		// Everything left was skipped and nothing is running.
+		setException(error);
+		return false;
+	}
+
+	private void onAttemptDone(final String url, final Future<T> attempt, final long start) {
+		if (isDone())
+			return;
+
+		try {
+			final T result = attempt.get();
+			listener.succeeded(url, (System.nanoTime() - start) / 1000000, result);
+			set(result);
+			return;
+		} catch (CancellationException e) {
+			onAttemptFailed(url, new TimeoutException("No response in " + timeoutMsec + " msec: " + url));
+		} catch (ExecutionException e) {
+			onAttemptFailed(url, e.getCause());
+		} catch (InterruptedException e) {
+			// Cannot happen. The attempt is done.
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void onAttemptFailed(final String url, final Throwable error) {
+		listener.failed(url, error);
+
+		final boolean allFailed;
+		synchronized (this) {
+			failed++;
+			if (firstError == null)
+				firstError = error;
+			allFailed = failed >= urls.size();
+		}
+
+		if (allFailed)
+			setException(firstError);
+		else
+			launchNext();
+	}
+
+	@Override
+	protected void done() {
+		final ScheduledFuture<?> t = hedgeTimer;
+		if (t != null)
+			t.cancel(false);
+
+		final List<Future<T>> toCancel;
+		synchronized (this) {
+			toCancel = new ArrayList<Future<T>>(attempts);
+		}
+		PSICQUICScheduler.cancelAll(toCancel);
+
+		if (completionQueue != null)
+			completionQueue.add(this);
+	}
+}
@@ -0,0 +1,54 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import psidev.psi.mi.tab.model.BinaryInteraction;
+
+/**
+ * Receives the interactions parsed by the provider download tasks of one
+ * merged import.
+ */
+interface InteractionSink {
+
+	/**
+	 * May block until the interaction has been accepted.
+	 *
+	 * @return false if the sink has been closed and the producer should stop.
+	 */
+	boolean put(BinaryInteraction interaction) throws InterruptedException;
+
+	/**
+	 * Must be called exactly once by each producer, even on failure.
+	 */
+	void producerFinished();
+
+	/**
+	 * Stop accepting interactions, e.g. when the deadline has passed or the
+	 * user has cancelled. What has been received so far is still merged.
+	 */
+	void close();
+
+	boolean isClosed();
+}
@@ -0,0 +1,132 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import psidev.psi.mi.tab.model.BinaryInteraction;
+
+/**
+ * Bounded hand-off between the provider download tasks and the merge stage.
+ *
+ * Each provider parses its response line-by-line and puts interactions here
+ * while MiCluster consumes them through the {@link Iterator} interface. Only
+ * the buffer capacity is held in memory at any time.
+ *
+ * Used when MiCluster is selected as the merge engine. See {@link MergingSink}
+ * for the native one.
+ */
+final class InteractionStream implements InteractionSink, Iterator<BinaryInteraction> {
+
+	private static final long POLL_INTERVAL_MSEC = 200;
+
+	private final BlockingQueue<BinaryInteraction> queue;
+	private final AtomicInteger activeProducers;
+
+	private volatile boolean closed = false;
+
+	private BinaryInteraction next;
+
+	InteractionStream(final int capacity, final int producers) {
+		this.queue = new ArrayBlockingQueue<BinaryInteraction>(capacity);
+		this.activeProducers = new AtomicInteger(producers);
+	}
+
+	/**
+	 * Blocks until there is room in the buffer.
+	 *
+	 * @return false if the stream has been closed and the producer should stop.
+	 */
+	@Override
+	public boolean put(final BinaryInteraction interaction) throws InterruptedException {
+		while (!closed) {
+			if (queue.offer(interaction, POLL_INTERVAL_MSEC, TimeUnit.MILLISECONDS))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Must be called exactly once by each producer, even on failure.
+	 */
+	@Override
+	public void producerFinished() {
+		activeProducers.decrementAndGet();
+	}
+
+	/**
+	 * Stop accepting and delivering interactions. The consumer sees the end of
+	 * the stream and merges whatever it has received so far.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		queue.clear();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next != null)
+			return true;
+
+		try {
+			while (!closed) {
+				next = queue.poll(POLL_INTERVAL_MSEC, TimeUnit.MILLISECONDS);
+				if (next != null)
+					return true;
+
+				// All producers are done. Drain the rest.
+				if (activeProducers.get() <= 0) {
+					next = queue.poll();
+					return next != null;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close();
+		}
+		return false;
+	}
+
+	@Override
+	public BinaryInteraction next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+
+		final BinaryInteraction result = next;
+		next = null;
+		return result;
+	}
+}
@@ -0,0 +1,81 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Recent response times of each PSICQUIC service, used to decide when a
+ * request is slow enough to be worth a hedged request to a mirror.
+ */
+final class LatencyTracker {
+
+	// Number of recent samples kept for each key.
+	private static final int WINDOW = 64;
+
+	// Percentiles from fewer samples are not reliable.
+	private static final int MIN_SAMPLES = 8;
+
+	private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<String, Window>();
+
+	void record(final String key, final long msec) {
+		windows.computeIfAbsent(key, k -> new Window()).add(msec);
+	}
+
+	/**
+	 * @param percentile
+	 *            0.0 - 1.0
+	 * @return -1 if there are not enough samples yet.
+	 */
+	long getPercentile(final String key, final double percentile) {
+		final Window window = windows.get(key);
+		return window == null ? -1 : window.getPercentile(percentile);
+	}
+
+	private static final class Window {
+		private final long[] samples = new long[WINDOW];
+		private int count = 0;
+		private int next = 0;
+
+		private synchronized void add(final long msec) {
+			samples[next] = msec;
+			next = (next + 1) % WINDOW;
+			if (count < WINDOW)
+				count++;
+		}
+
+		private synchronized long getPercentile(final double percentile) {
+			if (count < MIN_SAMPLES)
+				return -1;
+
+			final long[] sorted = Arrays.copyOf(samples, count);
+			Arrays.sort(sorted);
+			final int index = (int) Math.ceil(percentile * count) - 1;
+			return sorted[Math.max(0, Math.min(count - 1, index))];
+		}
+	}
+}
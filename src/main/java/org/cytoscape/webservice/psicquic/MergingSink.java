@@ -0,0 +1,78 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.function.Predicate;
+
+import psidev.psi.mi.tab.model.BinaryInteraction;
+
+/**
+ * Merges interactions on the provider threads as soon as they are parsed,
+ * instead of passing them to a single merge thread. Nothing but the merged
+ * result is kept in memory.
+ */
+final class MergingSink implements InteractionSink {
+
+	// Returns false once the merge has finished.
+	private final Predicate<BinaryInteraction> merger;
+
+	private int activeProducers;
+	private boolean closed = false;
+
+	MergingSink(final Predicate<BinaryInteraction> merger, final int producers) {
+		this.merger = merger;
+		this.activeProducers = producers;
+	}
+
+	@Override
+	public boolean put(final BinaryInteraction interaction) {
+		return !isClosed() && merger.test(interaction);
+	}
+
+	@Override
+	public synchronized void producerFinished() {
+		activeProducers--;
+		notifyAll();
+	}
+
+	@Override
+	public synchronized void close() {
+		closed = true;
+		notifyAll();
+	}
+
+	@Override
+	public synchronized boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Blocks until all producers are done or the sink is closed.
+	 */
+	synchronized void await() throws InterruptedException {
+		while (!closed && activeProducers > 0)
+			wait();
+	}
+}
@@ -0,0 +1,102 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Properties;
+
+import org.cytoscape.property.CyProperty;
+import org.cytoscape.service.util.CyServiceRegistrar;
+
+/**
+ * Tuning parameters of this client, read from cytoscape3.props.
+ * Missing or malformed values fall back to the given defaults.
+ */
+public final class PSICQUICProperties {
+
+	public static final String THREADS = "psicquic.threads";
+	public static final String THREADS_PER_HOST = "psicquic.threadsPerHost";
+	public static final String THREAD_MODE = "psicquic.threadMode";
+	public static final String CONNECT_TIMEOUT = "psicquic.connectTimeout";
+	public static final String REQUEST_TIMEOUT = "psicquic.requestTimeout";
+	public static final String CACHE_ENABLED = "psicquic.cache.enabled";
+	public static final String CACHE_TTL = "psicquic.cache.ttl";
+	public static final String CACHE_MAX_SIZE_MB = "psicquic.cache.maxSize";
+	public static final String OFFLINE = "psicquic.offline";
+	public static final String SEARCH_TIMEOUT = "psicquic.search.timeout";
+	public static final String SEARCH_PROVIDER_TIMEOUT = "psicquic.search.providerTimeout";
+	public static final String IMPORT_TIMEOUT = "psicquic.import.timeout";
+	public static final String IMPORT_PROVIDER_TIMEOUT = "psicquic.import.providerTimeout";
+	public static final String HEDGE_ENABLED = "psicquic.hedge.enabled";
+	public static final String MERGE_ENGINE = "psicquic.merge.engine";
+	public static final String MERGE_MEMORY_BUDGET_MB = "psicquic.merge.memoryBudget";
+	public static final String MIRRORS_PREFIX = "psicquic.mirrors.";
+
+	private final CyServiceRegistrar serviceRegistrar;
+
+	public PSICQUICProperties(final CyServiceRegistrar serviceRegistrar) {
+		this.serviceRegistrar = serviceRegistrar;
+	}
+
+	public String getString(final String key, final String defaultValue) {
+		final Properties props = getProperties();
+		if (props == null)
+			return defaultValue;
+
+		final String value = props.getProperty(key);
+		return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+	}
+
+	public int getInt(final String key, final int defaultValue) {
+		try {
+			return Integer.parseInt(getString(key, Integer.toString(defaultValue)));
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	public long getLong(final String key, final long defaultValue) {
+		try {
+			return Long.parseLong(getString(key, Long.toString(defaultValue)));
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	public boolean getBoolean(final String key, final boolean defaultValue) {
+		return Boolean.parseBoolean(getString(key, Boolean.toString(defaultValue)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Properties getProperties() {
+		try {
+			final CyProperty<Properties> cyProp =
+					serviceRegistrar.getService(CyProperty.class, "(cyPropertyName=cytoscape3.props)");
+			return cyProp == null ? null : cyProp.getProperties();
+		} catch (RuntimeException e) {
+			// Service not available (yet).
+			return null;
+		}
+	}
+}
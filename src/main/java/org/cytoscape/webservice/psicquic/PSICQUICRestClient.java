@@ -1,34 +1,51 @@
 package org.cytoscape.webservice.psicquic;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.net.URL;
-import java.net.URLEncoder;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CompletionService;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.service.util.CyServiceRegistrar;
 import org.cytoscape.webservice.psicquic.mapper.CyNetworkBuilder;
+import org.cytoscape.webservice.psicquic.mapper.MergedInteraction;
+import org.cytoscape.webservice.psicquic.mapper.MergedRuns;
+import org.cytoscape.webservice.psicquic.mapper.SpillingMerger;
+import org.cytoscape.webservice.psicquic.simpleclient.HttpStatusException;
+import org.cytoscape.webservice.psicquic.simpleclient.HttpTransport;
 import org.cytoscape.webservice.psicquic.simpleclient.PSICQUICSimpleClient;
 import org.cytoscape.work.TaskMonitor;
 import org.slf4j.Logger;
@@ -87,41 +104,198 @@ public final class PSICQUICRestClient {
 		}
 	}
 
+	/**
+	 * How the results of several providers are merged into one network. Both
+	 * engines map the other IDs of an interactor to the same mapping ID across
+	 * interactions. The native engine is the default.
+	 */
+	public enum MergeEngine {
+		/** {@link SpillingMerger}, while the results are downloaded. */
+		NATIVE,
+		/** MiCluster, on a single thread once the results are in. */
+		MICLUSTER;
+
+		public static MergeEngine parse(final String value) {
+			if (value != null) {
+				for (final MergeEngine engine : values()) {
+					if (engine.name().equalsIgnoreCase(value.trim()))
+						return engine;
+				}
+			}
+			return NATIVE;
+		}
+	}
+
 	public static final Long ERROR_SEARCH_FAILED = -1l;
 	public static final Long ERROR_TIMEOUT = -2l;
 	public static final Long ERROR_CANCEL = -3l;
+	public static final Long ERROR_UNAVAILABLE = -4l;
 
-	// Timeout for search. TODO: Make public as property.
-	private static final long SEARCH_TIMEOUT_MSEC = 1200;
+	// Default deadlines. Can be changed in cytoscape3.props (see PSICQUICProperties).
+	static final long DEF_SEARCH_TIMEOUT_MSEC = 15000;
+	static final long DEF_SEARCH_PROVIDER_TIMEOUT_MSEC = 10000;
+	static final long DEF_IMPORT_TIMEOUT_MSEC = 1000000;
+	static final long DEF_IMPORT_PROVIDER_TIMEOUT_MSEC = 600000;
 
-	// Timeout for import. TODO: Make public as property.
-	private static final long IMPORT_TIMEOUT = 1000;
+	// Merged interactions kept in memory before they are written to disk.
+	static final long DEF_MERGE_MEMORY_BUDGET_MB = 256;
+
+	// Hedge a request when it is slower than this percentile of earlier responses.
+	private static final double HEDGE_PERCENTILE = 0.95;
+
+	private static final String COUNT_LATENCY = "count|";
+	private static final String IMPORT_LATENCY = "import|";
+
+	// Number of parsed interactions buffered between providers and MiCluster in streaming mode.
+	// Not used by the native merge engine, which merges on the provider threads.
+	private static final int STREAM_BUFFER_SIZE = 5000;
+
+	// Results larger than this are downloaded in pages.
+	private static final int PAGE_SIZE = PSICQUICSimpleClient.DEFAULT_PAGE_SIZE;
+
+	// Max number of pages downloaded in parallel from one provider.
+	private static final int PARALLEL_PAGES = PSICQUICSimpleClient.DEFAULT_PARALLEL_PAGES;
 
 	private final RegistryManager regManager;
 	private final CyNetworkBuilder builder;
 
 	private final CyServiceRegistrar serviceRegistrar;
+	private final PSICQUICScheduler scheduler;
+	private final HttpTransport transport;
+	private final CountCache countCache = new CountCache(CountCache.DEF_TTL_MSEC);
+	private final LatencyTracker latencyTracker = new LatencyTracker();
+	private final ProviderHealth health;
+
+	// Services which rejected the MITAB 2.7 request as such.
+	private static final Set<String> NO_MITAB27 = ConcurrentHashMap.newKeySet();
+
+	// Merge directly from the provider streams instead of collecting everything first.
+	private volatile boolean streamingImport = true;
 
-	private static volatile boolean canceled = false;
+	// Operations started by this client which have not finished yet.
+	private final Set<CancellationToken> activeTokens = ConcurrentHashMap.newKeySet();
 
 	public PSICQUICRestClient(RegistryManager regManager, CyNetworkBuilder builder,
-			CyServiceRegistrar serviceRegistrar) {
+			CyServiceRegistrar serviceRegistrar, PSICQUICScheduler scheduler, HttpTransport transport) {
 		this.regManager = regManager;
 		this.builder = builder;
 		this.serviceRegistrar = serviceRegistrar;
+		this.scheduler = scheduler;
+		this.transport = transport;
+		this.health = regManager.getProviderHealth();
+	}
+
+	private PSICQUICSimpleClient createSimpleClient(final String serviceURL) {
+		return new PSICQUICSimpleClient(serviceURL, transport);
+	}
+
+	private PSICQUICProperties getProperties() {
+		return new PSICQUICProperties(serviceRegistrar);
+	}
+
+	/**
+	 * Mirrors are listed in cytoscape3.props as
+	 * <code>psicquic.mirrors.&lt;service name&gt;=url1,url2</code>.
+	 * 
+	 * @return The service URL followed by its mirrors.
+	 */
+	private List<String> getServiceURLs(final String serviceURL, final PSICQUICProperties props) {
+		final List<String> urls = new ArrayList<String>();
+		urls.add(serviceURL);
+
+		final String name = regManager.getSource2NameMap().get(serviceURL);
+		final String mirrors = name == null ? null : props.getString(PSICQUICProperties.MIRRORS_PREFIX + name, null);
+		if (mirrors != null) {
+			for (final String mirror : mirrors.split(",")) {
+				if (!mirror.trim().isEmpty() && !urls.contains(mirror.trim()))
+					urls.add(mirror.trim());
+			}
+		}
+		return urls;
+	}
+
+	/**
+	 * Send a request to a service, with a deadline and hedged requests to its
+	 * mirrors if it is slower than usual.
+	 * 
+	 * @param urls
+	 *            The service URL and its mirrors, in the order they should be
+	 *            tried.
+	 * @param latencyKey
+	 *            Kind of request. Counts and imports have very different
+	 *            response times.
+	 * @param taskFactory
+	 *            Creates the task for the service URL or one of its mirrors.
+	 * @param recordCount
+	 *            Number of records in a result, for the throughput of imports.
+	 * @param hedged
+	 *            False for tasks which do more than fetch a result, e.g. build a
+	 *            network. Mirrors are then only used when an attempt fails.
+	 * @param skipFailing
+	 *            True to skip URLs whose circuit is open, except for the probe.
+	 */
+	private <T> Future<T> submitToService(final List<String> urls, final String latencyKey,
+			final Function<String, Callable<T>> taskFactory, final ToLongFunction<T> recordCount,
+			final long timeoutMsec, final boolean hedged, final boolean skipFailing, final PSICQUICProperties props,
+			final BlockingQueue<Future<T>> completionQueue) {
+		final long hedgeDelay = hedged && props.getBoolean(PSICQUICProperties.HEDGE_ENABLED, true)
+				? latencyTracker.getPercentile(latencyKey + urls.get(0), HEDGE_PERCENTILE) : -1;
+
+		final Predicate<String> allowRequest = skipFailing ? health::allowRequest : url -> true;
+		return HedgedRequest.submit(scheduler, urls, allowRequest, taskFactory, timeoutMsec, hedgeDelay,
+				new HedgedRequest.Listener<T>() {
+					@Override
+					public void succeeded(final String url, final long latencyMsec, final T result) {
+						latencyTracker.record(latencyKey + url, latencyMsec);
+						health.recordSuccess(url, latencyMsec, result == null ? 0 : recordCount.applyAsLong(result));
+					}
+
+					@Override
+					public void failed(final String url, final Throwable error) {
+						if (isProviderFailure(error))
+							health.recordFailure(url);
+					}
+				}, completionQueue);
+	}
+
+	/**
+	 * @return false for errors caused by the request itself, such as a query
+	 *         the service does not understand.
+	 */
+	private static boolean isProviderFailure(final Throwable error) {
+		if (error instanceof HttpStatusException)
+			return ((HttpStatusException) error).getStatusCode() >= 500;
+		return true;
+	}
+
+	/**
+	 * @return Time left until the deadline, or 0 if it has passed.
+	 */
+	private static long timeLeft(final long deadline) {
+		return Math.max(0, deadline - System.currentTimeMillis());
 	}
 
 	/**
-	 * Create one merged network from multiple data sources. This merge will be
-	 * done by MiCluster.
+	 * Create one merged network from multiple data sources. The merge engine is
+	 * chosen by {@link PSICQUICProperties#MERGE_ENGINE}.
 	 * 
 	 * TODO: Merge should be replaced by advanced network merge.
 	 */
 	public CyNetwork importMergedNetwork(final String query, final Collection<String> targetServices,
 			final SearchMode mode, final TaskMonitor tm) throws IOException {
+		return importMergedNetwork(query, targetServices, mode, tm, new CancellationToken());
+	}
 
-		final InteractionCluster importedCluster = importMerged(query, targetServices, mode, tm);
-		final CyNetwork network = builder.buildNetwork(importedCluster);
+	public CyNetwork importMergedNetwork(final String query, final Collection<String> targetServices,
+			final SearchMode mode, final TaskMonitor tm, final CancellationToken token) throws IOException {
+
+		final CyNetwork network;
+		try (final MergedRuns interactions = importMerged(Collections.singletonList(query), targetServices, mode, tm,
+				token)) {
+			if (!interactions.isInMemory())
+				tm.setStatusMessage("Merging results from disk...");
+			network = builder.buildNetwork(interactions, interactions.size(), token);
+		}
 
 		tm.setProgress(1.0d);
 		return network;
@@ -139,47 +313,250 @@ public final class PSICQUICRestClient {
 	 */
 	public Collection<CyNetwork> importNetworks(final String query, final Collection<String> targetServices,
 			final SearchMode mode, final TaskMonitor tm) throws IOException {
+		return importNetworks(query, targetServices, mode, tm, new CancellationToken());
+	}
 
-		final Map<String, CyNetwork> result = importNetworksParallel(query, targetServices, mode, tm);
+	/**
+	 * @param token
+	 *            Cancels this import only. Networks finished before the cancel
+	 *            are returned.
+	 */
+	public Collection<CyNetwork> importNetworks(final String query, final Collection<String> targetServices,
+			final SearchMode mode, final TaskMonitor tm, final CancellationToken token) throws IOException {
+
+		final Map<String, CyNetwork> result = importNetworksParallel(query, targetServices, mode, tm, token);
 		final Set<CyNetwork> networks = new HashSet<CyNetwork>(result.values());
 		tm.setProgress(1.0d);
 		return networks;
 	}
 
-	public InteractionCluster importNeighbours(final String query, final Collection<String> targetServices,
+	public List<MergedInteraction> importNeighbours(final String query, final Collection<String> targetServices,
 			final SearchMode mode, final TaskMonitor tm) throws IOException {
-		return importMerged(query, targetServices, mode, tm);
+		return importNeighbours(query, targetServices, mode, tm, new CancellationToken());
 	}
 
-	private final InteractionCluster importMerged(final String query, final Collection<String> targetServices,
-			final SearchMode mode, final TaskMonitor tm) {
+	public List<MergedInteraction> importNeighbours(final String query, final Collection<String> targetServices,
+			final SearchMode mode, final TaskMonitor tm, final CancellationToken token) throws IOException {
+		return importNeighbours(Collections.singletonList(query), targetServices, mode, tm, token);
+	}
 
-		final Map<String, Collection<BinaryInteraction>> result = importNetwork(query, targetServices, mode, tm);
-		final Collection<Collection<BinaryInteraction>> binaryInteractions = result.values();
-		final List<BinaryInteraction> allInteractions = new ArrayList<BinaryInteraction>();
-		for (Collection<BinaryInteraction> interactions : binaryInteractions)
-			allInteractions.addAll(interactions);
+	/**
+	 * Import the results of several queries at once, e.g. the chunks of
+	 * {@link QueryBuilder#buildIdentifierQueries(Collection)}, and merge them
+	 * into one list. All queries are sent to all services in parallel.
+	 */
+	public List<MergedInteraction> importNeighbours(final List<String> queries, final Collection<String> targetServices,
+			final SearchMode mode, final TaskMonitor tm, final CancellationToken token) throws IOException {
+		try (final MergedRuns interactions = importMerged(queries, targetServices, mode, tm, token)) {
+			return interactions.toList();
+		}
+	}
 
-		tm.setStatusMessage("Merging results...");
-		InteractionCluster iC = new InteractionCluster();
-		iC.setBinaryInteractionIterator(allInteractions.iterator());
+	public boolean isStreamingImport() {
+		return streamingImport;
+	}
+
+	/**
+	 * If true (default), merged imports parse each provider response
+	 * line-by-line and merge the interactions as they arrive, so the raw
+	 * results are never held in memory all at once.
+	 */
+	public void setStreamingImport(final boolean streamingImport) {
+		this.streamingImport = streamingImport;
+	}
+
+	private MergeEngine getMergeEngine() {
+		return MergeEngine.parse(getProperties().getString(PSICQUICProperties.MERGE_ENGINE, null));
+	}
+
+	/**
+	 * Used by the native engine, which is the default. MiCluster, if chosen
+	 * instead, keeps all interactions in memory regardless of the budget.
+	 * 
+	 * @return Merged interactions which take at most
+	 *         {@link PSICQUICProperties#MERGE_MEMORY_BUDGET_MB} of memory. The
+	 *         rest is on disk until it is read.
+	 */
+	private SpillingMerger createMerger() {
+		final long budgetMb = getProperties().getLong(PSICQUICProperties.MERGE_MEMORY_BUDGET_MB,
+				DEF_MERGE_MEMORY_BUDGET_MB);
+		return new SpillingMerger(MAPPING_NAMES, Math.max(1, budgetMb) * 1024 * 1024);
+	}
+
+	private static List<MergedInteraction> cluster(final Iterator<BinaryInteraction> interactions) {
+		final InteractionCluster iC = new InteractionCluster();
+		iC.setBinaryInteractionIterator(interactions);
 		iC.setMappingIdDbNames(MAPPING_NAMES);
 		iC.runService();
+		return MergedInteraction.of(iC.getInteractionMapping().values());
+	}
 
-		return iC;
+	private final MergedRuns importMerged(final List<String> queries,
+			final Collection<String> targetServices, final SearchMode mode, final TaskMonitor tm,
+			final CancellationToken token) {
+		final MergeEngine engine = getMergeEngine();
+		if (streamingImport)
+			return importMergedAsStream(queries, targetServices, mode, tm, token, engine);
+
+		if (engine == MergeEngine.MICLUSTER) {
+			// MiCluster needs all interactions at once.
+			final List<BinaryInteraction> allInteractions = new ArrayList<BinaryInteraction>();
+			for (final String query : queries) {
+				if (!importNetwork(query, targetServices, mode, tm, token, allInteractions::addAll))
+					break;
+			}
+
+			tm.setStatusMessage("Merging results...");
+			return MergedRuns.of(cluster(token.wrap(allInteractions.iterator())));
+		}
+
+		// Each provider result is merged as soon as it arrives and then dropped,
+		// so only one raw result at a time is held on top of the memory budget.
+		final SpillingMerger merger = createMerger();
+		for (final String query : queries) {
+			final boolean finished = importNetwork(query, targetServices, mode, tm, token,
+					interactions -> interactions.parallelStream().forEach(interaction -> {
+						if (!token.isCanceled())
+							merger.add(interaction);
+					}));
+			if (!finished)
+				break;
+		}
+		return merger.finish();
 	}
 
-	private Map<String, CyNetwork> importNetworksParallel(String query, Collection<String> targetServices,
-			SearchMode mode, TaskMonitor tm) {
+	private final MergedRuns importMergedAsStream(final List<String> queries,
+			final Collection<String> targetServices, final SearchMode mode, final TaskMonitor tm,
+			final CancellationToken token, final MergeEngine engine) {
+		tm.setTitle("Loading network data from Remote PSICQUIC Services");
+		tm.setStatusMessage("Merging results while loading...");
+
+		final int total = targetServices.size() * queries.size();
+		final InteractionStream stream;
+		final SpillingMerger merger;
+		final MergingSink mergingSink;
+		final InteractionSink sink;
+		if (engine == MergeEngine.MICLUSTER) {
+			stream = new InteractionStream(STREAM_BUFFER_SIZE, total);
+			merger = null;
+			mergingSink = null;
+			sink = stream;
+		} else {
+			stream = null;
+			merger = createMerger();
+			mergingSink = new MergingSink(merger::add, total);
+			sink = mergingSink;
+		}
+		final Runnable closeSink = sink::close;
+		activeTokens.add(token);
+		token.onCancel(closeSink);
+
+		final List<Future<Long>> futures = new ArrayList<Future<Long>>();
+		final long startTime = System.currentTimeMillis();
+
+		// Merge whatever has arrived when the overall deadline passes.
+		final PSICQUICProperties props = getProperties();
+		final long timeout = props.getLong(PSICQUICProperties.IMPORT_TIMEOUT, DEF_IMPORT_TIMEOUT_MSEC);
+		final long providerTimeout = props.getLong(PSICQUICProperties.IMPORT_PROVIDER_TIMEOUT,
+				DEF_IMPORT_PROVIDER_TIMEOUT_MSEC);
+		final ScheduledFuture<?> deadline = scheduler.schedule(closeSink, timeout);
+
+		// Number of queries still running for each database.
+		final SortedMap<String, Integer> waitingMap = new TreeMap<String, Integer>();
+		final AtomicInteger finished = new AtomicInteger();
+
+		for (final String serviceURL : targetServices)
+			waitingMap.merge(regManager.getSource2NameMap().get(serviceURL), queries.size(), Integer::sum);
+
+		for (final String query : queries) {
+			for (final String serviceURL : health.sortByHealth(targetServices)) {
+				final String name = regManager.getSource2NameMap().get(serviceURL);
+				final Executor hostExecutor = scheduler.forHost(serviceURL);
+				// Not hedged: a second attempt would put the same interactions into the sink twice.
+				final Long knownCount = countCache.getIfPresent(serviceURL, mode, query);
+				final StreamMitabTask task = new StreamMitabTask(serviceURL, createSimpleClient(serviceURL), query,
+						mode, knownCount, sink, hostExecutor, token, health, () -> {
+							final int done = finished.incrementAndGet();
+							final String waiting;
+							synchronized (waitingMap) {
+								waitingMap.computeIfPresent(name, (key, count) -> count > 1 ? count - 1 : null);
+								waiting = waitingMap.keySet().toString();
+							}
+							tm.setProgress((double) done / (double) total);
+							tm.setStatusMessage(done + " / " + total + " tasks finished.\n"
+									+ "Still waiting responses from the following databases:\n\n" + waiting);
+						});
+				futures.add(scheduler.submit(serviceURL, task, providerTimeout, future -> {}));
+			}
+		}
+
+		final MergedRuns result;
+		try {
+			if (stream != null) {
+				result = MergedRuns.of(cluster(stream));
+			} else {
+				try {
+					mergingSink.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				// Producers which are still running cannot change the result anymore.
+				mergingSink.close();
+				result = merger.finish();
+			}
+		} finally {
+			deadline.cancel(false);
+			sink.close();
+			token.removeOnCancel(closeSink);
+			activeTokens.remove(token);
+			PSICQUICScheduler.cancelAll(futures);
+		}
+
+		if (token.isCanceled())
+			logger.warn("Interrupted by user: network import task.  Partial result will be returned.");
+
+		long endTime = System.currentTimeMillis();
+		double sec = (endTime - startTime) / (1000.0);
+		logger.info("PSICUQIC streaming import finished in " + sec + " sec (" + engine + ", " + result.size()
+				+ " interactions).");
+
+		return result;
+	}
+
+	/**
+	 * Register the operation so that {@link #cancel()} reaches it, and cancel its
+	 * tasks as soon as the token is cancelled. This also wakes up the thread
+	 * waiting for results, since cancelled tasks complete immediately.
+	 */
+	private <T> T runCancellable(final CancellationToken token, final List<? extends Future<?>> futures,
+			final Supplier<T> operation) {
+		final Runnable cancelTasks = () -> PSICQUICScheduler.cancelAll(futures);
+		activeTokens.add(token);
+		token.onCancel(cancelTasks);
+		try {
+			return operation.get();
+		} finally {
+			token.removeOnCancel(cancelTasks);
+			activeTokens.remove(token);
+		}
+	}
+
+	private Map<String, CyNetwork> importNetworksParallel(final String query, final Collection<String> targetServices,
+			final SearchMode mode, final TaskMonitor tm, final CancellationToken token) {
+		final List<Future<CyNetwork>> futures = new CopyOnWriteArrayList<Future<CyNetwork>>();
+		return runCancellable(token, futures,
+				() -> collectNetworks(query, targetServices, mode, tm, token, futures));
+	}
+
+	private Map<String, CyNetwork> collectNetworks(String query, Collection<String> targetServices,
+			SearchMode mode, TaskMonitor tm, CancellationToken token, List<Future<CyNetwork>> futures) {
 
 		final Map<String, CyNetwork> result = new ConcurrentHashMap<String, CyNetwork>();
-		canceled = false;
 
 		tm.setTitle("Loading network data from Remote PSICQUIC Services");
 
 		Map<String, CyNetwork> resultMap = new ConcurrentHashMap<String, CyNetwork>();
-		final ExecutorService exe = Executors.newCachedThreadPool();
-		final CompletionService<CyNetwork> completionService = new ExecutorCompletionService<CyNetwork>(exe);
+		final BlockingQueue<Future<CyNetwork>> completionQueue = new LinkedBlockingQueue<Future<CyNetwork>>();
 
 		final long startTime = System.currentTimeMillis();
 		double completed = 0.0d;
@@ -187,26 +564,34 @@ public final class PSICQUICRestClient {
 
 		final SortedSet<String> sourceSet = new TreeSet<String>();
 		final SortedSet<String> nameSet = new TreeSet<String>();
-		final Set<ImportNetworkTask> taskSet = new HashSet<ImportNetworkTask>();
+
+		final PSICQUICProperties props = getProperties();
+		final long deadline = startTime + props.getLong(PSICQUICProperties.IMPORT_TIMEOUT, DEF_IMPORT_TIMEOUT_MSEC);
+		final long providerTimeout = props.getLong(PSICQUICProperties.IMPORT_PROVIDER_TIMEOUT,
+				DEF_IMPORT_PROVIDER_TIMEOUT_MSEC);
 		
-		for (final String serviceURL : targetServices) {
+		// Explicitly selected, so unhealthy services are still tried, just last.
+		for (final String serviceURL : health.sortByHealth(targetServices)) {
 			final String networkTitle = regManager.getSource2NameMap().get(serviceURL);
 			nameSet.add(networkTitle);
-			ImportNetworkTask task = new ImportNetworkTask(networkTitle, serviceURL, query, mode, serviceRegistrar);
-			completionService.submit(task);
-			taskSet.add(task);
+			futures.add(submitToService(health.sortByHealth(getServiceURLs(serviceURL, props)), IMPORT_LATENCY,
+					url -> new ImportNetworkTask(networkTitle, serviceURL, createSimpleClient(url), query, mode,
+							countCache.getIfPresent(serviceURL, mode, query), scheduler.forHost(url), token,
+							builder),
+					// Not hedged: each attempt would build a whole network of its own.
+					network -> network.getEdgeCount(), providerTimeout, false, false, props, completionQueue));
 			sourceSet.add(serviceURL);
 		}
 
 		int i = 0;
 		for (final String service : targetServices) {
 			// Cancel operation
-			if (canceled) {
+			if (token.isCanceled()) {
 				logger.warn("Interrupted by user: network import task");
 				tm.setTitle("Import Canceled");
 				tm.setStatusMessage("Import Canceled: Partial result will be returned.");
 				try {
-					exe.shutdownNow();
+					PSICQUICScheduler.cancelAll(futures);
 					long endTime = System.currentTimeMillis();
 					double sec = (endTime - startTime) / (1000.0);
 					logger.info("PSICUQIC Import terminated by user in " + sec + " sec.");
@@ -214,11 +599,7 @@ public final class PSICQUICRestClient {
 					logger.warn("Operation timeout", ex);
 					return null;
 				} finally {
-					for(ImportNetworkTask task: taskSet) {
-						task.cancel();
-					}
 					resultMap.clear();
-					taskSet.clear();
 					sourceSet.clear();
 				}
 				tm.setProgress(1.0d);
@@ -227,7 +608,13 @@ public final class PSICQUICRestClient {
 
 			Future<CyNetwork> future = null;
 			try {
-				future = completionService.take();
+				future = completionQueue.poll(timeLeft(deadline), TimeUnit.MILLISECONDS);
+				if (future == null) {
+					logger.warn("Import operation timeout");
+					break;
+				}
+				if (future.isCancelled())
+					continue;
 				final CyNetwork ret = future.get();
 				String sourceName = null;
 				if (ret != null) {
@@ -249,54 +636,56 @@ public final class PSICQUICRestClient {
 						+ "Waiting results from the following databases: " + builder.toString());
 
 			} catch (InterruptedException ie) {
-				for (final ImportNetworkTask t : taskSet)
-					t.cancel();
-
-				taskSet.clear();
-
-				List<Runnable> tasks = exe.shutdownNow();
-				logger.warn("Interrupted: network import.  Remaining = " + tasks.size(), ie);
+				token.cancel();
+				PSICQUICScheduler.cancelAll(futures);
+				logger.warn("Interrupted: network import.", ie);
 				resultMap.clear();
 				resultMap = null;
 				return null;
 			} catch (ExecutionException e) {
 				logger.warn("Error occured in network import", e);
 				continue;
+			} catch (CancellationException e) {
+				continue;
 			}
 
 			i++;
 		}
 
-		try {
-			exe.shutdown();
-			exe.awaitTermination(IMPORT_TIMEOUT, TimeUnit.SECONDS);
-
-			long endTime = System.currentTimeMillis();
-			double sec = (endTime - startTime) / (1000.0);
-			logger.info("PSICUQIC Import Finished in " + sec + " sec.");
-		} catch (Exception ex) {
-			logger.warn("Import operation timeout", ex);
-			return null;
-		} finally {
-			taskSet.clear();
-			sourceSet.clear();
-		}
+		// Nothing should be left unless the import timed out.
+		PSICQUICScheduler.cancelAll(futures);
+		sourceSet.clear();
+
+		long endTime = System.currentTimeMillis();
+		double sec = (endTime - startTime) / (1000.0);
+		logger.info("PSICUQIC Import Finished in " + sec + " sec.");
 
 		return result;
 	}
 
-	private Map<String, Collection<BinaryInteraction>> importNetwork(final String query,
-			final Collection<String> targetServices, final SearchMode mode, final TaskMonitor tm) {
-		final Map<String, Collection<BinaryInteraction>> result = new HashMap<String, Collection<BinaryInteraction>>();
-
-		canceled = false;
+	/**
+	 * @param onResult
+	 *            Gets the result of each service as soon as it arrives. The
+	 *            result is not kept here afterwards.
+	 * @return false if the import was cancelled or interrupted.
+	 */
+	private boolean importNetwork(final String query, final Collection<String> targetServices,
+			final SearchMode mode, final TaskMonitor tm, final CancellationToken token,
+			final Consumer<Collection<BinaryInteraction>> onResult) {
+		final List<Future<Collection<BinaryInteraction>>> futures =
+				new CopyOnWriteArrayList<Future<Collection<BinaryInteraction>>>();
+		return runCancellable(token, futures,
+				() -> collectInteractions(query, targetServices, mode, tm, token, futures, onResult));
+	}
 
+	private boolean collectInteractions(final String query, final Collection<String> targetServices,
+			final SearchMode mode, final TaskMonitor tm, final CancellationToken token,
+			final List<Future<Collection<BinaryInteraction>>> futures,
+			final Consumer<Collection<BinaryInteraction>> onResult) {
 		tm.setTitle("Loading network data from Remote PSICQUIC Services");
 
 		Map<String, CyNetwork> resultMap = new ConcurrentHashMap<String, CyNetwork>();
-		final ExecutorService exe = Executors.newCachedThreadPool();
-		final CompletionService<Collection<BinaryInteraction>> completionService = new ExecutorCompletionService<Collection<BinaryInteraction>>(
-				exe);
+		final BlockingQueue<Future<Collection<BinaryInteraction>>> completionQueue = new LinkedBlockingQueue<Future<Collection<BinaryInteraction>>>();
 
 		final long startTime = System.currentTimeMillis();
 
@@ -306,34 +695,47 @@ public final class PSICQUICRestClient {
 
 		final SortedSet<String> sourceSet = new TreeSet<String>();
 		final SortedSet<String> nameSet = new TreeSet<String>();
-		final Set<ImportNetworkAsMitabTask> taskSet = new HashSet<ImportNetworkAsMitabTask>();
-		for (final String serviceURL : targetServices) {
+
+		final PSICQUICProperties props = getProperties();
+		final long deadline = startTime + props.getLong(PSICQUICProperties.IMPORT_TIMEOUT, DEF_IMPORT_TIMEOUT_MSEC);
+		final long providerTimeout = props.getLong(PSICQUICProperties.IMPORT_PROVIDER_TIMEOUT,
+				DEF_IMPORT_PROVIDER_TIMEOUT_MSEC);
+
+		// Explicitly selected, so unhealthy services are still tried, just last.
+		for (final String serviceURL : health.sortByHealth(targetServices)) {
 			nameSet.add(regManager.getSource2NameMap().get(serviceURL));
-			final ImportNetworkAsMitabTask task = new ImportNetworkAsMitabTask(serviceURL, query, mode);
-			completionService.submit(task);
-			taskSet.add(task);
+			futures.add(submitToService(health.sortByHealth(getServiceURLs(serviceURL, props)), IMPORT_LATENCY,
+					url -> new ImportNetworkAsMitabTask(serviceURL, createSimpleClient(url), query, mode,
+							countCache.getIfPresent(serviceURL, mode, query), scheduler.forHost(url), token),
+					Collection::size, providerTimeout, true, false, props, completionQueue));
 			sourceSet.add(serviceURL);
 		}
 
 		int i = 0;
 		for (final String service : targetServices) {
-			if (canceled) {
+			if (token.isCanceled()) {
 				logger.warn("Interrupted by user: network import task");
-				exe.shutdownNow();
+				PSICQUICScheduler.cancelAll(futures);
 				resultMap.clear();
 				resultMap = null;
 
-				return null;
+				return false;
 			}
 
 			Future<Collection<BinaryInteraction>> future = null;
 			try {
-				future = completionService.take();
-				final Collection<BinaryInteraction> ret = future.get();
-				if (ret != null) {
-					result.put(service, ret);
-					// binaryInteractions.addAll(ret);
+				future = completionQueue.poll(timeLeft(deadline), TimeUnit.MILLISECONDS);
+				if (future == null) {
+					logger.warn("Import operation timeout");
+					break;
 				}
+				if (future.isCancelled())
+					continue;
+				final Collection<BinaryInteraction> ret = future.get();
+				// Not referenced by the future list any more once it is merged.
+				futures.remove(future);
+				if (ret != null)
+					onResult.accept(ret);
 
 				completed = completed + increment;
 				tm.setProgress(completed);
@@ -348,40 +750,31 @@ public final class PSICQUICRestClient {
 						+ "Still waiting responses from the following databases:\n\n" + nameSet.toString());
 
 			} catch (InterruptedException ie) {
-				for (final ImportNetworkAsMitabTask t : taskSet)
-					t.cancel();
-
-				taskSet.clear();
-
-				List<Runnable> tasks = exe.shutdownNow();
-				logger.warn("Interrupted: network import.  Remaining = " + tasks.size(), ie);
+				token.cancel();
+				PSICQUICScheduler.cancelAll(futures);
+				logger.warn("Interrupted: network import.", ie);
 				resultMap.clear();
 				resultMap = null;
-				return null;
+				return false;
 			} catch (ExecutionException e) {
 				logger.warn("Error occured in network import", e);
 				continue;
+			} catch (CancellationException e) {
+				continue;
 			}
 
 			i++;
 		}
 
-		try {
-			exe.shutdown();
-			exe.awaitTermination(IMPORT_TIMEOUT, TimeUnit.SECONDS);
-
-			long endTime = System.currentTimeMillis();
-			double sec = (endTime - startTime) / (1000.0);
-			logger.info("PSICUQIC Import Finished in " + sec + " sec.");
-		} catch (Exception ex) {
-			logger.warn("Import operation timeout", ex);
-			return null;
-		} finally {
-			taskSet.clear();
-			sourceSet.clear();
-		}
+		// Nothing should be left unless the import timed out.
+		PSICQUICScheduler.cancelAll(futures);
+		sourceSet.clear();
 
-		return result;
+		long endTime = System.currentTimeMillis();
+		double sec = (endTime - startTime) / (1000.0);
+		logger.info("PSICUQIC Import Finished in " + sec + " sec.");
+
+		return !token.isCanceled();
 	}
 
 	/**
@@ -395,20 +788,24 @@ public final class PSICQUICRestClient {
 	 */
 	public Map<String, Long> search(final String query, final Collection<String> targetServices, final SearchMode mode,
 			final TaskMonitor tm) {
+		return search(query, targetServices, mode, tm, new CancellationToken());
+	}
 
-		canceled = false;
+	public Map<String, Long> search(final String query, final Collection<String> targetServices, final SearchMode mode,
+			final TaskMonitor tm, final CancellationToken token) {
+		final List<Future<SearchResult>> futures = new CopyOnWriteArrayList<Future<SearchResult>>();
+		return runCancellable(token, futures, () -> collectCounts(query, targetServices, mode, tm, token, futures));
+	}
 
+	private Map<String, Long> collectCounts(final String query, final Collection<String> targetServices,
+			final SearchMode mode, final TaskMonitor tm, final CancellationToken token,
+			final List<Future<SearchResult>> futures) {
 		Map<String, Long> resultMap = new ConcurrentHashMap<String, Long>();
 
-		final ExecutorService exe = Executors.newCachedThreadPool();
-		final CompletionService<SearchResult> completionService = new ExecutorCompletionService<SearchResult>(exe);
+		final BlockingQueue<Future<SearchResult>> completionQueue = new LinkedBlockingQueue<Future<SearchResult>>();
 
 		final long startTime = System.currentTimeMillis();
 
-		// Submit the query for each active service
-		for (final String serviceURL : targetServices)
-			completionService.submit(new SearchTask(serviceURL, query, mode));
-
 		double completed = 0.0d;
 		final double increment = 1.0d / (double) targetServices.size();
 		Future<SearchResult> future = null;
@@ -417,12 +814,40 @@ public final class PSICQUICRestClient {
 		final int total = targetServices.size();
 		
 		final Set<String> remaining = new HashSet<String>(targetServices);
-		
+
+		final PSICQUICProperties props = getProperties();
+		final long deadline = startTime + props.getLong(PSICQUICProperties.SEARCH_TIMEOUT, DEF_SEARCH_TIMEOUT_MSEC);
+		final long providerTimeout = props.getLong(PSICQUICProperties.SEARCH_PROVIDER_TIMEOUT,
+				DEF_SEARCH_PROVIDER_TIMEOUT_MSEC);
+
+		// Submit the query for each active service, unless the count is already known
+		// or the service and all of its mirrors have been failing.
+		for (final String serviceURL : health.sortByHealth(targetServices)) {
+			final Long cached = countCache.getIfPresent(serviceURL, mode, query);
+			final List<String> urls = cached == null ? health.select(getServiceURLs(serviceURL, props)) : null;
+			if (cached != null || urls.isEmpty()) {
+				resultMap.put(serviceURL, cached != null ? cached : ERROR_UNAVAILABLE);
+				remaining.remove(serviceURL);
+				completed += increment;
+				compCount++;
+				continue;
+			}
+			futures.add(submitToService(urls, COUNT_LATENCY,
+					url -> new SearchTask(serviceURL, createSimpleClient(url), query, mode, countCache),
+					result -> 0, providerTimeout, true, true, props, completionQueue));
+		}
+		tm.setProgress(completed);
+
+		// Failed services stay in the remaining set, so count the answers instead.
+		int pending = futures.size();
+
 		try {
-			while((future = completionService.poll(SEARCH_TIMEOUT_MSEC, TimeUnit.MILLISECONDS)) != null){
-				if (canceled) {
+			while(pending > 0 && (future = completionQueue.poll(timeLeft(deadline), TimeUnit.MILLISECONDS)) != null){
+				pending--;
+				if (token.isCanceled()) {
 					logger.warn("Search canceled by user.");
 					tm.setTitle("Search Canceled");
+					PSICQUICScheduler.cancelAll(futures);
 					for(final String timeout: remaining) {
 						resultMap.put(timeout, ERROR_SEARCH_FAILED);
 					}
@@ -443,10 +868,12 @@ public final class PSICQUICRestClient {
 				} catch (InterruptedException e) {
 					logger.warn("Search canceled: ", e);
 					continue;
+				} catch (CancellationException e) {
+					continue;
 				}
 			}
 		} catch (InterruptedException e) {
-			exe.shutdownNow();
+			PSICQUICScheduler.cancelAll(futures);
 			logger.warn("Interrupted", e);
 			for(final String timeout: remaining) {
 				resultMap.put(timeout, ERROR_SEARCH_FAILED);
@@ -463,7 +890,8 @@ public final class PSICQUICRestClient {
 			resultMap.put(timeout, ERROR_TIMEOUT);
 		}
 
-		exe.shutdown();
+		// Do not keep slow services busy after the timeout.
+		PSICQUICScheduler.cancelAll(futures);
 		return resultMap;
 	}
 
@@ -491,123 +919,277 @@ public final class PSICQUICRestClient {
 	 */
 	private static final class SearchTask implements Callable<SearchResult> {
 		private final String serviceURL;
+		private final PSICQUICSimpleClient simpleClient;
 		private final String query;
 		private final SearchMode mode;
+		private final CountCache countCache;
 
-		private SearchTask(final String serviceURL, final String query, final SearchMode mode) {
+		private SearchTask(final String serviceURL, final PSICQUICSimpleClient simpleClient, final String query,
+				final SearchMode mode, final CountCache countCache) {
 			this.serviceURL = serviceURL;
+			this.simpleClient = simpleClient;
 			this.query = query;
 			this.mode = mode;
+			this.countCache = countCache;
 		}
 
 		public SearchResult call() throws Exception {
-			final PSICQUICSimpleClient simpleClient = new PSICQUICSimpleClient(serviceURL);
-			final SearchResult result;
-			if (mode == SearchMode.INTERACTOR) {
-				result = new SearchResult(serviceURL, simpleClient.countByInteractor(query));
-			} else {
-				result = new SearchResult(serviceURL, simpleClient.countByQuery(query));
-			}
-			return result;
+			final long count = countCache.get(serviceURL, mode, query, () -> {
+				if (mode == SearchMode.INTERACTOR)
+					return simpleClient.countByInteractor(query);
+				else
+					return simpleClient.countByQuery(query);
+			});
+			return new SearchResult(serviceURL, count);
 		}
 	}
 
 	private static final class ImportNetworkAsMitabTask implements Callable<Collection<BinaryInteraction>> {
 		private final String serviceURL;
+		private final PSICQUICSimpleClient simpleClient;
 		private final String query;
 		private final SearchMode mode;
+		private final long count;
+		private final Executor pageExecutor;
+		private final CancellationToken token;
 
-		private ImportNetworkAsMitabTask(final String serviceURL, final String query, final SearchMode mode) {
+		private ImportNetworkAsMitabTask(final String serviceURL, final PSICQUICSimpleClient simpleClient,
+				final String query, final SearchMode mode, final Long count, final Executor pageExecutor,
+				final CancellationToken token) {
 			this.serviceURL = serviceURL;
+			this.simpleClient = simpleClient;
 			this.query = query;
 			this.mode = mode;
+			this.count = toKnownCount(count);
+			this.pageExecutor = pageExecutor;
+			this.token = token;
 		}
 
 		@Override
 		public Collection<BinaryInteraction> call() throws Exception {
+			logger.info("Query: " + serviceURL + " (" + mode + "): " + query);
 
-			String encodedStr = URLEncoder.encode(query, "UTF-8");
-			encodedStr = encodedStr.replaceAll("\\+", "%20");
-
-			URL queryURL = null;
-			if (mode == SearchMode.INTERACTOR) {
-				// Query is list of interactors.
-				queryURL = new URL(serviceURL + "interactor/" + encodedStr);
-			} else if (mode == SearchMode.MIQL) {
-				queryURL = new URL(serviceURL + "query/" + encodedStr);
+			final PsimiTabReader mitabReader = new PsimiTabReader(/*false*/);
+			try (final InputStream is = token.wrap(openResult(simpleClient, query, mode,
+					PSICQUICSimpleClient.MITAB25, count, pageExecutor))) {
+				return mitabReader.read(is);
 			}
+		}
+	}
 
-			if (queryURL == null)
-				throw new IllegalArgumentException("Could not create query URL.");
-
-			logger.info("Query URL: " + queryURL);
-
-			final PsimiTabReader mitabReader = new PsimiTabReader(/*false*/);
-			return mitabReader.read(queryURL);
+	/**
+	 * Parse the MITAB response line-by-line and hand each interaction to the
+	 * shared sink as soon as it is available.
+	 */
+	private static final class StreamMitabTask implements Callable<Long> {
+		private final String serviceURL;
+		private final PSICQUICSimpleClient simpleClient;
+		private final String query;
+		private final SearchMode mode;
+		private final long knownCount;
+		private final InteractionSink sink;
+		private final Executor pageExecutor;
+		private final CancellationToken token;
+		private final ProviderHealth health;
+		private final Runnable onFinish;
+
+		private StreamMitabTask(final String serviceURL, final PSICQUICSimpleClient simpleClient, final String query,
+				final SearchMode mode, final Long knownCount, final InteractionSink sink, final Executor pageExecutor,
+				final CancellationToken token, final ProviderHealth health, final Runnable onFinish) {
+			this.serviceURL = serviceURL;
+			this.simpleClient = simpleClient;
+			this.query = query;
+			this.mode = mode;
+			this.knownCount = toKnownCount(knownCount);
+			this.sink = sink;
+			this.pageExecutor = pageExecutor;
+			this.token = token;
+			this.health = health;
+			this.onFinish = onFinish;
 		}
 
-		public void cancel() {
-			canceled = true;
+		@Override
+		public Long call() throws Exception {
+			final long start = System.currentTimeMillis();
+			long count = 0;
+			try {
+				logger.info("Query: " + serviceURL + " (" + mode + "): " + query);
+
+				final PsimiTabReader mitabReader = new PsimiTabReader();
+				final InputStream is = token.wrap(openResult(simpleClient, query, mode,
+						PSICQUICSimpleClient.MITAB25, knownCount, pageExecutor));
+				try (final BufferedReader reader = new BufferedReader(
+						new InputStreamReader(is, Charset.forName("UTF-8").newDecoder()))) {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						if (token.isCanceled() || sink.isClosed())
+							break;
+						if (line.isEmpty() || line.startsWith("#"))
+							continue;
+
+						final BinaryInteraction interaction;
+						try {
+							interaction = mitabReader.readLine(line);
+						} catch (Exception ex) {
+							logger.warn("Skipping invalid MITAB line from " + serviceURL, ex);
+							continue;
+						}
+						if (interaction == null)
+							continue;
+						if (!sink.put(interaction))
+							break;
+						count++;
+					}
+				}
+				// Results cut short by the deadline say nothing about the provider.
+				if (!token.isCanceled() && !sink.isClosed())
+					health.recordSuccess(serviceURL, System.currentTimeMillis() - start, count);
+			} catch (InterruptedException ie) {
+				logger.warn("Interrupted: streaming import from " + serviceURL);
+			} catch (Exception ex) {
+				logger.warn("Error occured in network import: " + serviceURL, ex);
+				if (!token.isCanceled() && !sink.isClosed() && isProviderFailure(ex))
+					health.recordFailure(serviceURL);
+			} finally {
+				sink.producerFinished();
+				onFinish.run();
+			}
+			return count;
 		}
 	}
 
 	private static final class ImportNetworkTask implements Callable<CyNetwork> {
 
 		private final String serviceURL;
+		private final PSICQUICSimpleClient simpleClient;
 		private final String query;
 		private final SearchMode mode;
 		private final CyNetworkBuilder builder;
 		private final String networkTitle;
-
-		// The network created from the result.
-		private CyNetwork network;
-
-		private ImportNetworkTask(final String networkTitle, final String serviceURL, final String query,
-				final SearchMode mode, final CyServiceRegistrar serviceRegistrar) {
+		private final Executor pageExecutor;
+		private final CancellationToken token;
+		// From the search, or UNKNOWN_COUNT.
+		private final long count;
+
+		private ImportNetworkTask(final String networkTitle, final String serviceURL,
+				final PSICQUICSimpleClient simpleClient, final String query, final SearchMode mode,
+				final Long expectedCount, final Executor pageExecutor, final CancellationToken token,
+				final CyNetworkBuilder builder) {
 			this.serviceURL = serviceURL;
+			this.simpleClient = simpleClient;
 			this.query = query;
 			this.mode = mode;
+			this.count = toKnownCount(expectedCount);
 			this.networkTitle = networkTitle;
-			this.builder = new CyNetworkBuilder(serviceRegistrar);
+			this.pageExecutor = pageExecutor;
+			this.token = token;
+			this.builder = builder;
 		}
 
 		@Override
 		public CyNetwork call() throws Exception {
-			String encodedStr = URLEncoder.encode(query, "UTF-8");
-			encodedStr = encodedStr.replaceAll("\\+", "%20");
-
-			URL queryURL = null;
-			String queryString = "";
-			if (mode == SearchMode.INTERACTOR) {
-				queryString = serviceURL + "interactor/" + encodedStr + "?format=tab27";
-			} else if (mode == SearchMode.MIQL) {
-				queryString = serviceURL + "query/" + encodedStr + "?format=tab27";
+			InputStream strm = null;
+			if (!NO_MITAB27.contains(serviceURL)) {
+				try {
+					strm = openMitab27();
+				} catch (IOException ex) {
+					if (isInterrupt(ex) || token.isCanceled())
+						throw ex;
+					if (isFormatRejected(ex)) {
+						logger.warn("MITAB 2.7 is not supported by: " + networkTitle);
+						NO_MITAB27.add(serviceURL);
+					} else {
+						// May work next time, e.g. after a timeout.
+						logger.warn("Could not get MITAB 2.7 from " + networkTitle + ". Using MITAB 2.5 this time.",
+								ex);
+					}
+				}
 			}
-			queryURL = new URL(queryString);
+			if (strm == null)
+				strm = openResult(simpleClient, query, mode, PSICQUICSimpleClient.MITAB25, count, pageExecutor);
 
-			InputStream strm = null;
-			try {
-				strm = queryURL.openStream();
-			} catch (Exception ex) {
-				logger.warn("MITAB 2.7 is not supported by: " + networkTitle);
-				queryString = queryString.split("\\?")[0];
-				queryURL = new URL(queryString);
-				strm = queryURL.openStream();
+			try (final BufferedReader reader = new BufferedReader(
+					new InputStreamReader(token.wrap(strm), Charset.forName("UTF-8").newDecoder()))) {
+				return builder.buildNetwork(reader, networkTitle, token, Math.max(0, count));
 			}
+		}
 
-			final BufferedReader reader = new BufferedReader(new InputStreamReader(strm, Charset.forName("UTF-8").newDecoder()));
-			CyNetwork network = builder.buildNetwork(reader, networkTitle);
-			return network;
+		/**
+		 * Paged results fail on the first read instead of on open, so the first
+		 * byte is read here to find out if the format is accepted.
+		 */
+		private InputStream openMitab27() throws IOException {
+			final InputStream is = new BufferedInputStream(
+					openResult(simpleClient, query, mode, PSICQUICSimpleClient.MITAB27, count, pageExecutor));
+			try {
+				is.mark(1);
+				is.read();
+				is.reset();
+			} catch (IOException e) {
+				is.close();
+				throw e;
+			}
+			return is;
 		}
+	}
+
+	/**
+	 * @return true if the service refused the request itself, which is how a
+	 *         service without MITAB 2.7 answers. Timeouts and rate limits say
+	 *         nothing about the format.
+	 */
+	static boolean isFormatRejected(final IOException error) {
+		if (!(error instanceof HttpStatusException))
+			return false;
+		final int status = ((HttpStatusException) error).getStatusCode();
+		return status >= 400 && status < 500 && status != 408 && status != 429;
+	}
+
+	/**
+	 * @return true if the error means the thread was interrupted, e.g. because
+	 *         the attempt was cancelled. A socket timeout is not an interrupt.
+	 */
+	static boolean isInterrupt(final IOException error) {
+		return Thread.currentThread().isInterrupted()
+				|| (error instanceof InterruptedIOException && !(error instanceof SocketTimeoutException));
+	}
+
+	/**
+	 * @return The count from the search, or
+	 *         {@link PSICQUICSimpleClient#UNKNOWN_COUNT} if there is none.
+	 */
+	private static long toKnownCount(final Long count) {
+		return count == null || count < 0 ? PSICQUICSimpleClient.UNKNOWN_COUNT : count;
+	}
 
-		public void cancel() {
-			canceled = true;
-			if(network != null)
-				network.getRow(network).set(CyNetwork.NAME, networkTitle);
+	/**
+	 * Open the full result of the query. Large results are downloaded in pages,
+	 * several at a time, on the given executor.
+	 * 
+	 * @param count
+	 *            Number of records from the search, or
+	 *            {@link PSICQUICSimpleClient#UNKNOWN_COUNT}. Saves a count request.
+	 */
+	private static InputStream openResult(final PSICQUICSimpleClient simpleClient, final String query,
+			final SearchMode mode, final String format, final long count, final Executor pageExecutor)
+			throws IOException {
+		if (mode == SearchMode.INTERACTOR) {
+			// Query is list of interactors.
+			return simpleClient.getByInteractorInPages(query, format, count, PAGE_SIZE, PARALLEL_PAGES,
+					pageExecutor);
+		} else if (mode == SearchMode.MIQL) {
+			return simpleClient.getByQueryInPages(query, format, count, PAGE_SIZE, PARALLEL_PAGES, pageExecutor);
 		}
+
+		throw new IllegalArgumentException("Could not create query URL.");
 	}
 
+	/**
+	 * Cancel all operations of this client which are still running. Use the
+	 * {@link CancellationToken} of an operation to cancel only that one.
+	 */
 	public void cancel() {
-		canceled = true;
+		for (final CancellationToken token : activeTokens)
+			token.cancel();
 	}
 }
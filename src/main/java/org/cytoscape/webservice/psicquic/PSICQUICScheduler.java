@@ -0,0 +1,341 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Client-wide thread pool for all remote PSICQUIC calls.
+ *
+ * One instance is created by the activator and shut down with the bundle.
+ * The number of worker threads is fixed, and tasks sent to the same host go
+ * through a per-host queue so that no single service can take all the workers
+ * or be hit by more than the configured number of concurrent requests.
+ *
+ * On Java 21 and later the tasks can run on virtual threads instead. All remote
+ * calls are blocking I/O, so this allows many more requests in flight without
+ * one OS thread for each of them. The per-host limit still applies.
+ */
+public final class PSICQUICScheduler {
+
+	private static final Logger logger = LoggerFactory.getLogger(PSICQUICScheduler.class);
+
+	public static final int DEF_POOL_SIZE = 16;
+	public static final int DEF_PER_HOST_LIMIT = 6;
+
+	private static final long KEEP_ALIVE_SEC = 60;
+	private static final String THREAD_NAME_PREFIX = "PSICQUIC-worker-";
+	private static final String TIMER_THREAD_NAME = "PSICQUIC-timer";
+
+	/**
+	 * How worker threads are created.
+	 */
+	public enum ThreadMode {
+		/** Virtual threads if the JVM supports them, platform threads otherwise. */
+		AUTO,
+		PLATFORM,
+		VIRTUAL;
+
+		public static ThreadMode parse(final String value) {
+			if (value != null) {
+				for (final ThreadMode mode : values()) {
+					if (mode.name().equalsIgnoreCase(value.trim()))
+						return mode;
+				}
+			}
+			return AUTO;
+		}
+	}
+
+	private final ExecutorService executor;
+	private final int perHostLimit;
+	private final boolean virtual;
+
+	// Deadlines and hedging delays. Never runs remote calls itself.
+	private final ScheduledThreadPoolExecutor timer;
+
+	private final ConcurrentMap<String, HostExecutor> hostExecutors = new ConcurrentHashMap<String, HostExecutor>();
+
+	public PSICQUICScheduler() {
+		this(DEF_POOL_SIZE, DEF_PER_HOST_LIMIT);
+	}
+
+	public PSICQUICScheduler(final int poolSize, final int perHostLimit) {
+		this(poolSize, perHostLimit, ThreadMode.PLATFORM);
+	}
+
+	/**
+	 * @param poolSize
+	 *            Max number of worker threads.
+	 * @param perHostLimit
+	 *            Max number of tasks running against the same host.
+	 * @param mode
+	 *            Platform or virtual threads. Pool size is ignored for virtual
+	 *            threads.
+	 */
+	public PSICQUICScheduler(final int poolSize, final int perHostLimit, final ThreadMode mode) {
+		if (poolSize <= 0)
+			throw new IllegalArgumentException("Pool size must be positive: " + poolSize);
+		if (perHostLimit <= 0)
+			throw new IllegalArgumentException("Per-host limit must be positive: " + perHostLimit);
+
+		this.perHostLimit = perHostLimit;
+
+		this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+			final Thread thread = new Thread(r, TIMER_THREAD_NAME);
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.timer.setRemoveOnCancelPolicy(true);
+
+		final ExecutorService virtualExecutor = mode == ThreadMode.PLATFORM ? null : createVirtualExecutor();
+		if (virtualExecutor != null) {
+			this.executor = virtualExecutor;
+			this.virtual = true;
+			logger.info("PSICQUIC scheduler started: virtual threads, " + perHostLimit + " per host.");
+		} else {
+			if (mode == ThreadMode.VIRTUAL)
+				logger.warn("Virtual threads are not supported by this JVM. Using platform threads.");
+
+			final ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SEC,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory());
+			pool.allowCoreThreadTimeOut(true);
+			this.executor = pool;
+			this.virtual = false;
+			logger.info("PSICQUIC scheduler started: " + poolSize + " threads, " + perHostLimit + " per host.");
+		}
+	}
+
+	/**
+	 * @return true if tasks run on virtual threads.
+	 */
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	/**
+	 * @return Executor which runs tasks for the host of the given URL, at most
+	 *         per-host limit at a time.
+	 */
+	public Executor forHost(final String url) {
+		return hostExecutors.computeIfAbsent(getHostKey(url), key -> new HostExecutor());
+	}
+
+	public <T> Future<T> submit(final String url, final Callable<T> task) {
+		final FutureTask<T> future = new FutureTask<T>(task);
+		forHost(url).execute(future);
+		return future;
+	}
+
+	/**
+	 * Submit a task and put its future into the given queue once it is done,
+	 * in the same way as {@link java.util.concurrent.ExecutorCompletionService}.
+	 */
+	public <T> Future<T> submit(final String url, final Callable<T> task,
+			final BlockingQueue<Future<T>> completionQueue) {
+		return submit(url, task, 0, completionQueue::add);
+	}
+
+	/**
+	 * Submit a task which is cancelled if it runs longer than the timeout.
+	 * Time spent waiting in the queue does not count.
+	 *
+	 * @param timeoutMsec
+	 *            0 or less for no timeout.
+	 * @param onDone
+	 *            Called with the future once it is done, also when cancelled.
+	 */
+	public <T> Future<T> submit(final String url, final Callable<T> task, final long timeoutMsec,
+			final Consumer<Future<T>> onDone) {
+		final FutureTask<T> future = new FutureTask<T>(task) {
+			private volatile ScheduledFuture<?> deadline;
+
+			@Override
+			public void run() {
+				if (timeoutMsec > 0 && !isDone())
+					deadline = schedule(() -> cancel(true), timeoutMsec);
+				super.run();
+			}
+
+			@Override
+			protected void done() {
+				final ScheduledFuture<?> d = deadline;
+				if (d != null)
+					d.cancel(false);
+				onDone.accept(this);
+			}
+		};
+		forHost(url).execute(future);
+		return future;
+	}
+
+	/**
+	 * Run a short action on the timer thread after the delay.
+	 */
+	public ScheduledFuture<?> schedule(final Runnable action, final long delayMsec) {
+		return timer.schedule(action, delayMsec, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Run a short action on the timer thread repeatedly until cancelled.
+	 */
+	public ScheduledFuture<?> scheduleWithFixedDelay(final Runnable action, final long delayMsec) {
+		return timer.scheduleWithFixedDelay(action, delayMsec, delayMsec, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Cancel all of the given tasks which are still queued or running.
+	 */
+	public static void cancelAll(final Collection<? extends Future<?>> futures) {
+		for (final Future<?> future : futures)
+			future.cancel(true);
+	}
+
+	public void shutdown() {
+		timer.shutdownNow();
+		executor.shutdownNow();
+		hostExecutors.clear();
+		logger.info("PSICQUIC scheduler stopped.");
+	}
+
+	/**
+	 * This bundle is compiled for Java 11, so the Java 21 API is looked up by
+	 * reflection.
+	 *
+	 * @return null if virtual threads are not available.
+	 */
+	static ExecutorService createVirtualExecutor() {
+		try {
+			final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (NoSuchMethodException e) {
+			return null;
+		} catch (Exception e) {
+			// Preview feature disabled, etc.
+			logger.debug("Could not create virtual thread executor.", e);
+			return null;
+		}
+	}
+
+	static String getHostKey(final String url) {
+		try {
+			final URI uri = new URI(url);
+			if (uri.getHost() == null)
+				return url;
+			return uri.getHost().toLowerCase() + ":" + uri.getPort();
+		} catch (URISyntaxException e) {
+			return url;
+		}
+	}
+
+	/**
+	 * Queues tasks for one host and hands them to the shared pool as slots become
+	 * free. Waiting tasks do not occupy a worker thread.
+	 */
+	private final class HostExecutor implements Executor {
+
+		private final Queue<Runnable> waiting = new ArrayDeque<Runnable>();
+		private int running = 0;
+
+		@Override
+		public void execute(final Runnable task) {
+			synchronized (this) {
+				if (running >= perHostLimit) {
+					waiting.add(task);
+					return;
+				}
+				running++;
+			}
+			dispatch(task);
+		}
+
+		private void dispatch(final Runnable task) {
+			try {
+				executor.execute(() -> {
+					try {
+						task.run();
+					} finally {
+						next();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				synchronized (this) {
+					running--;
+				}
+				throw e;
+			}
+		}
+
+		private void next() {
+			final Runnable task;
+			synchronized (this) {
+				task = waiting.poll();
+				if (task == null) {
+					running--;
+					return;
+				}
+			}
+			dispatch(task);
+		}
+	}
+
+	private static final class NamedThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable r) {
+			final Thread thread = new Thread(r, THREAD_NAME_PREFIX + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
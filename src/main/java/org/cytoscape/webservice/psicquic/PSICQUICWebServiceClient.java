@@ -8,6 +8,7 @@ import org.cytoscape.io.webservice.swing.AbstractWebServiceGUIClient;
 import org.cytoscape.service.util.CyServiceRegistrar;
 import org.cytoscape.webservice.psicquic.PSICQUICRestClient.SearchMode;
 import org.cytoscape.webservice.psicquic.mapper.CyNetworkBuilder;
+import org.cytoscape.webservice.psicquic.simpleclient.HttpTransport;
 import org.cytoscape.webservice.psicquic.task.ImportNetworkFromPSICQUICTask;
 import org.cytoscape.webservice.psicquic.task.SearchRecordsTask;
 import org.cytoscape.webservice.psicquic.ui.PSICQUICSearchUI;
@@ -64,6 +65,8 @@ public class PSICQUICWebServiceClient extends AbstractWebServiceGUIClient implem
 			final CyNetworkBuilder builder,
 			final PSIMI25VisualStyleBuilder vsBuilder,
 			final PSIMITagManager tagManager,
+			final PSICQUICScheduler scheduler,
+			final HttpTransport transport,
 			final CyServiceRegistrar serviceRegistrar
 	) {
 		super(uri, displayName, description);
@@ -72,8 +75,8 @@ public class PSICQUICWebServiceClient extends AbstractWebServiceGUIClient implem
 		this.tagManager = tagManager;
 		this.serviceRegistrar = serviceRegistrar;
 		
-		regManager = new RegistryManager();
-		client = new PSICQUICRestClient(regManager, builder, serviceRegistrar);
+		regManager = new RegistryManager(scheduler, transport);
+		client = new PSICQUICRestClient(regManager, builder, serviceRegistrar, scheduler, transport);
 	}
 
 	public RegistryManager getRegManager() {
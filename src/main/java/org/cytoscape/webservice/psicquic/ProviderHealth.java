@@ -0,0 +1,287 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Health of each PSICQUIC REST URL across calls: response time, error rate and
+ * import throughput, plus a circuit breaker.
+ *
+ * After a number of failures in a row the circuit for the URL opens and
+ * requests to it are skipped. Once the open time has passed, a single request
+ * is let through as a probe. If it succeeds the circuit closes again,
+ * otherwise it stays open for twice as long as before.
+ */
+public final class ProviderHealth {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProviderHealth.class);
+
+	public static final int DEF_FAILURE_THRESHOLD = 3;
+	public static final long DEF_OPEN_MSEC = 60000;
+	public static final long MAX_OPEN_MSEC = 600000;
+
+	// Weight of the newest sample in the moving averages.
+	private static final double ALPHA = 0.2;
+
+	public enum State {
+		/** Requests go through. */
+		CLOSED,
+		/** One probe request is running. */
+		HALF_OPEN,
+		/** Requests are skipped. */
+		OPEN;
+	}
+
+	private final int failureThreshold;
+	private final long openMsec;
+	private final LongSupplier clock;
+
+	private final ConcurrentMap<String, Stats> statsMap = new ConcurrentHashMap<String, Stats>();
+
+	public ProviderHealth() {
+		this(DEF_FAILURE_THRESHOLD, DEF_OPEN_MSEC);
+	}
+
+	/**
+	 * @param failureThreshold
+	 *            Number of failures in a row which opens the circuit.
+	 * @param openMsec
+	 *            How long the circuit stays open the first time.
+	 */
+	public ProviderHealth(final int failureThreshold, final long openMsec) {
+		this(failureThreshold, openMsec, System::currentTimeMillis);
+	}
+
+	ProviderHealth(final int failureThreshold, final long openMsec, final LongSupplier clock) {
+		if (failureThreshold <= 0)
+			throw new IllegalArgumentException("Failure threshold must be positive: " + failureThreshold);
+
+		this.failureThreshold = failureThreshold;
+		this.openMsec = openMsec;
+		this.clock = clock;
+	}
+
+	private Stats getStats(final String url) {
+		return statsMap.computeIfAbsent(url, key -> new Stats());
+	}
+
+	/**
+	 * Ask for permission to send a request. If the circuit has been open long
+	 * enough, this request becomes the probe.
+	 * 
+	 * @return false if the URL should be skipped for now.
+	 */
+	public boolean allowRequest(final String url) {
+		final Stats stats = statsMap.get(url);
+		return stats == null || stats.allowRequest(clock.getAsLong());
+	}
+
+	/**
+	 * Like {@link #allowRequest(String)}, but without taking the probe slot.
+	 * 
+	 * @return false if the URL would be skipped now.
+	 */
+	public boolean isAvailable(final String url) {
+		final Stats stats = statsMap.get(url);
+		return stats == null || stats.isAvailable(clock.getAsLong());
+	}
+
+	/**
+	 * @param latencyMsec
+	 *            Response time of the request.
+	 * @param records
+	 *            Number of records received, or 0 if the request was not an
+	 *            import.
+	 */
+	public void recordSuccess(final String url, final long latencyMsec, final long records) {
+		getStats(url).success(latencyMsec, records);
+	}
+
+	public void recordFailure(final String url) {
+		final Stats stats = getStats(url);
+		if (stats.failure(clock.getAsLong()))
+			logger.warn("PSICQUIC service is not responding, skipped for " + stats.getOpenTime() + " msec: " + url);
+	}
+
+	public State getState(final String url) {
+		final Stats stats = statsMap.get(url);
+		return stats == null ? State.CLOSED : stats.getState();
+	}
+
+	/**
+	 * @return Ratio of failed requests in the recent past (0.0 - 1.0).
+	 */
+	public double getErrorRate(final String url) {
+		final Stats stats = statsMap.get(url);
+		return stats == null ? 0.0 : stats.getErrorRate();
+	}
+
+	/**
+	 * @return Average response time in msec, or -1 if unknown.
+	 */
+	public double getLatency(final String url) {
+		final Stats stats = statsMap.get(url);
+		return stats == null ? -1 : stats.getLatency();
+	}
+
+	/**
+	 * @return Average records per second in imports, or -1 if unknown.
+	 */
+	public double getThroughput(final String url) {
+		final Stats stats = statsMap.get(url);
+		return stats == null ? -1 : stats.getThroughput();
+	}
+
+	/**
+	 * @return The URLs with healthy ones first. The original order is kept
+	 *         between URLs which are equally healthy.
+	 */
+	public List<String> sortByHealth(final Collection<String> urls) {
+		// Other threads update the stats while sorting, so the order is decided
+		// on a snapshot. Error rates are rounded so that small differences do
+		// not change the order.
+		final Map<String, State> states = new HashMap<String, State>();
+		final Map<String, Long> errorRates = new HashMap<String, Long>();
+		for (final String url : urls) {
+			states.put(url, getState(url));
+			errorRates.put(url, Math.round(getErrorRate(url) * 10));
+		}
+
+		final List<String> sorted = new ArrayList<String>(urls);
+		sorted.sort(Comparator.comparing((String url) -> states.get(url)).thenComparing(url -> errorRates.get(url)));
+		return sorted;
+	}
+
+	/**
+	 * @return The URLs which may be called now, healthy ones first. The probe
+	 *         slot is not taken, so call {@link #allowRequest(String)} before
+	 *         actually sending the request.
+	 */
+	public List<String> select(final Collection<String> urls) {
+		final List<String> available = new ArrayList<String>();
+		for (final String url : sortByHealth(urls)) {
+			if (isAvailable(url))
+				available.add(url);
+		}
+		return available;
+	}
+
+	private final class Stats {
+		private State state = State.CLOSED;
+		private int failuresInRow = 0;
+		private long openedAt;
+		private long openTime = openMsec;
+
+		private double errorRate = 0.0;
+		private double latency = -1;
+		private double throughput = -1;
+
+		private synchronized boolean allowRequest(final long now) {
+			switch (state) {
+			case CLOSED:
+				return true;
+			case OPEN:
+				if (now - openedAt < openTime)
+					return false;
+				state = State.HALF_OPEN;
+				openedAt = now;
+				return true;
+			default:
+				// A probe which never reported back (e.g. cancelled by the user) must not block forever.
+				if (now - openedAt < openTime)
+					return false;
+				openedAt = now;
+				return true;
+			}
+		}
+
+		private synchronized boolean isAvailable(final long now) {
+			return state == State.CLOSED || now - openedAt >= openTime;
+		}
+
+		private synchronized void success(final long latencyMsec, final long records) {
+			errorRate = errorRate * (1 - ALPHA);
+			latency = latency < 0 ? latencyMsec : latency * (1 - ALPHA) + latencyMsec * ALPHA;
+			if (records > 0 && latencyMsec > 0) {
+				final double perSec = records * 1000.0 / latencyMsec;
+				throughput = throughput < 0 ? perSec : throughput * (1 - ALPHA) + perSec * ALPHA;
+			}
+
+			failuresInRow = 0;
+			openTime = openMsec;
+			state = State.CLOSED;
+		}
+
+		/**
+		 * @return true if this failure opened the circuit.
+		 */
+		private synchronized boolean failure(final long now) {
+			errorRate = errorRate * (1 - ALPHA) + ALPHA;
+			failuresInRow++;
+
+			if (state == State.HALF_OPEN) {
+				openTime = Math.min(openTime * 2, MAX_OPEN_MSEC);
+			} else if (state == State.OPEN || failuresInRow < failureThreshold) {
+				return false;
+			}
+			state = State.OPEN;
+			openedAt = now;
+			return true;
+		}
+
+		private synchronized State getState() {
+			return state;
+		}
+
+		private synchronized long getOpenTime() {
+			return openTime;
+		}
+
+		private synchronized double getErrorRate() {
+			return errorRate;
+		}
+
+		private synchronized double getLatency() {
+			return latency;
+		}
+
+		private synchronized double getThroughput() {
+			return throughput;
+		}
+	}
+}
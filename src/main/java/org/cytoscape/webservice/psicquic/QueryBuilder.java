@@ -24,10 +24,91 @@ package org.cytoscape.webservice.psicquic;
  * #L%
  */
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
 public class QueryBuilder {
-	
+
+	// Encoded query is a part of the URL path. Most servers accept 2000+
+	// characters in total, so some room is left for the service URL.
+	public static final int DEF_MAX_QUERY_LENGTH = 1500;
+	// Stay well below the default clause limit of Lucene (1024).
+	public static final int DEF_MAX_IDS = 200;
+
+	private static final String IDENTIFIER_FIELD = "identifier:";
+	private static final String OR = " OR ";
+
+	private static final int START_LENGTH = encodedLength(IDENTIFIER_FIELD + "(");
+	private static final int OR_LENGTH = encodedLength(OR);
+	private static final int END_LENGTH = encodedLength(")");
+
 	public String buildQuery() {
 		return null;
 	}
 
+	/**
+	 * Search for the interactions of many interactors with as few queries as
+	 * possible: <code>identifier:("a" OR "b" OR ...)</code>. Each query stays
+	 * under the URL length limit once encoded.
+	 * 
+	 * @param ids
+	 *            Duplicates and empty IDs are ignored.
+	 * @return MIQL queries, in the order of the IDs.
+	 */
+	public static List<String> buildIdentifierQueries(final Collection<String> ids) {
+		return buildIdentifierQueries(ids, DEF_MAX_QUERY_LENGTH, DEF_MAX_IDS);
+	}
+
+	public static List<String> buildIdentifierQueries(final Collection<String> ids, final int maxQueryLength,
+			final int maxIds) {
+		final List<String> queries = new ArrayList<String>();
+		final StringBuilder query = new StringBuilder();
+		int encodedLength = 0;
+		int count = 0;
+
+		for (final String id : new LinkedHashSet<String>(ids)) {
+			if (id == null || id.trim().isEmpty())
+				continue;
+
+			final String term = quote(id.trim());
+			final int termLength = encodedLength(term);
+			if (count > 0 && (count == maxIds
+					|| encodedLength + OR_LENGTH + termLength + END_LENGTH > maxQueryLength)) {
+				queries.add(query.append(')').toString());
+				query.setLength(0);
+				count = 0;
+			}
+
+			if (count == 0) {
+				query.append(IDENTIFIER_FIELD).append('(');
+				encodedLength = START_LENGTH;
+			} else {
+				query.append(OR);
+				encodedLength += OR_LENGTH;
+			}
+			query.append(term);
+			encodedLength += termLength;
+			count++;
+		}
+
+		if (count > 0)
+			queries.add(query.append(')').toString());
+		return queries;
+	}
+
+	private static String quote(final String id) {
+		return '"' + id.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+	}
+
+	private static int encodedLength(final String value) {
+		try {
+			return URLEncoder.encode(value, "UTF-8").replace("+", "%20").length();
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException("UTF-8 should be supported");
+		}
+	}
 }
@@ -29,8 +29,6 @@ import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -38,9 +36,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -50,6 +49,7 @@ import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathException;
 import javax.xml.xpath.XPathFactory;
 
+import org.cytoscape.webservice.psicquic.simpleclient.HttpTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
@@ -73,12 +73,16 @@ public class RegistryManager {
 
 	private static final String DEF_SERVICE_URL = "http://www.ebi.ac.uk/Tools/webservices/psicquic/registry/registry";
 
+	private static final long INIT_TIMEOUT_SEC = 60;
+
 	// Defines action command
 	public enum STATE {
 		ACTIVE, INACTIVE, STATUS;
 	}
 
 	private final String serviceURLString;
+	private final PSICQUICScheduler scheduler;
+	private final HttpTransport transport;
 
 	private final Map<String, String> activeServiceMap;
 	private final Map<String, String> inactiveServiceMap;
@@ -90,13 +94,16 @@ public class RegistryManager {
 	private final Map<String, List<String>> tagMap;
 	private final Map<String, Long> countMap;
 
+	// Kept across refreshes: a provider which is listed as active can still be down.
+	private final ProviderHealth health = new ProviderHealth();
+
 	private boolean isInitialized;
 	
 	/**
 	 * Constructor to use default registry location.
 	 */
-	public RegistryManager() {
-		this(DEF_SERVICE_URL);
+	public RegistryManager(final PSICQUICScheduler scheduler, final HttpTransport transport) {
+		this(DEF_SERVICE_URL, scheduler, transport);
 	}
 
 	/**
@@ -104,13 +111,20 @@ public class RegistryManager {
 	 * 
 	 * @param regLocaiton
 	 *            URL of the registry
+	 * @param scheduler
+	 *            Shared thread pool for remote calls
+	 * @param transport
+	 *            Shared HTTP client
 	 */
-	public RegistryManager(String regLocaiton) {
+	public RegistryManager(String regLocaiton, final PSICQUICScheduler scheduler, final HttpTransport transport) {
 		if (regLocaiton == null || regLocaiton.trim().length() == 0)
 			serviceURLString = DEF_SERVICE_URL;
 		else
 			serviceURLString = regLocaiton;
 
+		this.scheduler = scheduler;
+		this.transport = transport;
+
 		activeServiceMap = new HashMap<String, String>();
 		inactiveServiceMap = new HashMap<String, String>();
 		source2NameMap = new HashMap<String, String>();
@@ -127,22 +141,22 @@ public class RegistryManager {
 				return;
 			}
 
-			ExecutorService executor = Executors.newCachedThreadPool();
-			executor.execute(new Runnable() {
-				@Override
-				public void run() {
-					invoke();
-					allServiceNames.addAll(activeServiceMap.keySet());
-					allServiceNames.addAll(inactiveServiceMap.keySet());
-				}
+			final Future<?> future = scheduler.submit(serviceURLString, () -> {
+				invoke();
+				allServiceNames.addAll(activeServiceMap.keySet());
+				allServiceNames.addAll(inactiveServiceMap.keySet());
+				return null;
 			});
 			try {
-				executor.shutdown();
-				executor.awaitTermination(60, TimeUnit.SECONDS);
-				isInitialized = true;
+				future.get(INIT_TIMEOUT_SEC, TimeUnit.SECONDS);
+			} catch (TimeoutException e) {
+				logger.warn("PSICQUIC registry did not respond in " + INIT_TIMEOUT_SEC + " sec.");
+			} catch (ExecutionException e) {
+				logger.error("Could not initialize PSICQUIC registory manager.", e.getCause());
 			} catch (InterruptedException e) {
 				throw new IllegalStateException(e);
 			}
+			isInitialized = true;
 		}
 	}
 	
@@ -182,6 +196,13 @@ public class RegistryManager {
 		return this.countMap;
 	}
 
+	/**
+	 * @return Health of the REST URLs, updated by every call to the services.
+	 */
+	public ProviderHealth getProviderHealth() {
+		return health;
+	}
+
 	public SortedSet<String> getAllServiceNames() {
 		ensureInitialized();
 		return this.allServiceNames;
@@ -213,16 +234,8 @@ public class RegistryManager {
 	}
 
 	private void callRegistry(final String command) throws IOException {
-		final URL url = new URL(serviceURLString + command);
-		final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-		connection.setRequestMethod("GET");
-		connection.setDoInput(true);
-		connection.setDoOutput(true);
-
-		connection.setRequestProperty("accept", "text/xml");
-		connection.connect();
-
-		BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), Charset.forName("UTF-8").newDecoder()));
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				transport.get(serviceURLString + command, "text/xml"), Charset.forName("UTF-8").newDecoder()));
 		final StringBuilder builder = new StringBuilder();
 
 		String next;
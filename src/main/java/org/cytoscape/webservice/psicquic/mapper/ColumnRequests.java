@@ -0,0 +1,74 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Columns needed by lines parsed on another thread. They are created later
+ * by the thread which writes to the network.
+ */
+final class ColumnRequests implements ColumnSink {
+
+	private final Map<String, Request> requests = new LinkedHashMap<String, Request>();
+
+	@Override
+	public void ensureColumn(final String name, final Class<?> type, final boolean immutable) {
+		if (!requests.containsKey(name))
+			requests.put(name, new Request(type, immutable, false));
+	}
+
+	@Override
+	public void ensureListColumn(final String name, final Class<?> elementType, final boolean immutable) {
+		if (!requests.containsKey(name))
+			requests.put(name, new Request(elementType, immutable, true));
+	}
+
+	/**
+	 * Create the requested columns, in the order they were requested.
+	 */
+	void applyTo(final ColumnSink columns) {
+		for (final Map.Entry<String, Request> entry : requests.entrySet()) {
+			final Request request = entry.getValue();
+			if (request.isList)
+				columns.ensureListColumn(entry.getKey(), request.type, request.immutable);
+			else
+				columns.ensureColumn(entry.getKey(), request.type, request.immutable);
+		}
+	}
+
+	private static final class Request {
+		private final Class<?> type;
+		private final boolean immutable;
+		private final boolean isList;
+
+		private Request(final Class<?> type, final boolean immutable, final boolean isList) {
+			this.type = type;
+			this.immutable = immutable;
+			this.isList = isList;
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyTable;
+
+/**
+ * Columns of one table, looked up once per import instead of once per row.
+ * Only this import is expected to create columns in the table meanwhile.
+ */
+final class ColumnSchema implements ColumnSink {
+
+	private final CyTable table;
+	private final Set<String> names = new HashSet<String>();
+
+	ColumnSchema(final CyTable table) {
+		this.table = table;
+		for (final CyColumn column : table.getColumns())
+			names.add(column.getName());
+	}
+
+	CyTable getTable() {
+		return table;
+	}
+
+	boolean contains(final String name) {
+		return names.contains(name);
+	}
+
+	@Override
+	public void ensureColumn(final String name, final Class<?> type, final boolean immutable) {
+		// Column names are case-insensitive, so the table has the final word.
+		if (names.add(name) && table.getColumn(name) == null)
+			table.createColumn(name, type, immutable);
+	}
+
+	@Override
+	public void ensureListColumn(final String name, final Class<?> elementType, final boolean immutable) {
+		if (names.add(name) && table.getColumn(name) == null)
+			table.createListColumn(name, elementType, immutable);
+	}
+}
@@ -5,24 +5,37 @@ import static org.cytoscape.webservice.psicquic.mapper.InteractionClusterMapper.
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Pattern;
 
 import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
 import org.cytoscape.model.CyTable;
 import org.cytoscape.service.util.CyServiceRegistrar;
 import org.cytoscape.view.model.CyNetworkView;
 import org.cytoscape.view.model.View;
+import org.cytoscape.webservice.psicquic.CancellationToken;
+import org.cytoscape.webservice.psicquic.mapper.NodeAttributeAccumulator.NodeAttributes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import uk.ac.ebi.enfin.mi.cluster.EncoreInteraction;
-import uk.ac.ebi.enfin.mi.cluster.InteractionCluster;
-
 /*
  * #%L
  * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
@@ -54,6 +67,9 @@ public class CyNetworkBuilder {
 
 	// Required number of columns in MITAB 2.5
 	private static final int MINIMUM_COLUMN_COUNT = 15;
+
+	// Number of MITAB lines parsed by one task.
+	private static final int BATCH_SIZE = 500;
 	
 
 	// Most widly used ID sets.  Pick any of these if available.
@@ -63,9 +79,6 @@ public class CyNetworkBuilder {
 	private static final String REFSEQ= "refseq_id";
 	
 
-	private static final Pattern SPLITTER_TAB = Pattern.compile("\t");
-	
-	private static final Pattern SPLITTER = Pattern.compile("\\|");
 	private static final Pattern SPLITTER_NAME_SPACE = Pattern.compile("\\:");
 	private static final Pattern NCBI = Pattern.compile("^d+$");
 	private static final Pattern UNIPROT_PATTERN = 
@@ -73,24 +86,50 @@ public class CyNetworkBuilder {
 
 	private final InteractionClusterMapper mapper;
 
+	private final Executor parseExecutor;
+	private final int parseThreads;
+
 	final String fisrtSeparator = "\t";
 	final String secondSeparator = ",";
 
-	volatile boolean cancel = false;
-
-	private Map<String, CyNode> nodeMap;
+	private final NodeIndexManager nodeIndexManager;
 
 	private final CyServiceRegistrar serviceRegistrar;
 
-	public CyNetworkBuilder(final CyServiceRegistrar serviceRegistrar) {
+	public CyNetworkBuilder(final CyServiceRegistrar serviceRegistrar, final NodeIndexManager nodeIndexManager) {
 		this.serviceRegistrar = serviceRegistrar;
+		this.nodeIndexManager = nodeIndexManager;
 		mapper = new InteractionClusterMapper();
 		mapper.ensureInitialized();
+		parseExecutor = ForkJoinPool.commonPool();
+		// One core is left for the thread which builds the network.
+		parseThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+	}
+
+	public CyNetwork buildNetwork(final Collection<MergedInteraction> interactions) throws IOException {
+		return buildNetwork(interactions, new CancellationToken());
 	}
 
-	public CyNetwork buildNetwork(final InteractionCluster iC) throws IOException {
+	/**
+	 * @param token
+	 *            If cancelled, the interactions added so far are kept.
+	 */
+	public CyNetwork buildNetwork(final Collection<MergedInteraction> interactions, final CancellationToken token)
+			throws IOException {
+		return buildNetwork(interactions, interactions.size(), token);
+	}
+
+	/**
+	 * Build a network from merged interactions which are read one by one, e.g.
+	 * from {@link MergedRuns}.
+	 * 
+	 * @param expectedInteractions
+	 *            Upper bound used to size the node index, or 0 if unknown.
+	 */
+	public CyNetwork buildNetwork(final Iterable<MergedInteraction> interactions, final long expectedInteractions,
+			final CancellationToken token) throws IOException {
 		CyNetwork network = serviceRegistrar.getService(CyNetworkFactory.class).createNetwork();
-		process(iC, network, null, null);
+		process(interactions, expectedInteractions, network, null, null, token);
 		return network;
 	}
 
@@ -102,116 +141,266 @@ public class CyNetworkBuilder {
 	 * @throws IOException
 	 */
 	public CyNetwork buildNetwork(final BufferedReader reader, final String networkTitle) throws IOException {
+		return buildNetwork(reader, networkTitle, new CancellationToken());
+	}
+
+	public CyNetwork buildNetwork(final BufferedReader reader, final String networkTitle,
+			final CancellationToken token) throws IOException {
+		return buildNetwork(reader, networkTitle, token, 0);
+	}
+
+	/**
+	 * @param expectedInteractions
+	 *            Number of interactions returned by the search for this result,
+	 *            or 0 if unknown. Only used to size the node index.
+	 */
+	public CyNetwork buildNetwork(final BufferedReader reader, final String networkTitle,
+			final CancellationToken token, final long expectedInteractions) throws IOException {
+		return buildNetwork(LineSource.of(reader), networkTitle, token, expectedInteractions, null);
+	}
+
+	/**
+	 * Build a network from MITAB lines, e.g. of a {@link MappedMitabFile}. The
+	 * source is closed at the end.
+	 * 
+	 * @param filter
+	 *            Only the lines it matches are imported, or null for all.
+	 */
+	public CyNetwork buildNetwork(final LineSource reader, final String networkTitle,
+			final CancellationToken token, final long expectedInteractions, final InteractorFilter filter)
+			throws IOException {
 		// Create empty network even if there is no result.
 		final CyNetwork network = serviceRegistrar.getService(CyNetworkFactory.class).createNetwork();
 		network.getDefaultNetworkTable().createColumn("source", String.class, true);
 		network.getRow(network).set("source", networkTitle);
 		network.getRow(network).set(CyNetwork.NAME, networkTitle);
 
-		prepareColumns(network);
+		final MappingContext context = new MappingContext(network);
+		prepareColumns(context);
+
+		final NodeIndex nodes = getNodeIndex(network, expectedInteractions);
+		// Shared by all lines of this import only.
+		final StringPool pool = new StringPool();
+
+		// Lines are parsed in batches on the worker threads, and added to the
+		// network here in the original order. Only this thread touches the network.
+		final Deque<FutureTask<MitabBatch>> pending = new ArrayDeque<FutureTask<MitabBatch>>();
+		try {
+			boolean eof = false;
+			while (!eof || !pending.isEmpty()) {
+				if (token.isCanceled()) {
+					logger.warn("Network bulilder interrupted.");
+					network.getRow(network).set(CyNetwork.NAME, "<Incomplete!> " + networkTitle);
+					break;
+				}
+
+				while (!eof && pending.size() < parseThreads * 2) {
+					final List<String> lines = readBatch(reader);
+					if (lines.isEmpty()) {
+						eof = true;
+						break;
+					}
+					final FutureTask<MitabBatch> task = new FutureTask<MitabBatch>(
+							() -> parseBatch(lines, pool, filter));
+					if (parseThreads > 1)
+						parseExecutor.execute(task);
+					pending.add(task);
+				}
+
+				final FutureTask<MitabBatch> head = pending.poll();
+				if (head == null)
+					break;
+				// Does nothing if a worker has already started it.
+				head.run();
+				apply(context, nodes, head.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Network builder interrupted.");
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new IOException("Could not parse MITAB.", cause);
+		} finally {
+			for (final Future<MitabBatch> task : pending)
+				task.cancel(false);
+			reader.close();
+		}
+
+		// Also for partial results.
+		mapper.flush(context);
 
-		final Map<String, CyNode> nodes = new HashMap<String, CyNode>();
+		return network;
+	}
 
+	private final List<String> readBatch(final LineSource reader) throws IOException {
+		final List<String> lines = new ArrayList<String>(BATCH_SIZE);
 		String line;
-		while ((line = reader.readLine()) != null) {
-			if (cancel) {
-				logger.warn("Network bulilder interrupted.");
-				network.getRow(network).set(CyNetwork.NAME, "<Incomplete!> " + networkTitle);
-				break;
-			}
+		while (lines.size() < BATCH_SIZE && (line = reader.readLine()) != null)
+			lines.add(line);
+		return lines;
+	}
 
-			// Actual entries for an interaction.
-			final String[] parts = SPLITTER_TAB.split(line);
+	/**
+	 * Parse the lines without touching the network. Runs on a worker thread.
+	 */
+	private final MitabBatch parseBatch(final List<String> lines, final StringPool pool,
+			final InteractorFilter filter) {
+		final MitabBatch batch = new MitabBatch(lines.size());
+		final MitabLine mitab = new MitabLine(pool);
 
+		for (final String line : lines) {
 			// Skip invalid lines
-			if (parts.length < MINIMUM_COLUMN_COUNT) {
+			if (mitab.reset(line) < MINIMUM_COLUMN_COUNT) {
 				continue;
 			}
-			
-			
-			// Find primary ID
-			final String[] sourceIds = SPLITTER.split(parts[0]);
-			final String[] targetIds = SPLITTER.split(parts[1]);
-		
-			String sourceFirst = sourceIds[0];
-			String targetFirst = targetIds[0];
-			// Check self-edge
-			if (targetFirst.equals("-")) {
-				// This is for self-interaction
-				targetIds[0] = sourceFirst;
-			} else if (sourceFirst.equals("-")) {
-				sourceIds[0] = targetFirst;
-			}
+			if (filter != null && !filter.matches(mitab))
+				continue;
 
 			// Priority: Uniprot, NCBI, chebi, and others.
-			final String[] sourceID = getID(sourceIds);
-			final String[] targetID = getID(targetIds);
-			final CyNode sourceNode = addNode(nodes, sourceID[1], network);
-			final CyNode targetNode = addNode(nodes, targetID[1], network);
-			if(network.getDefaultNodeTable().getColumn(sourceID[0]) == null) {
-				network.getDefaultNodeTable().createColumn(sourceID[0], String.class, false);
-			}
-			network.getRow(sourceNode).set(sourceID[0], sourceID[1]);
+			// "-" on one side is a self-interaction.
+			final String[] sourceID = getID(mitab, 0, 1);
+			final String[] targetID = getID(mitab, 1, 0);
+			final NodeAttributes source = new NodeAttributes();
+			final NodeAttributes target = Objects.equals(sourceID[1], targetID[1]) ? source : new NodeAttributes();
 
-			if(network.getDefaultNodeTable().getColumn(targetID[0]) == null) {
-				network.getDefaultNodeTable().createColumn(targetID[0], String.class, false);
-			}
-			network.getRow(targetNode).set(targetID[0], targetID[1]);
-			
-			mapper.mapNodeColumn(parts, network.getRow(sourceNode), network.getRow(targetNode));
+			batch.getNodeColumns().ensureColumn(sourceID[0], String.class, false);
+			source.set(sourceID[0], sourceID[1]);
+			batch.getNodeColumns().ensureColumn(targetID[0], String.class, false);
+			target.set(targetID[0], targetID[1]);
 
-			final CyEdge newEdge = network.addEdge(sourceNode, targetNode, true);
-			mapper.mapEdgeColumn(parts, network.getRow(newEdge), newEdge, sourceID[1], targetID[1]);
+			mapper.mapNodeColumn(batch.getNodeColumns(), mitab, source, target);
+
+			final Map<String, Object> edgeValues = new LinkedHashMap<String, Object>();
+			mapper.mapEdgeColumn(batch.getEdgeColumns(), edgeValues::put, mitab, sourceID[1], targetID[1]);
+
+			batch.add(new MitabBatch.Line(sourceID, targetID, source, target, edgeValues));
 		}
+		return batch;
+	}
 
-		reader.close();
-		return network;
+	private final void apply(final MappingContext context, final NodeIndex nodes, final MitabBatch batch) {
+		final CyNetwork network = context.getNetwork();
+		batch.getNodeColumns().applyTo(context.getNodeColumns());
+		batch.getEdgeColumns().applyTo(context.getEdgeColumns());
+
+		for (final MitabBatch.Line line : batch.getLines()) {
+			final CyNode sourceNode = addNode(nodes, line.sourceId[1], network);
+			final CyNode targetNode = addNode(nodes, line.targetId[1], network);
+			context.getAttributes(sourceNode).merge(line.source);
+			if (line.target != line.source)
+				context.getAttributes(targetNode).merge(line.target);
+
+			final CyEdge newEdge = network.addEdge(sourceNode, targetNode, true);
+			final CyRow row = network.getRow(newEdge);
+			for (final Map.Entry<String, Object> entry : line.edgeValues.entrySet())
+				row.set(entry.getKey(), entry.getValue());
+		}
 	}
-	
-	private final String[] getID(final String[] nodeIDs) {
-		final String[] firstParts= mapper.parseValues(nodeIDs[0]);
-		final Map<String, String> nodes = new HashMap<String, String>();
-		for(final String entry: nodeIDs) {
-			final String[] nodeParts= mapper.parseValues(entry);
-			nodes.put(nodeParts[0], nodeParts[1]);
+
+	private final String[] getID(final MitabLine line, final int column, final int otherColumn) {
+		MitabLine.Entry entry = line.entries(column);
+		if (!entry.next() || entry.isEmpty()) {
+			entry = line.entries(otherColumn);
+			entry.next();
 		}
+
+		final String firstNamespace = entry.getNamespace();
+		final String firstId = entry.getId();
+		String uniprot = null;
+		String ncbi = null;
+		String chebi = null;
+		do {
+			final String namespace = entry.getNamespace();
+			if (namespace.equals("uniprotkb"))
+				uniprot = entry.getId();
+			else if (namespace.equals("entrez gene/locuslink"))
+				ncbi = entry.getId();
+			else if (namespace.equals("chebi"))
+				chebi = entry.getId();
+		} while (entry.next());
 		
 		final String[] primaryID = new String[2];
-		if(nodes.get("uniprotkb") != null) {
+		if(uniprot != null) {
 			primaryID[0] = UNIPROT_AC;
-			primaryID[1] = nodes.get("uniprotkb");
-		} else if(nodes.get("entrez gene/locuslink") != null) {
+			primaryID[1] = uniprot;
+		} else if(ncbi != null) {
 			primaryID[0] = NCBI_GENE;
-			primaryID[1] = nodes.get("entrez gene/locuslink");
-		} else if(nodes.get("chebi") != null) {
+			primaryID[1] = ncbi;
+		} else if(chebi != null) {
 			primaryID[0] = CHEBI;
-			primaryID[1] = nodes.get("chebi");
+			primaryID[1] = chebi;
 		} else {
-			primaryID[0] = firstParts[0] + "_id";
-			primaryID[1] = firstParts[1]; 
+			primaryID[0] = firstNamespace + "_id";
+			primaryID[1] = firstId; 
 		}
 		return primaryID;
 	}
 
-	private final CyNode addNode(final Map<String, CyNode> nodes, final String id, final CyNetwork network) {
-		CyNode node = nodes.get(id);
+	private final CyNode addNode(final NodeIndex nodes, final String id, final CyNetwork network) {
+		CyNode node = getNode(nodes, id, network);
 		if (node == null) {
 			node = network.addNode();
 			network.getRow(node).set(CyNetwork.NAME, id);
-			nodes.put(id, node);
+			nodes.put(id, node.getSUID());
 		}
 		return node;
 	}
 
+	/**
+	 * @return null if there is no node for the ID.
+	 */
+	private final CyNode getNode(final NodeIndex nodes, final String id, final CyNetwork network) {
+		final long suid = nodes.get(id);
+		if (suid == NodeIndex.NO_NODE)
+			return null;
+
+		// Renamed nodes are still in the index under the old name. Only the
+		// entry of this ID is removed, since the index compares whole IDs.
+		final CyNode node = network.getNode(suid);
+		if (node == null || !id.equals(network.getRow(node).get(CyNetwork.NAME, String.class))) {
+			nodes.remove(id);
+			return null;
+		}
+		return node;
+	}
+
+	/**
+	 * @param expectedNodes
+	 *            Number of nodes about to be added, for the initial size.
+	 */
+	private final NodeIndex getNodeIndex(final CyNetwork network, final long expectedNodes) {
+		return nodeIndexManager.getIndex(network, expectedNodes);
+	}
+
 	/**
 	 * Add new edges to the existing network.
 	 * 
-	 * @param iC
+	 * @param interactions
 	 * @param networkView
 	 * @param hubNode
 	 * @return
 	 */
-	public void addToNetwork(final InteractionCluster iC, CyNetworkView networkView, final View<CyNode> hubNode) {
+	public void addToNetwork(final Collection<MergedInteraction> interactions, CyNetworkView networkView,
+			final View<CyNode> hubNode) {
+		addToNetwork(interactions, networkView, hubNode, new CancellationToken());
+	}
+
+	public void addToNetwork(final Collection<MergedInteraction> interactions, CyNetworkView networkView,
+			final View<CyNode> hubNode, final CancellationToken token) {
+		addToNetwork(interactions, networkView, hubNode, false, token);
+	}
+
+	/**
+	 * @param inducedEdges
+	 *            If true, interactions between nodes which are already in the
+	 *            network are added too, not only those of the hub.
+	 */
+	public void addToNetwork(final Collection<MergedInteraction> interactions, CyNetworkView networkView,
+			final View<CyNode> hubNode, final boolean inducedEdges, final CancellationToken token) {
 		final CyNetwork network = networkView.getModel();
 
 		// Hub node to be expanded.
@@ -220,147 +409,207 @@ public class CyNetworkBuilder {
 		CyTable hubNodeTable = network.getDefaultNodeTable();
 		if( hubNodeTable.getColumn("identifier") != null )
 			hubName = network.getRow(hub).get("identifier",String.class);
+
+		addToNetwork(interactions, networkView, Collections.singletonMap(hubName, hub), ExpansionBudget.unlimited(),
+				inducedEdges, token);
+	}
+
+	/**
+	 * Add the interactions of several hub nodes to the existing network at once.
+	 * Interactions which do not involve any of the hubs are ignored.
+	 * 
+	 * @param hubs
+	 *            Hub nodes by the ID used in the query, which may differ from
+	 *            their NAME.
+	 */
+	public void addToNetwork(final Collection<MergedInteraction> interactions, final CyNetworkView networkView,
+			final Map<String, CyNode> hubs, final CancellationToken token) {
+		addToNetwork(interactions, networkView, hubs, ExpansionBudget.unlimited(), false, token);
+	}
+
+	/**
+	 * @param budget
+	 *            Interactions which would exceed it are skipped.
+	 * @param inducedEdges
+	 *            If true, interactions between two nodes which are in the
+	 *            network once the hub interactions have been added are added
+	 *            too, unless the nodes are already connected.
+	 * @return Nodes connected to the hubs by the interactions, new or not, by
+	 *         their ID. Hubs are not included. Pairs which are already
+	 *         connected do not get another edge.
+	 */
+	public Map<String, CyNode> addToNetwork(final Collection<MergedInteraction> interactions,
+			final CyNetworkView networkView, final Map<String, CyNode> hubs, final ExpansionBudget budget,
+			final boolean inducedEdges, final CancellationToken token) {
+		final Map<String, CyNode> neighbours = new LinkedHashMap<String, CyNode>();
+		final CyNetwork network = networkView.getModel();
 		mapper.ensureInitialized();
-		nodeMap = new HashMap<String, CyNode>();
-		nodeMap.put(hubName, hub);
-		network.getRow(hub).set(CyNetwork.SELECTED, true);
+		for (final CyNode hub : hubs.values())
+			network.getRow(hub).set(CyNetwork.SELECTED, true);
 
-		for (final CyNode existingNode : network.getNodeList())
-			nodeMap.put(network.getRow(existingNode).get(CyNetwork.NAME, String.class), existingNode);
+		// TODO: Interactive UI for merge?
+		final NodeIndex nodes = getNodeIndex(network, interactions.size());
 
-		// Merged interactions. TODO: Interactive UI for merge?
-		final Map<Integer, EncoreInteraction> interactions = iC.getInteractionMapping();
+		final MappingContext context = new MappingContext(network);
+		prepareColumns(context);
 
-		prepareColumns(network);
+		// Checked once all new nodes are in the network.
+		final List<MergedInteraction> others = new ArrayList<MergedInteraction>();
 
-		for (final Integer interactionKey : interactions.keySet()) {
-			if (cancel) {
+		for (final MergedInteraction interaction : interactions) {
+			if (token.isCanceled()) {
 				logger.warn("Network bulilder interrupted.");
+				break;
 			}
-			final EncoreInteraction interaction = interactions.get(interactionKey);
 			final String source = interaction.getInteractorA();
 			final String target = interaction.getInteractorB();
+			final CyNode sourceHub = hubs.get(source);
+			final CyNode targetHub = hubs.get(target);
 
-			// Check this is an interaction from the query hub node.
-			if(source.equals(hubName) == false && target.equals(hubName) == false) {
+			// Check this is an interaction from one of the query hub nodes.
+			if (sourceHub == null && targetHub == null) {
 				// Not the edge from the query node.
+				if (inducedEdges)
+					others.add(interaction);
 				continue;
 			}
-			
-			final String newNodeName;
-			if(source.equals(hubName)) {
-				newNodeName = target;
-			} else {
-				newNodeName = source;
-			}
 
-			CyNode newNode = nodeMap.get(newNodeName);
-			if (newNode == null) {
-				newNode= network.addNode();
-				network.getRow(newNode).set(CyNetwork.NAME, newNodeName);
-				network.getRow(newNode).set(CyNetwork.SELECTED, true);
-				nodeMap.put(newNodeName, newNode);
+			final CyNode hub = sourceHub != null ? sourceHub : targetHub;
+			final CyNode newNode;
+			if (sourceHub != null && targetHub != null) {
+				// Between two hubs, or a self-interaction.
+				if (isConnected(network, sourceHub, targetHub) || !budget.take(false))
+					continue;
+				newNode = targetHub;
+			} else {
+				final boolean newIsA = sourceHub == null;
+				final String newNodeName = newIsA ? source : target;
+				CyNode node = getNode(nodes, newNodeName, network);
+				if (node != null && isConnected(network, hub, node)) {
+					// E.g. the interaction with the hub's parent in the previous hop.
+					neighbours.put(newNodeName, node);
+					continue;
+				}
+				if (!budget.take(node == null))
+					continue;
+				if (node == null) {
+					node = network.addNode();
+					network.getRow(node).set(CyNetwork.NAME, newNodeName);
+					network.getRow(node).set(CyNetwork.SELECTED, true);
+					nodes.put(newNodeName, node.getSUID());
+				}
+				mapper.mapInteractor(context, interaction, node, newIsA);
+				neighbours.put(newNodeName, node);
+				newNode = node;
 			}
-			mapper.mapNodeColumn(interaction, network.getRow(newNode), null);
 
 			final CyEdge newEdge = network.addEdge(hub, newNode, true);
-			mapper.mapEdgeColumn(interaction, network.getRow(newEdge));
+			mapper.mapEdgeColumn(context, interaction, newEdge);
+		}
+
+		for (final MergedInteraction interaction : others) {
+			if (token.isCanceled())
+				break;
+			addInducedEdge(context, nodes, interaction, budget);
 		}
+		mapper.flush(context);
+		return neighbours;
 	}
 
+	/**
+	 * Add the interaction if both of its nodes are in the network and not
+	 * connected yet.
+	 */
+	private final void addInducedEdge(final MappingContext context, final NodeIndex nodes,
+			final MergedInteraction interaction, final ExpansionBudget budget) {
+		final CyNetwork network = context.getNetwork();
+		final CyNode source = getNode(nodes, interaction.getInteractorA(), network);
+		if (source == null)
+			return;
+		final CyNode target = getNode(nodes, interaction.getInteractorB(), network);
+		if (target == null || isConnected(network, source, target))
+			return;
+		if (!budget.take(false))
+			return;
+
+		final CyEdge newEdge = network.addEdge(source, target, true);
+		mapper.mapEdgeColumn(context, interaction, newEdge);
+	}
 
-	private final Map<String, CyNode> process(final InteractionCluster iC, CyNetwork network, CyNetworkView netView,
-			final View<CyNode> hubNode) {
-		mapper.ensureInitialized();
-		nodeMap = new HashMap<String, CyNode>();
-		if (hubNode != null) {
-			nodeMap.put(network.getRow(hubNode.getModel()).get(CyNetwork.NAME, String.class), hubNode.getModel());
-			if (netView != null)
-				network.getRow(hubNode.getModel()).set(CyNetwork.SELECTED, true);
-		}
+	private static boolean isConnected(final CyNetwork network, final CyNode source, final CyNode target) {
+		return network.containsEdge(source, target) || network.containsEdge(target, source);
+	}
 
-		if (network.getNodeCount() != 0) {
-			for (CyNode existingNode : network.getNodeList())
-				nodeMap.put(network.getRow(existingNode).get(CyNetwork.NAME, String.class), existingNode);
-		}
 
-		final Map<Integer, EncoreInteraction> interactions = iC.getInteractionMapping();
+	private final void process(final Iterable<MergedInteraction> interactions, final long expectedInteractions,
+			CyNetwork network, CyNetworkView netView, final View<CyNode> hubNode, final CancellationToken token) {
+		mapper.ensureInitialized();
+		if (hubNode != null && netView != null)
+			network.getRow(hubNode.getModel()).set(CyNetwork.SELECTED, true);
+
+		// The hub, if any, is already in the network and found by its NAME.
+		final NodeIndex nodes = getNodeIndex(network, expectedInteractions);
 
-		prepareColumns(network);
+		final MappingContext context = new MappingContext(network);
+		prepareColumns(context);
 
-		for (final Integer interactionKey : interactions.keySet()) {
-			if (cancel) {
+		for (final MergedInteraction interaction : interactions) {
+			if (token.isCanceled()) {
 				logger.warn("Network bulilder interrupted.");
-				network = null;
+				break;
 			}
-			final EncoreInteraction interaction = interactions.get(interactionKey);
 
 			final String source = interaction.getInteractorA();
-			CyNode sourceNode = nodeMap.get(source);
+			CyNode sourceNode = getNode(nodes, source, network);
 			if (sourceNode == null) {
 				sourceNode = network.addNode();
 				network.getRow(sourceNode).set(CyNetwork.NAME, source);
 				if (netView != null)
 					network.getRow(sourceNode).set(CyNetwork.SELECTED, true);
-				nodeMap.put(source, sourceNode);
+				nodes.put(source, sourceNode.getSUID());
 			}
 			final String target = interaction.getInteractorB();
-			CyNode targetNode = nodeMap.get(target);
+			CyNode targetNode = getNode(nodes, target, network);
 			if (targetNode == null) {
 				targetNode = network.addNode();
 				network.getRow(targetNode).set(CyNetwork.NAME, target);
 				if (netView != null)
 					network.getRow(targetNode).set(CyNetwork.SELECTED, true);
-				nodeMap.put(target, targetNode);
+				nodes.put(target, targetNode.getSUID());
 			}
-			mapper.mapNodeColumn(interaction, network.getRow(sourceNode), network.getRow(targetNode));
+			mapper.mapNodeColumn(context, interaction, sourceNode, targetNode);
 
 			final CyEdge newEdge = network.addEdge(sourceNode, targetNode, true);
-			mapper.mapEdgeColumn(interaction, network.getRow(newEdge));
+			mapper.mapEdgeColumn(context, interaction, newEdge);
 
 		}
+		mapper.flush(context);
 		logger.info("Import Done: " + network.getSUID());
-		return nodeMap;
 	}
 
 
 	/**
 	 * Create minimum set of columns supported by MITAB 2.5.
 	 * 
-	 * @param network
+	 * @param context
 	 */
-	private final void prepareColumns(final CyNetwork network) {
-		final CyTable nodeTable = network.getDefaultNodeTable();
-		final CyTable edgeTable = network.getDefaultEdgeTable();
-		if (nodeTable.getColumn(TAXNOMY) == null)
-			nodeTable.createColumn(TAXNOMY, String.class, false);
-		if (nodeTable.getColumn(TAXNOMY_NAME) == null)
-			nodeTable.createColumn(TAXNOMY_NAME, String.class, false);
+	private final void prepareColumns(final MappingContext context) {
+		final ColumnSchema nodeColumns = context.getNodeColumns();
+		final ColumnSchema edgeColumns = context.getEdgeColumns();
+		nodeColumns.ensureColumn(TAXNOMY, String.class, false);
+		nodeColumns.ensureColumn(TAXNOMY_NAME, String.class, false);
 
 		// Prepare label column
-		if (nodeTable.getColumn(InteractionClusterMapper.PREDICTED_GENE_NAME) == null)
-			nodeTable.createColumn(InteractionClusterMapper.PREDICTED_GENE_NAME, String.class, false);
+		nodeColumns.ensureColumn(InteractionClusterMapper.PREDICTED_GENE_NAME, String.class, false);
 
 		// Prepare edge column
-		if (edgeTable.getColumn(InteractionClusterMapper.AUTHOR) == null)
-			edgeTable.createListColumn(InteractionClusterMapper.AUTHOR, String.class, false);
-		if (edgeTable.getColumn(InteractionClusterMapper.PRIMARY_INTERACTION_TYPE) == null)
-			edgeTable.createColumn(InteractionClusterMapper.PRIMARY_INTERACTION_TYPE, String.class, false);
-		if (edgeTable.getColumn(InteractionClusterMapper.INTERACTION_TYPE) == null)
-			edgeTable.createListColumn(InteractionClusterMapper.INTERACTION_TYPE, String.class, false);
-		if (edgeTable.getColumn(InteractionClusterMapper.PUB_DB) == null)
-			edgeTable.createListColumn(InteractionClusterMapper.PUB_DB, String.class, false);
-		if (edgeTable.getColumn(InteractionClusterMapper.PUB_ID) == null)
-			edgeTable.createListColumn(InteractionClusterMapper.PUB_ID, String.class, false);
-		if (edgeTable.getColumn(InteractionClusterMapper.DETECTION_METHOD_ID) == null)
-			edgeTable.createListColumn(InteractionClusterMapper.DETECTION_METHOD_ID, String.class, false);
-		if (edgeTable.getColumn(InteractionClusterMapper.DETECTION_METHOD_NAME) == null)
-			edgeTable.createListColumn(InteractionClusterMapper.DETECTION_METHOD_NAME, String.class, false);
-		if (edgeTable.getColumn(InteractionClusterMapper.SOURCE_DB) == null)
-			edgeTable.createColumn(InteractionClusterMapper.SOURCE_DB, String.class, false);
-	}
-
-	public void cancel() {
-		this.cancel = true;
+		edgeColumns.ensureListColumn(InteractionClusterMapper.AUTHOR, String.class, false);
+		edgeColumns.ensureColumn(InteractionClusterMapper.PRIMARY_INTERACTION_TYPE, String.class, false);
+		edgeColumns.ensureListColumn(InteractionClusterMapper.INTERACTION_TYPE, String.class, false);
+		edgeColumns.ensureListColumn(InteractionClusterMapper.PUB_DB, String.class, false);
+		edgeColumns.ensureListColumn(InteractionClusterMapper.PUB_ID, String.class, false);
+		edgeColumns.ensureListColumn(InteractionClusterMapper.DETECTION_METHOD_ID, String.class, false);
+		edgeColumns.ensureListColumn(InteractionClusterMapper.DETECTION_METHOD_NAME, String.class, false);
+		edgeColumns.ensureColumn(InteractionClusterMapper.SOURCE_DB, String.class, false);
 	}
 }
@@ -0,0 +1,75 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Max number of nodes and edges an expansion may still add to a network.
+ * Shared by all hops of one multi-hop expansion.
+ */
+public final class ExpansionBudget {
+
+	private int nodesLeft;
+	private int edgesLeft;
+
+	/**
+	 * @param maxNodes
+	 *            Max number of new nodes, or 0 or less for no limit.
+	 * @param maxEdges
+	 *            Max number of new edges, or 0 or less for no limit.
+	 */
+	public ExpansionBudget(final int maxNodes, final int maxEdges) {
+		this.nodesLeft = maxNodes > 0 ? maxNodes : Integer.MAX_VALUE;
+		this.edgesLeft = maxEdges > 0 ? maxEdges : Integer.MAX_VALUE;
+	}
+
+	public static ExpansionBudget unlimited() {
+		return new ExpansionBudget(0, 0);
+	}
+
+	/**
+	 * @return true if one more edge and, if needed, one more node fit. They are
+	 *         counted as used.
+	 */
+	synchronized boolean take(final boolean newNode) {
+		if (edgesLeft == 0 || (newNode && nodesLeft == 0))
+			return false;
+		edgesLeft--;
+		if (newNode)
+			nodesLeft--;
+		return true;
+	}
+
+	public synchronized boolean isExhausted() {
+		return nodesLeft == 0 || edgesLeft == 0;
+	}
+
+	public synchronized int getNodesLeft() {
+		return nodesLeft;
+	}
+
+	public synchronized int getEdgesLeft() {
+		return edgesLeft;
+	}
+}
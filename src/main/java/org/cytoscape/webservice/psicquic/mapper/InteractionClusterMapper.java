@@ -33,9 +33,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.regex.Pattern;
 
 import javax.xml.bind.JAXBContext;
@@ -48,6 +51,7 @@ import org.cytoscape.model.CyIdentifiable;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyRow;
+import org.cytoscape.webservice.psicquic.mapper.NodeAttributeAccumulator.NodeAttributes;
 import org.cytoscape.webservice.psicquic.miriam.Miriam;
 import org.cytoscape.webservice.psicquic.miriam.Miriam.Datatype;
 import org.cytoscape.webservice.psicquic.miriam.Synonyms;
@@ -58,16 +62,11 @@ import psidev.psi.mi.tab.model.BinaryInteraction;
 import psidev.psi.mi.tab.model.Confidence;
 import psidev.psi.mi.tab.model.CrossReference;
 import psidev.psi.mi.tab.model.Interactor;
-import uk.ac.ebi.enfin.mi.cluster.EncoreInteraction;
 
 public class InteractionClusterMapper {
 
 	private static final Logger logger = LoggerFactory.getLogger(InteractionClusterMapper.class);
 
-	private static final Pattern SPLITTER = Pattern.compile("\\|");
-	private static final Pattern SPLITTER_NAME_SPACE = Pattern.compile("\\:");
-	private static final Pattern SPLITTER_TYPE = Pattern.compile("\\(");
-
 	private static final String SCHEMA_NAMESPACE = "org.cytoscape.webservice.psicquic.miriam";
 
 	public static final String PREDICTED_GENE_NAME = "Human Readable Label";
@@ -97,16 +96,14 @@ public class InteractionClusterMapper {
 	private final Map<String, String> name2ns;
 	private final Map<String, String> synonym2ns;
 
+	// Namespace -> column name, shared by parallel imports.
+	private final Map<String, String> columnNames = new ConcurrentHashMap<String, String>();
+
 	public static final String TAXNOMY = "Taxonomy ID";
 	static final String TAXNOMY_NAME = "Taxonomy Name";
 
 	boolean isInitialized = false;
 
-	private String currentGeneName = null;
-
-	// Flag to indicates edge is self-interaction or not.
-	private boolean isSelfEdge = false;
-
 	public InteractionClusterMapper() {
 		namespaceSet = new HashSet<String>();
 		this.name2ns = new HashMap<String, String>();
@@ -129,197 +126,127 @@ public class InteractionClusterMapper {
 	}
 
 	/**
-	 * Process one entry in MITAB cell.
+	 * Collect node attributes from one MITAB line. This does not touch the
+	 * network, so lines can be mapped on several threads.
 	 * 
-	 * 
-	 * @return String array of result. 1: namespace, 2: value, and 3:
-	 *         description.
+	 * @param columns
+	 *            Gets the node columns which are needed.
+	 * @param target
+	 *            The same object as the source for a self-interaction.
 	 */
-	public final String[] parseValues(final String entry) {
-		final String[] values = new String[3];
-
-		// Extract name space
-		final String[] parts = SPLITTER_NAME_SPACE.split(entry);
-		values[0] = parts[0];
-
-		// Parse ID value
-		if (parts.length >= 2) {
-			final String others = entry.substring(values[0].length() + 1, entry.length());
-			final String[] valParts = SPLITTER_TYPE.split(others);
-			final String newVal = valParts[0].replaceAll("\"", "");
-			values[1] = newVal;
-			if (valParts.length >= 2) {
-				// Parse description
-				values[2] = valParts[1].substring(0, valParts[1].length() - 1).replaceAll("\"", "");
-			}
-		} else {
-			return values;
-		}
-
-		return values;
+	void mapNodeColumn(final ColumnSink columns, final MitabLine line, final NodeAttributes source,
+			final NodeAttributes target) {
+		// "-" as the source is a self-interaction of the target, and the other way around.
+		final boolean noSource = line.isEmpty(0);
+		if (!noSource)
+			mapNode(columns, line, source, true);
+		if (target != source || noSource)
+			mapNode(columns, line, target, false);
 	}
 
-	/**
-	 * Extract primary ID sets.
-	 * 
-	 * @param nameText
-	 * @return
-	 */
-	private final Map<String, String> createNames(String nameText) {
-		final Map<String, String> map = new HashMap<String, String>();
-		final String[] names = SPLITTER.split(nameText);
+	private void mapNode(final ColumnSink columns, final MitabLine line, final NodeAttributes attributes,
+			final boolean isSource) {
 
-		for (final String name : names) {
+		// Primary ID sets
+		final MitabLine.Entry entry = line.entries(isSource ? 0 : 1);
+		while (entry.next()) {
 			// Ignore invalid line
-			if (name.equals("-")) {
-				this.isSelfEdge = true;
+			if (entry.isEmpty() || !entry.hasId())
 				continue;
-			}
-			final String[] parts = parseValues(name);
-			// final String[] parts = SPLITTER_NAME_SPACE.split(name);
-			map.put(parts[0], parts[1]);
+			final String dbName = getColumnName(entry.getNamespace());
+			columns.ensureListColumn(dbName, String.class, true);
+			attributes.add(dbName, entry.getId());
 		}
 
-		return map;
-	}
+		// ALT and Aliases
+		addOtherNames(columns, attributes, line, isSource ? 2 : 3);
+		addOtherNames(columns, attributes, line, isSource ? 4 : 5);
 
-	private Map<String, List<String>> createOtherNames(final String nameText, final String aliases) {
-		currentGeneName = null;
-
-		final Map<String, List<String>> map = new HashMap<String, List<String>>();
-		final String[] names = SPLITTER.split(nameText);
-		final String[] others = SPLITTER.split(aliases);
-		final List<String[]> entries = new ArrayList<String[]>();
-		entries.add(names);
-		entries.add(others);
-
-		for (final String[] entry : entries) {
-			for (final String name : entry) {
-				final String[] parsed = parseValues(name);
-				List<String> list = map.get(parsed[0]);
-				if (list == null) {
-					list = new ArrayList<String>();
-				}
-				if (parsed[1] != null) {
-					list.add(parsed[1]);
+		setSpecies(attributes, line, isSource ? 9 : 10);
 
-					if (parsed[2] != null && parsed[2].equals("gene name")) {
-						currentGeneName = parsed[1];
-					}
-				} else {
-					continue;
-				}
-				map.put(parsed[0], list);
-			}
-		}
+		// For 2.7 data
+		if(line.getColumnCount() > 15) {
+			final BiConsumer<String, Object> setter = attributes::set;
 
-		return map;
-	}
+//			addListColumn(columns, setter, line, isSource ? 16 : 17, "Biological Role", String.class);
+//			addListColumn(columns, setter, line, isSource ? 18 : 19, "Experimental Role", String.class);
 
-	public void mapNodeColumn(final String[] entries, final CyRow sourceRow, final CyRow targetRow) {
-		this.isSelfEdge = false;
+			addListColumn(columns, setter, line, isSource ? 20 : 21, INTERACTOR_TYPE, String.class);
+			addListColumn(columns, setter, line, isSource ? 22 : 23, "Xref", String.class);
+			addSimpleListColumn(columns, setter, line, isSource ? 25 : 26, "Annotations");
+			addSimpleListColumn(columns, setter, line, isSource ? 36 : 38, "Features");
 
-		// Primary ID sets
-		final Map<String, String> accsSource = createNames(entries[0]);
-		processNames(sourceRow, accsSource);
+//			addListColumn(columns, setter, line, isSource ? 40 : 41, "Participant Detection Method", String.class);
+		}
+	}
 
-		// ALT and Aliases
-		final Map<String, List<String>> otherSource = createOtherNames(entries[2], entries[4]);
-		processOtherNames(sourceRow, otherSource);
+	private void addOtherNames(final ColumnSink columns, final NodeAttributes attributes, final MitabLine line,
+			final int column) {
+		final MitabLine.Entry entry = line.entries(column);
+		while (entry.next()) {
+			final String id = entry.getId();
+			if (id == null)
+				continue;
 
-		if (currentGeneName != null)
-			sourceRow.set(PREDICTED_GENE_NAME, currentGeneName);
-		else {
-			guessHumanReadableName(sourceRow);
-		}
-		setSpecies(entries[9], sourceRow);
-
-		if (!isSelfEdge) {
-			final Map<String, String> accsTarget = createNames(entries[1]);
-			processNames(targetRow, accsTarget);
-			final Map<String, List<String>> otherTarget = createOtherNames(entries[3], entries[5]);
-			processOtherNames(targetRow, otherTarget);
-			if (currentGeneName != null)
-				targetRow.set(PREDICTED_GENE_NAME, currentGeneName);
-			else {
-				guessHumanReadableName(targetRow);
-			}
-			setSpecies(entries[10], targetRow);
-		}
+			final String dbName = getColumnName(entry.getNamespace());
+			columns.ensureListColumn(dbName, String.class, false);
+			attributes.add(dbName, id);
 
-		// For 2.7 data
-		if(entries.length>15) {
-//			addListColumn(sourceRow, entries[16], "Biological Role", String.class);
-//			addListColumn(targetRow, entries[17], "Biological Role", String.class);
-//			
-//			addListColumn(sourceRow, entries[18], "Experimental Role", String.class);
-//			addListColumn(targetRow, entries[19], "Experimental Role", String.class);
-
-			addListColumn(sourceRow, entries[20], INTERACTOR_TYPE, String.class);
-			addListColumn(targetRow, entries[21], INTERACTOR_TYPE, String.class);
-			
-			addListColumn(sourceRow, entries[22], "Xref", String.class);
-			addListColumn(targetRow, entries[23], "Xref", String.class);
-			
-			addSimpleListColumn(sourceRow, entries[25], "Annotations");
-			addSimpleListColumn(targetRow, entries[26], "Annotations");
-			
-			addSimpleListColumn(sourceRow, entries[36], "Features");
-			addSimpleListColumn(targetRow, entries[38], "Features");
-			
-//			addListColumn(sourceRow, entries[40], "Participant Detection Method", String.class);
-//			addListColumn(targetRow, entries[41], "Participant Detection Method", String.class);
+			if (entry.descriptionEquals("gene name"))
+				attributes.setGeneName(id);
 		}
 	}
 
-
-	private final void setSpecies(final String speciesText, CyRow row) {
+	private final void setSpecies(final NodeAttributes attributes, final MitabLine line, final int column) {
 		// Pick first entry only.
-		final String[] entries = SPLITTER.split(speciesText);
-		final String[] values = parseValues(entries[0]);
+		final MitabLine.Entry entry = line.entries(column);
+		if (!entry.next())
+			return;
 
-		if (values[1] != null) {
-			row.set(TAXNOMY, values[1]);
+		if (entry.hasId()) {
+			attributes.set(TAXNOMY, line.intern(entry.getId()));
 		}
 
-		if (values[2] != null) {
-			row.set(TAXNOMY_NAME, values[2]);
+		if (entry.hasDescription()) {
+			attributes.set(TAXNOMY_NAME, line.intern(entry.getDescription()));
 		}
 	}
 
-	public void mapNodeColumn(final EncoreInteraction interaction, final CyRow sourceRow, final CyRow targetRow) {
+	/**
+	 * Collect node attributes from a merged interaction. They are written by
+	 * {@link #flush(MappingContext)}.
+	 */
+	void mapNodeColumn(final MappingContext context, final MergedInteraction interaction, final CyNode source,
+			final CyNode target) {
+		mapInteractor(context, interaction, source, true);
 
-		final Map<String, String> accsSource = interaction.getInteractorAccsA();
-		processNames(sourceRow, accsSource);
-		final Map<String, List<String>> otherSource = interaction.getOtherInteractorAccsA();
-		processOtherNames(sourceRow, otherSource);
-		final Collection<CrossReference> speciesSource = interaction.getOrganismsA();
-		// Add Species names
-		if (speciesSource.size() != 0) {
-			CrossReference speciesSourceFirst = speciesSource.iterator().next();
-			processSpecies(sourceRow, speciesSourceFirst);
-		}
-		// Try to find human-readable gene name
-		guessHumanReadableName(sourceRow);
+		// If target exists...
+		if (target != null)
+			mapInteractor(context, interaction, target, false);
+	}
 
-		if (targetRow == null) {
-			return;
-		}
+	/**
+	 * Map one side of the interaction only.
+	 * 
+	 * @param isA
+	 *            true for interactor A, false for interactor B.
+	 */
+	void mapInteractor(final MappingContext context, final MergedInteraction interaction, final CyNode node,
+			final boolean isA) {
+		final ColumnSchema columns = context.getNodeColumns();
+		final NodeAttributes attributes = context.getAttributes(node);
+		processNames(columns, attributes, isA ? interaction.getInteractorAccsA() : interaction.getInteractorAccsB());
+		processOtherNames(columns, attributes,
+				isA ? interaction.getOtherInteractorAccsA() : interaction.getOtherInteractorAccsB());
 
-		// If target exists...
-		final Map<String, String> accsTarget = interaction.getInteractorAccsB();
-		processNames(targetRow, accsTarget);
-		final Map<String, List<String>> otherTarget = interaction.getOtherInteractorAccsB();
-		processOtherNames(targetRow, otherTarget);
-		final Collection<CrossReference> speciesTarget = interaction.getOrganismsB();
-		if (speciesTarget.size() != 0) {
-			CrossReference speciesTargetFirst = speciesTarget.iterator().next();
-			processSpecies(targetRow, speciesTargetFirst);
-		}
-		guessHumanReadableName(targetRow);
+		// Add Species names
+		final Collection<CrossReference> species = isA ? interaction.getOrganismsA() : interaction.getOrganismsB();
+		if (species.size() != 0)
+			processSpecies(attributes, species.iterator().next());
 	}
 
-	public void mapEdgeColumn(final EncoreInteraction interaction, final CyRow row) {
+	void mapEdgeColumn(final MappingContext context, final MergedInteraction interaction, final CyEdge edge) {
+		final CyRow row = context.getNetwork().getRow(edge);
 
 		final Set<String> exp = interaction.getExperimentToPubmed().keySet();
 		row.set(DETECTION_METHOD_ID, new ArrayList<String>(exp));
@@ -344,8 +271,7 @@ public class InteractionClusterMapper {
 			String type = c.getType();
 			String value = c.getValue();
 
-			if (row.getTable().getColumn(type) == null)
-				row.getTable().createColumn(type, Double.class, true);
+			context.getEdgeColumns().ensureColumn(type, Double.class, true);
 
 			try {
 				double doubleVal = Double.parseDouble(value);
@@ -358,54 +284,70 @@ public class InteractionClusterMapper {
 		}
 	}
 
-	private void processNames(CyRow row, final Map<String, String> accs) {
-		for (String originalDBName : accs.keySet()) {
-
-			final String dbName = validateNamespace(originalDBName);
-
-			if (row.getTable().getColumn(dbName) == null)
-				row.getTable().createListColumn(dbName, String.class, true);
-
-			List<String> currentList = row.getList(dbName, String.class);
-			if (currentList == null)
-				currentList = new ArrayList<String>();
-
-			final Set<String> nameSet = new HashSet<String>(currentList);
-
-			final String entry = accs.get(originalDBName);
-			nameSet.add(entry);
-
-			row.set(dbName, new ArrayList<String>(nameSet));
+	private void processNames(final ColumnSink columns, final NodeAttributes attributes,
+			final Map<String, String> accs) {
+		for (final Map.Entry<String, String> acc : accs.entrySet()) {
+			if (acc.getValue() == null)
+				continue;
+			final String dbName = getColumnName(acc.getKey());
+			columns.ensureListColumn(dbName, String.class, true);
+			attributes.add(dbName, acc.getValue());
 		}
 	}
 
-	private void processOtherNames(CyRow row, final Map<String, List<String>> accs) {
-		for (String originalDBName : accs.keySet()) {
-
-			final String dbName = validateNamespace(originalDBName);
-
-			if (row.getTable().getColumn(dbName) == null)
-				row.getTable().createListColumn(dbName, String.class, false);
-
-			List<String> currentList = row.getList(dbName, String.class);
-			if (currentList == null)
-				currentList = new ArrayList<String>();
-
-			final Set<String> nameSet = new HashSet<String>(currentList);
-			final List<String> names = accs.get(originalDBName);
-			nameSet.addAll(names);
-			row.set(dbName, new ArrayList<String>(nameSet));
+	private void processOtherNames(final ColumnSink columns, final NodeAttributes attributes,
+			final Map<String, List<String>> accs) {
+		for (final Map.Entry<String, List<String>> acc : accs.entrySet()) {
+			final String dbName = getColumnName(acc.getKey());
+			columns.ensureListColumn(dbName, String.class, false);
+			attributes.addAll(dbName, acc.getValue());
 		}
 	}
 
-	private void processSpecies(CyRow row, CrossReference ref) {
+	private void processSpecies(final NodeAttributes attributes, final CrossReference ref) {
 		if (ref != null) {
-			final String name = ref.getText();
-			final String speciesID = ref.getIdentifier();
+			attributes.set(TAXNOMY, ref.getIdentifier());
+			attributes.set(TAXNOMY_NAME, ref.getText());
+		}
+	}
+
+	/**
+	 * Write the collected node attributes, one row at a time. Lists are merged
+	 * with the values already in the table, and the label is chosen from the
+	 * final lists.
+	 */
+	void flush(final MappingContext context) {
+		final CyNetwork network = context.getNetwork();
+		final ColumnSchema columns = context.getNodeColumns();
+		final NodeAttributeAccumulator accumulator = context.getNodeAttributes();
+
+		for (final Map.Entry<CyNode, NodeAttributes> node : accumulator.entries()) {
+			final CyRow row = network.getRow(node.getKey());
+			final NodeAttributes attributes = node.getValue();
+
+			final Map<String, List<String>> lists = new HashMap<String, List<String>>();
+			for (final Map.Entry<String, Set<String>> entry : attributes.getLists().entrySet()) {
+				final List<String> currentList = row.getList(entry.getKey(), String.class);
+				final List<String> list;
+				if (currentList == null || currentList.isEmpty()) {
+					list = new ArrayList<String>(entry.getValue());
+				} else {
+					final Set<String> nameSet = new LinkedHashSet<String>(currentList);
+					nameSet.addAll(entry.getValue());
+					list = new ArrayList<String>(nameSet);
+				}
+				row.set(entry.getKey(), list);
+				lists.put(entry.getKey(), list);
+			}
+
+			for (final Map.Entry<String, Object> entry : attributes.getValues().entrySet())
+				row.set(entry.getKey(), entry.getValue());
 
-			row.set(TAXNOMY, speciesID);
-			row.set(TAXNOMY_NAME, name);
+			final String geneName = attributes.getGeneName();
+			row.set(PREDICTED_GENE_NAME, geneName != null ? geneName : guessHumanReadableName(row, columns, lists));
 		}
+
+		accumulator.clear();
 	}
 
 	private Miriam parseXml() throws IOException {
@@ -449,6 +391,18 @@ public class InteractionClusterMapper {
 		return result;
 	}
 
+	/**
+	 * @return Column name for a namespace found in the data.
+	 */
+	private String getColumnName(final String namespace) {
+		String columnName = columnNames.get(namespace);
+		if (columnName == null) {
+			columnName = validateNamespace(namespace);
+			columnNames.put(namespace, columnName);
+		}
+		return columnName;
+	}
+
 	private String validateNamespace(final String columnName) {
 
 		// This is a hack for db's bug
@@ -469,60 +423,65 @@ public class InteractionClusterMapper {
 		return columnName;
 	}
 
-	private void guessHumanReadableName(final CyRow row) {
-		boolean found = false;
+	/**
+	 * @param lists
+	 *            Lists just written to the row.
+	 */
+	private String guessHumanReadableName(final CyRow row, final ColumnSchema columns,
+			final Map<String, List<String>> lists) {
+		String found = null;
 
 		// Special handler for STRING. This is a hack...
-		if (row.getTable().getColumn(STRING_ATTR_NAME) != null) {
-			final List<String> stringList = row.getList(STRING_ATTR_NAME, String.class);
-			if (stringList != null)
-				found = findHumanReadableName(row, stringList, ncbiPattern, true);
-		}
+		final List<String> stringList = getList(row, columns, lists, STRING_ATTR_NAME);
+		if (stringList != null)
+			found = findHumanReadableName(stringList, ncbiPattern, true);
 
-		if (found)
-			return;
+		if (found != null)
+			return found;
 
 		// try NCBI
-		if (row.getTable().getColumn(ENTREZ_GENE_ATTR_NAME) != null) {
-			final List<String> ncbiList = row.getList(ENTREZ_GENE_ATTR_NAME, String.class);
-			if (ncbiList != null)
-				found = findHumanReadableName(row, ncbiList, ncbiPattern, true);
-		}
-		if (found)
-			return;
+		final List<String> ncbiList = getList(row, columns, lists, ENTREZ_GENE_ATTR_NAME);
+		if (ncbiList != null)
+			found = findHumanReadableName(ncbiList, ncbiPattern, true);
+		if (found != null)
+			return found;
 
 		// Try Uniprot
-		List<String> uniprotList = null;
-		if (row.getTable().getColumn(UNIPROT_ATTR_NAME) != null) {
-			uniprotList = row.getList(UNIPROT_ATTR_NAME, String.class);
-			if (uniprotList != null)
-				found = findHumanReadableName(row, uniprotList, exact1Pattern, true);
-		}
-		if (found)
-			return;
+		final List<String> uniprotList = getList(row, columns, lists, UNIPROT_ATTR_NAME);
+		if (uniprotList != null)
+			found = findHumanReadableName(uniprotList, exact1Pattern, true);
+		if (found != null)
+			return found;
 
 		if (uniprotList != null)
-			found = findHumanReadableName(row, uniprotList, uniprotPattern, false);
+			found = findHumanReadableName(uniprotList, uniprotPattern, false);
 
-		if (found)
-			return;
+		if (found != null)
+			return found;
 
 		// Unknown
-		if (row.getTable().getColumn("unknown") != null) {
-			final List<String> unknownList = row.getList("unknown", String.class);
-			if (unknownList != null)
-				found = findHumanReadableName(row, unknownList, uniprotPattern, false);
-		}
-		if (found)
-			return;
+		final List<String> unknownList = getList(row, columns, lists, "unknown");
+		if (unknownList != null)
+			found = findHumanReadableName(unknownList, uniprotPattern, false);
+		if (found != null)
+			return found;
+
+		// Give up. Use primary key
+		return row.get(CyNetwork.NAME, String.class);
+	}
 
-		if (found == false) {
-			// Give up. Use primary key
-			row.set(PREDICTED_GENE_NAME, row.get(CyNetwork.NAME, String.class));
-		}
+	private List<String> getList(final CyRow row, final ColumnSchema columns, final Map<String, List<String>> lists,
+			final String columnName) {
+		final List<String> list = lists.get(columnName);
+		if (list != null || !columns.contains(columnName))
+			return list;
+		return row.getList(columnName, String.class);
 	}
 
-	private boolean findHumanReadableName(final CyRow row, final List<String> attrList, Pattern pattern, boolean exist) {
+	/**
+	 * @return null if there is no match.
+	 */
+	private String findHumanReadableName(final List<String> attrList, Pattern pattern, boolean exist) {
 		String candidateString = null;
 		for (final String geneID : attrList) {
 			if (pattern.matcher(geneID).find() == exist) {
@@ -541,98 +500,99 @@ public class InteractionClusterMapper {
 				}
 
 			}
-			row.set(PREDICTED_GENE_NAME, candidateString);
-			return true;
 		}
 
-		return false;
+		return candidateString;
 	}
 
-	public void mapEdgeColumn(final String[] entries, final CyRow row, final CyEdge edge, final String sourceName,
-			final String targetName) {
+	/**
+	 * Map the edge attributes of one MITAB line. Like
+	 * {@link #mapNodeColumn(ColumnSink, MitabLine, NodeAttributes, NodeAttributes)}
+	 * this does not touch the network.
+	 * 
+	 * @param columns
+	 *            Gets the edge columns which are needed.
+	 * @param row
+	 *            Gets the edge attributes.
+	 */
+	void mapEdgeColumn(final ColumnSink columns, final BiConsumer<String, Object> row, final MitabLine line,
+			final String sourceName, final String targetName) {
 
 		// Column 7: Detection method
-		final String[] detectionMethods = SPLITTER.split(entries[6]);
 		final List<String> methods = new ArrayList<String>();
 		final List<String> methodID = new ArrayList<String>();
-		for (final String entry : detectionMethods) {
-			final String[] methodContents = parseValues(entry);
-			if (methodContents[1] != null)
-				methodID.add(methodContents[1]);
-			if (methodContents[2] != null)
-				methods.add(methodContents[2]);
+		MitabLine.Entry entry = line.entries(6);
+		while (entry.next()) {
+			if (entry.hasId())
+				methodID.add(line.intern(entry.getId()));
+			if (entry.hasDescription())
+				methods.add(line.intern(entry.getDescription()));
 		}
 		if (!methods.isEmpty())
-			row.set(DETECTION_METHOD_NAME, methods);
+			row.accept(DETECTION_METHOD_NAME, methods);
 		if (!methodID.isEmpty())
-			row.set(DETECTION_METHOD_ID, methodID);
+			row.accept(DETECTION_METHOD_ID, methodID);
 
 		// Column 8: Authors
-		final String[] authorsParts = SPLITTER.split(entries[7]);
 		final List<String> authors = new ArrayList<String>();
-		for (final String entry : authorsParts) {
-			String updatedAuthor = entry.replaceAll("\"", "");
-			authors.add(updatedAuthor);
-		}
+		entry = line.entries(7);
+		while (entry.next())
+			authors.add(entry.getText());
 		if (!authors.isEmpty())
-			row.set(AUTHOR, authors);
+			row.accept(AUTHOR, authors);
 
 		final List<String> pubIdList = new ArrayList<String>();
 		final List<String> pubDBList = new ArrayList<String>();
-		final String[] pubID = SPLITTER.split(entries[8]);
-		for (final String entry : pubID) {
-			String id = parseValues(entry)[1];
-			String db = parseValues(entry)[0];
-			if (id != null && db != null) {
-				pubDBList.add(db);
-				pubIdList.add(id);
+		entry = line.entries(8);
+		while (entry.next()) {
+			if (entry.hasId()) {
+				pubDBList.add(entry.getNamespace());
+				pubIdList.add(entry.getId());
 			}
 		}
 
 		if (!pubIdList.isEmpty())
-			row.set(PUB_ID, pubIdList);
+			row.accept(PUB_ID, pubIdList);
 		if (!pubDBList.isEmpty())
-			row.set(PUB_DB, pubDBList);
+			row.accept(PUB_DB, pubDBList);
 
-		final String[] dbNames = SPLITTER.split(entries[12]);
-		row.set(SOURCE_DB, parseValues(dbNames[0])[0]);
+		entry = line.entries(12);
+		if (entry.next())
+			row.accept(SOURCE_DB, entry.getNamespace());
 
 		// Interaction Types - Use first one as primary type.
-		final String[] typeParts = SPLITTER.split(entries[11]);
 		final List<String> types = new ArrayList<String>();
-		for (final String entry : typeParts) {
-			final String type = parseValues(entry)[2];
-			if (type != null)
-				types.add(type);
+		entry = line.entries(11);
+		while (entry.next()) {
+			if (entry.hasDescription())
+				types.add(line.intern(entry.getDescription()));
 		}
 		if (!types.isEmpty()) {
-			row.set(INTERACTION_TYPE, types);
-			row.set(PRIMARY_INTERACTION_TYPE, types.get(0));
+			row.accept(INTERACTION_TYPE, types);
+			row.accept(PRIMARY_INTERACTION_TYPE, types.get(0));
 		}
 
 		// Set interaction: this is an ID.
-		final String[] interactionID = SPLITTER.split(entries[13]);
-		final String interaction = parseValues(interactionID[0])[1];
-		row.set(CyEdge.INTERACTION, interaction);
+		entry = line.entries(13);
+		final String interaction = entry.next() ? entry.getId() : null;
+		row.accept(CyEdge.INTERACTION, interaction);
 
 		// Create name
-		row.set(CyNetwork.NAME, sourceName + " (" + interaction + ") " + targetName);
+		row.accept(CyNetwork.NAME, sourceName + " (" + interaction + ") " + targetName);
 
-		final String[] scores = SPLITTER.split(entries[14]);
-		for (String score : scores) {
-			final String[] scoreArray = parseValues(score);
-			String scoreType = "Confidence-Score-" + scoreArray[0];
-			String value = scoreArray[1];
+		entry = line.entries(14);
+		while (entry.next()) {
+			String value = entry.getId();
 			if (value == null) {
 				continue;
 			}
+			String scoreType = "Confidence-Score-" + entry.getNamespace();
 
-			if (row.getTable().getColumn(scoreType) == null)
-				row.getTable().createColumn(scoreType, Double.class, true);
+			columns.ensureColumn(scoreType, Double.class, true);
 
 			try {
 				double doubleVal = Double.parseDouble(value);
-				row.set(scoreType, doubleVal);
+				row.accept(scoreType, doubleVal);
 			} catch (NumberFormatException e) {
 				// logger.warn("Invalid number string: " + value);
 				// Ignore invalid number
@@ -641,31 +601,36 @@ public class InteractionClusterMapper {
 		}
 		
 		// For MITAB 2.7
-		if(entries.length > 15) {
-			addListColumn(row, entries[16], "Source Biological Role", String.class);
-			addListColumn(row, entries[17], "Target Biological Role", String.class);
-			addListColumn(row, entries[18], "Source Experimental Role", String.class);
-			addListColumn(row, entries[19], "Target Experimental Role", String.class);
-			addListColumn(row, entries[40], "Source Participant Detection Method", String.class);
-			addListColumn(row, entries[41], "Target Participant Detection Method", String.class);
+		if(line.getColumnCount() > 15) {
+			addListColumn(columns, row, line, 16, "Source Biological Role", String.class);
+			addListColumn(columns, row, line, 17, "Target Biological Role", String.class);
+			addListColumn(columns, row, line, 18, "Source Experimental Role", String.class);
+			addListColumn(columns, row, line, 19, "Target Experimental Role", String.class);
+			addListColumn(columns, row, line, 40, "Source Participant Detection Method", String.class);
+			addListColumn(columns, row, line, 41, "Target Participant Detection Method", String.class);
 			
-			addListColumn(row, entries[15], "Complex Expansion", String.class);
-			addListColumn(row, entries[24], "Xref", String.class);
+			addListColumn(columns, row, line, 15, "Complex Expansion", String.class);
+			addListColumn(columns, row, line, 24, "Xref", String.class);
 			
-			addSimpleListColumn(row, entries[27], "Annotation");
+			addSimpleListColumn(columns, row, line, 27, "Annotation");
 			
-			addListColumn(row, entries[28], "Host Organism Taxonomy", String.class);
-			addSimpleListColumn(row, entries[29], "Parameters");
+			addListColumn(columns, row, line, 28, "Host Organism Taxonomy", String.class);
+			addSimpleListColumn(columns, row, line, 29, "Parameters");
 
-			addSingleColumn(row, entries[30], "Creation Date", String.class);
-			addSingleColumn(row, entries[31], "Update Date", String.class);
+			addSingleColumn(columns, row, line, 30, "Creation Date", String.class);
+			addSingleColumn(columns, row, line, 31, "Update Date", String.class);
 			
-			addSingleColumn(row, entries[35], "Negative", Boolean.class);
+			addSingleColumn(columns, row, line, 35, "Negative", Boolean.class);
 		}
 	}
 
-	private final void addListColumn(final CyRow row, final String val, final String columnName, final Class<?> listType) {
-		if(val == null || val.equals("-")) {
+	/**
+	 * @param setter
+	 *            Writes the value of a column, to a row or to a buffer.
+	 */
+	private final void addListColumn(final ColumnSink columns, final BiConsumer<String, Object> setter,
+			final MitabLine line, final int column, final String columnName, final Class<?> listType) {
+		if(line.isEmpty(column)) {
 			return;
 		}
 		
@@ -673,91 +638,85 @@ public class InteractionClusterMapper {
 
 		// Create column if necessary
 		if (columnName != null) {
-			if (row.getTable().getColumn(columnName) == null) {
-				row.getTable().createListColumn(columnName, listType, false);
-				row.getTable().createListColumn(columnName + " ID", String.class, false);
-			}
+			columns.ensureListColumn(columnName, listType, false);
+			columns.ensureListColumn(columnName + " ID", String.class, false);
 			newColName = columnName;
 		}
 
-		final String[] entries = SPLITTER.split(val);
-
 		final List<String> ids = new ArrayList<String>();
 		final List<String> descriptions = new ArrayList<String>();
-		for (final String entry : entries) {
-			final String[] contents = parseValues(entry);
+		final MitabLine.Entry entry = line.entries(column);
+		while (entry.next()) {
 			if (newColName == null) {
-				if (row.getTable().getColumn(contents[0]) == null) {
-					row.getTable().createListColumn(contents[0], listType, false);
-					row.getTable().createListColumn(contents[0] + " ID", String.class, false);
-				}
-				newColName = contents[0];
+				newColName = entry.getNamespace();
+				columns.ensureListColumn(newColName, listType, false);
+				columns.ensureListColumn(newColName + " ID", String.class, false);
 			}
-			if (contents[1] != null)
-				ids.add(contents[1]);
-			if (contents[2] != null)
-				descriptions.add(contents[2]);
+			if (entry.hasId())
+				ids.add(line.intern(entry.getId()));
+			if (entry.hasDescription())
+				descriptions.add(line.intern(entry.getDescription()));
 		}
 		if (!ids.isEmpty())
-			row.set(newColName + " ID", ids);
+			setter.accept(newColName + " ID", ids);
 		if (!descriptions.isEmpty())
-			row.set(newColName, descriptions);
+			setter.accept(newColName, descriptions);
 	}
 	
 	
 	/**
 	 * Split the entry by the delimiter and simply creates list column from the values.
 	 * 
-	 * @param row
-	 * @param val
+	 * @param columns
+	 * @param setter
+	 * @param line
+	 * @param column
 	 * @param columnName
 	 */
-	private final void addSimpleListColumn(final CyRow row, final String val, final String columnName) {
+	private final void addSimpleListColumn(final ColumnSink columns, final BiConsumer<String, Object> setter,
+			final MitabLine line, final int column, final String columnName) {
 		// Ignore invalid entry.
-		if(val == null || val.equals("-")) {
+		if(line.isEmpty(column)) {
 			return;
 		}
 		
 		// Create column if necessary
-		if (row.getTable().getColumn(columnName) == null) {
-			row.getTable().createListColumn(columnName, String.class, false);
-		}
+		columns.ensureListColumn(columnName, String.class, false);
 
-		final String[] entries = SPLITTER.split(val);
 		final List<String> ids = new ArrayList<String>();
-		for (final String entry : entries) {
-			if(entry != null) {
-				final String newEntry = entry.replaceAll("\"", "");
-				ids.add(newEntry);
-			}
-		}
+		final MitabLine.Entry entry = line.entries(column);
+		while (entry.next())
+			ids.add(entry.getText());
 		if (!ids.isEmpty())
-			row.set(columnName, ids);
+			setter.accept(columnName, ids);
 	}
 	
 	
 	/**
 	 * Add a single entry
 	 * 
+	 * @param columns
 	 * @param row
-	 * @param val
+	 * @param line
+	 * @param column
 	 * @param columnName
 	 */
-	private final void addSingleColumn(final CyRow row, final String val, final String columnName, final Class<?> dataType) {
+	private final void addSingleColumn(final ColumnSink columns, final BiConsumer<String, Object> setter,
+			final MitabLine line,
+			final int column, final String columnName, final Class<?> dataType) {
 		// Ignore invalid entry.
-		if(val == null || val.equals("-")) {
+		final String val = line.intern(line.getColumn(column));
+		if(val == null) {
 			return;
 		}
 		
 		// Create column if necessary
-		if (row.getTable().getColumn(columnName) == null) {
-			row.getTable().createColumn(columnName, dataType, false);
-		}
+		columns.ensureColumn(columnName, dataType, false);
 		
 		Object newValue = val;
 		if(dataType == Boolean.class)
 			newValue = Boolean.parseBoolean(val);
 		
-		row.set(columnName, newValue);
+		setter.accept(columnName, newValue);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,323 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import psidev.psi.mi.tab.model.BinaryInteraction;
+import psidev.psi.mi.tab.model.Confidence;
+import psidev.psi.mi.tab.model.CrossReference;
+import psidev.psi.mi.tab.model.Interactor;
+import psidev.psi.mi.tab.model.Organism;
+
+/**
+ * Merges interactions from several providers into one
+ * {@link MergedInteraction} per pair of interactors, as they arrive.
+ * 
+ * Interactors are identified by {@link InteractorPairs}. The pair is sorted,
+ * so A-B and B-A end up in the same interaction. Other IDs of an interactor
+ * are mapped to its ID in the mapping databases across interactions by
+ * {@link InteractorIds}, in the same way as MiCluster does. Since an
+ * interaction may arrive before the one which tells its interactor's best
+ * ID, interactions are moved to their final pair when the result is taken.
+ * 
+ * Interactions are split into partitions by their pair, each with its own
+ * lock, so that several provider threads can add at the same time.
+ */
+public final class InteractionMerger {
+
+	private final InteractorPairs pairs;
+	private final InteractorIds ids;
+	private final Partition[] partitions;
+	private final int mask;
+
+	private final StringPool pool = new StringPool();
+	private final AtomicInteger size = new AtomicInteger();
+
+	private volatile boolean frozen = false;
+
+	/**
+	 * @param mappingIdDbNames
+	 *            Comma separated database names, in order of priority.
+	 */
+	public InteractionMerger(final String mappingIdDbNames) {
+		this(mappingIdDbNames, Runtime.getRuntime().availableProcessors());
+	}
+
+	InteractionMerger(final String mappingIdDbNames, final int concurrency) {
+		this(new InteractorPairs(mappingIdDbNames), concurrency);
+	}
+
+	private InteractionMerger(final InteractorPairs pairs, final int concurrency) {
+		this(pairs, new InteractorIds(pairs), concurrency);
+	}
+
+	/**
+	 * @param ids
+	 *            Shared with other mergers, e.g. those of earlier runs.
+	 */
+	InteractionMerger(final InteractorPairs pairs, final InteractorIds ids, final int concurrency) {
+		this.pairs = pairs;
+		this.ids = ids;
+
+		int size = 1;
+		while (size < concurrency)
+			size <<= 1;
+		this.partitions = new Partition[size];
+		for (int i = 0; i < size; i++)
+			partitions[i] = new Partition();
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Add the evidence of one interaction. Can be called from several threads.
+	 * 
+	 * @return false if the interaction has been ignored because
+	 *         {@link #getInteractions()} has already been called.
+	 */
+	public boolean add(final BinaryInteraction<?> interaction) {
+		final Interactor interactorA = interaction.getInteractorA();
+		final Interactor interactorB = interaction.getInteractorB() == null ? interactorA
+				: interaction.getInteractorB();
+		final CrossReference idA = ids.add(interactorA);
+		final CrossReference idB = interactorB == interactorA ? idA : ids.add(interactorB);
+		if (idA == null || idB == null)
+			return true;
+
+		final boolean swap = idA.getIdentifier().compareTo(idB.getIdentifier()) > 0;
+		final String key = InteractorPairs.getKey(idA.getIdentifier(), idB.getIdentifier());
+
+		final Partition partition = partitions[InteractorPairs.spread(key.hashCode()) & mask];
+		synchronized (partition) {
+			if (frozen)
+				return false;
+
+			MergedInteraction merged = partition.interactions.get(key);
+			if (merged == null) {
+				final CrossReference first = swap ? idB : idA;
+				final CrossReference second = swap ? idA : idB;
+				merged = new MergedInteraction(first.getIdentifier(), second.getIdentifier(),
+						pool.get(first.getDatabase() + "-" + second.getDatabase()));
+				partition.interactions.put(key, merged);
+				size.incrementAndGet();
+			}
+			mergeInteractor(swap ? interactorB : interactorA, merged.getInteractorAccsA(),
+					merged.getOtherInteractorAccsA(), merged.getOrganismsA());
+			mergeInteractor(swap ? interactorA : interactorB, merged.getInteractorAccsB(),
+					merged.getOtherInteractorAccsB(), merged.getOrganismsB());
+			mergeEvidence(interaction, merged);
+		}
+		return true;
+	}
+
+	/**
+	 * Add an interaction merged before, e.g. one read back from a run file.
+	 * 
+	 * @return false if the interaction has been ignored because
+	 *         {@link #getInteractions()} has already been called.
+	 */
+	boolean add(final MergedInteraction interaction) {
+		final MergedInteraction resolved = resolve(interaction);
+		final String key = resolved.getKey();
+
+		final Partition partition = partitions[InteractorPairs.spread(key.hashCode()) & mask];
+		synchronized (partition) {
+			if (frozen)
+				return false;
+
+			final MergedInteraction existing = partition.interactions.putIfAbsent(key, resolved);
+			if (existing != null)
+				existing.merge(resolved);
+			else
+				size.incrementAndGet();
+		}
+		return true;
+	}
+
+	/**
+	 * Stop merging and return the result. Later calls to
+	 * {@link #add(BinaryInteraction)} are ignored, so the returned
+	 * interactions do not change anymore.
+	 */
+	public List<MergedInteraction> getInteractions() {
+		return new ArrayList<MergedInteraction>(resolveAll().values());
+	}
+
+	/**
+	 * Same as {@link #getInteractions()}, but sorted by the key of the pair.
+	 */
+	List<MergedInteraction> getSortedInteractions() {
+		final List<Map.Entry<String, MergedInteraction>> entries =
+				new ArrayList<Map.Entry<String, MergedInteraction>>(resolveAll().entrySet());
+		entries.sort(Map.Entry.comparingByKey());
+
+		final List<MergedInteraction> result = new ArrayList<MergedInteraction>(entries.size());
+		for (final Map.Entry<String, MergedInteraction> entry : entries)
+			result.add(entry.getValue());
+		return result;
+	}
+
+	/**
+	 * Stop merging and move every interaction to the pair of the best IDs
+	 * known for its interactors.
+	 * 
+	 * @return Merged interactions by the key of their pair.
+	 */
+	private Map<String, MergedInteraction> resolveAll() {
+		frozen = true;
+		final Map<String, MergedInteraction> result = new LinkedHashMap<String, MergedInteraction>();
+		for (final Partition partition : partitions) {
+			synchronized (partition) {
+				for (final MergedInteraction interaction : partition.interactions.values()) {
+					final MergedInteraction resolved = resolve(interaction);
+					final MergedInteraction existing = result.putIfAbsent(resolved.getKey(), resolved);
+					if (existing != null)
+						existing.merge(resolved);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return The interaction between the best IDs known for its interactors.
+	 */
+	MergedInteraction resolve(final MergedInteraction interaction) {
+		final CrossReference idA = ids.resolve(interaction.getInteractorA());
+		final CrossReference idB = ids.resolve(interaction.getInteractorB());
+		if (idA == null || idB == null || (idA.getIdentifier().equals(interaction.getInteractorA())
+				&& idB.getIdentifier().equals(interaction.getInteractorB())))
+			return interaction;
+
+		final boolean swap = idA.getIdentifier().compareTo(idB.getIdentifier()) > 0;
+		final CrossReference first = swap ? idB : idA;
+		final CrossReference second = swap ? idA : idB;
+		return interaction.withInteractors(first.getIdentifier(), second.getIdentifier(),
+				pool.get(first.getDatabase() + "-" + second.getDatabase()), swap);
+	}
+
+	/**
+	 * @return Number of merged interactions so far.
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	private void mergeInteractor(final Interactor interactor, final Map<String, String> accs,
+			final Map<String, List<String>> otherAccs, final Collection<CrossReference> organisms) {
+		mergeIds(interactor.getIdentifiers(), accs, otherAccs);
+		mergeIds(interactor.getAlternativeIdentifiers(), accs, otherAccs);
+
+		final Organism organism = interactor.getOrganism();
+		if (organism != null && organism.getIdentifiers() != null) {
+			for (final CrossReference taxon : organism.getIdentifiers())
+				addIfAbsent(organisms, taxon);
+		}
+	}
+
+	private void mergeIds(final Collection<CrossReference> ids, final Map<String, String> accs,
+			final Map<String, List<String>> otherAccs) {
+		if (ids == null)
+			return;
+
+		for (final CrossReference id : ids) {
+			if (id.getDatabase() == null || id.getIdentifier() == null)
+				continue;
+
+			final String db = pool.get(id.getDatabase().toLowerCase());
+			if (pairs.isMappingDb(db)) {
+				// The first ID wins, in the same way as MiCluster.
+				accs.putIfAbsent(db, id.getIdentifier());
+			} else {
+				final List<String> list = otherAccs.computeIfAbsent(db, key -> new ArrayList<String>(2));
+				if (!list.contains(id.getIdentifier()))
+					list.add(id.getIdentifier());
+			}
+		}
+	}
+
+	private void mergeEvidence(final BinaryInteraction<?> interaction, final MergedInteraction merged) {
+		final List<String> pubmedIds = new ArrayList<String>();
+		if (interaction.getPublications() != null) {
+			for (final CrossReference publication : interaction.getPublications()) {
+				addIfAbsent(merged.getPublicationIds(), publication);
+				if (publication.getIdentifier() != null && !pubmedIds.contains(publication.getIdentifier()))
+					pubmedIds.add(publication.getIdentifier());
+			}
+		}
+
+		if (interaction.getInteractionAcs() != null) {
+			for (final CrossReference ac : interaction.getInteractionAcs()) {
+				final List<String> list = merged.getExperimentToPubmed()
+						.computeIfAbsent(ac.getDatabase() + ":" + ac.getIdentifier(), key -> new ArrayList<String>(1));
+				for (final String pubmedId : pubmedIds) {
+					if (!list.contains(pubmedId))
+						list.add(pubmedId);
+				}
+			}
+		}
+
+		if (interaction.getConfidenceValues() != null) {
+			for (final Confidence confidence : interaction.getConfidenceValues()) {
+				if (!containsConfidence(merged.getConfidenceValues(), confidence))
+					merged.getConfidenceValues().add(confidence);
+			}
+		}
+	}
+
+	/**
+	 * Lists are short, so a linear search costs less than a set for each of
+	 * them.
+	 */
+	static void addIfAbsent(final Collection<CrossReference> refs, final CrossReference ref) {
+		for (final CrossReference existing : refs) {
+			if (equals(existing.getDatabase(), ref.getDatabase())
+					&& equals(existing.getIdentifier(), ref.getIdentifier()))
+				return;
+		}
+		refs.add(ref);
+	}
+
+	static boolean containsConfidence(final List<Confidence> confidences, final Confidence confidence) {
+		for (final Confidence existing : confidences) {
+			if (equals(existing.getType(), confidence.getType()) && equals(existing.getValue(), confidence.getValue()))
+				return true;
+		}
+		return false;
+	}
+
+	private static boolean equals(final String a, final String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	private static final class Partition {
+		private final Map<String, MergedInteraction> interactions = new LinkedHashMap<String, MergedInteraction>();
+	}
+}
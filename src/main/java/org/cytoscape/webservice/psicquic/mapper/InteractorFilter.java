@@ -0,0 +1,84 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps only the interactions of the given interactors when a local MITAB
+ * file is imported. This is the local equivalent of searching by a list of
+ * IDs: an interaction is kept if any ID or alternative ID of either
+ * interactor is one of them.
+ * 
+ * IDs can be given with or without their database, e.g. "P04637" or
+ * "uniprotkb:P04637".
+ */
+public final class InteractorFilter {
+
+	// ID A, ID B, alternative IDs A and B.
+	private static final int ID_COLUMNS = 4;
+
+	private final Set<String> ids;
+
+	private InteractorFilter(final Set<String> ids) {
+		this.ids = ids;
+	}
+
+	/**
+	 * @param query
+	 *            IDs separated by spaces, commas or "OR".
+	 * @return null if there are no IDs, which means no filtering.
+	 */
+	public static InteractorFilter parse(final String query) {
+		if (query == null)
+			return null;
+
+		final Set<String> ids = new HashSet<String>();
+		for (String id : query.split("[\\s,]+")) {
+			id = id.replace("\"", "");
+			if (!id.isEmpty() && !id.equals("OR"))
+				ids.add(id);
+		}
+		return ids.isEmpty() ? null : new InteractorFilter(Collections.unmodifiableSet(ids));
+	}
+
+	public Set<String> getIds() {
+		return ids;
+	}
+
+	boolean matches(final MitabLine line) {
+		for (int column = 0; column < ID_COLUMNS; column++) {
+			final MitabLine.Entry entry = line.entries(column);
+			while (entry.next()) {
+				final String id = entry.getId();
+				if (id != null && (ids.contains(id) || ids.contains(entry.getNamespace() + ":" + id)))
+					return true;
+			}
+		}
+		return false;
+	}
+}
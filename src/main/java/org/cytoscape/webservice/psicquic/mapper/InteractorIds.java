@@ -0,0 +1,170 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import psidev.psi.mi.tab.model.CrossReference;
+import psidev.psi.mi.tab.model.Interactor;
+
+/**
+ * All IDs seen for the same interactor, over all merged interactions. Like
+ * MiCluster, this maps an interactor which is known only by another ID in
+ * one interaction to the ID it has in the mapping databases in another.
+ * 
+ * The IDs are kept in sets (union-find), and each set is identified by its
+ * ID in the mapping database with the highest priority. Two sets which have
+ * different IDs in the mapping databases already are different interactors,
+ * so they are not joined by another ID they share, e.g. a gene name.
+ * 
+ * IDs are compared by their identifier only, in the same way as the keys of
+ * interactor pairs.
+ */
+final class InteractorIds {
+
+	private final InteractorPairs pairs;
+	private final Map<String, Node> nodes = new HashMap<String, Node>();
+
+	InteractorIds(final InteractorPairs pairs) {
+		this.pairs = pairs;
+	}
+
+	/**
+	 * Remember that all IDs of the interactor belong to the same interactor.
+	 * 
+	 * @return Best ID of the interactor known so far, or null if it has no ID
+	 *         at all.
+	 */
+	synchronized CrossReference add(final Interactor interactor) {
+		final CrossReference mappingId = pairs.getMappingId(interactor);
+		if (mappingId == null)
+			return null;
+
+		// Ranked when it is seen among the IDs below.
+		Node root = find(getNode(mappingId, Integer.MAX_VALUE));
+		root = addAll(root, interactor.getIdentifiers(), false);
+		root = addAll(root, interactor.getAlternativeIdentifiers(), true);
+		return root.best;
+	}
+
+	/**
+	 * @return Best ID of the interactor with the given ID, or null if the ID
+	 *         has not been added.
+	 */
+	synchronized CrossReference resolve(final String identifier) {
+		final Node node = nodes.get(identifier);
+		return node == null ? null : find(node).best;
+	}
+
+	/**
+	 * @return Number of IDs seen.
+	 */
+	synchronized int size() {
+		return nodes.size();
+	}
+
+	private Node addAll(Node root, final Collection<CrossReference> ids, final boolean alternative) {
+		if (ids == null)
+			return root;
+
+		for (final CrossReference id : ids) {
+			if (id.getDatabase() == null || id.getIdentifier() == null)
+				continue;
+
+			final int rank = getRank(id, alternative);
+			final Node other = find(getNode(id, rank));
+			other.offer(id, rank);
+			if (other != root && !isConflict(root, other))
+				root = union(root, other);
+		}
+		return root;
+	}
+
+	private Node getNode(final CrossReference id, final int rank) {
+		Node node = nodes.get(id.getIdentifier());
+		if (node == null) {
+			node = new Node(id, rank);
+			nodes.put(id.getIdentifier(), node);
+		}
+		return node;
+	}
+
+	/**
+	 * Primary identifiers win over alternative ones of the same database.
+	 */
+	private int getRank(final CrossReference id, final boolean alternative) {
+		return 2 * pairs.getPriority(id.getDatabase()) + (alternative ? 1 : 0);
+	}
+
+	private boolean isConflict(final Node a, final Node b) {
+		return pairs.isMappingDb(a.best.getDatabase().toLowerCase())
+				&& pairs.isMappingDb(b.best.getDatabase().toLowerCase());
+	}
+
+	private static Node find(Node node) {
+		while (node.parent != node) {
+			node.parent = node.parent.parent;
+			node = node.parent;
+		}
+		return node;
+	}
+
+	private static Node union(final Node a, final Node b) {
+		final Node root = a.size >= b.size ? a : b;
+		final Node child = root == a ? b : a;
+		child.parent = root;
+		root.size += child.size;
+		root.offer(child.best, child.rank);
+		return root;
+	}
+
+	private static final class Node {
+		private Node parent = this;
+		private int size = 1;
+
+		// Only used on the root of a set.
+		private CrossReference best;
+		private int rank;
+
+		private Node(final CrossReference id, final int rank) {
+			this.best = id;
+			this.rank = rank;
+		}
+
+		/**
+		 * Ties are broken by the identifier, so that the result does not
+		 * depend on the order in which the IDs were seen.
+		 */
+		private void offer(final CrossReference id, final int rank) {
+			if (rank < this.rank || (rank == this.rank && id.getIdentifier().compareTo(best.getIdentifier()) < 0)) {
+				this.best = id;
+				this.rank = rank;
+			}
+		}
+	}
+}
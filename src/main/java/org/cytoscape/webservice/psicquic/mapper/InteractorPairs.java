@@ -0,0 +1,112 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import psidev.psi.mi.tab.model.CrossReference;
+import psidev.psi.mi.tab.model.Interactor;
+
+/**
+ * Identifies interactors and interactor pairs in the same way as MiCluster:
+ * by their ID in the first of the mapping databases they have an ID in.
+ * Interactors with no such ID keep their first identifier.
+ * 
+ * Interactions of different pairs are never merged, so the pair decides
+ * which partition an interaction belongs to.
+ */
+public final class InteractorPairs {
+
+	private final List<String> mappingDbs;
+
+	/**
+	 * @param mappingIdDbNames
+	 *            Comma separated database names, in order of priority.
+	 */
+	public InteractorPairs(final String mappingIdDbNames) {
+		this.mappingDbs = new ArrayList<String>();
+		for (final String db : mappingIdDbNames.split(",")) {
+			if (!db.trim().isEmpty())
+				mappingDbs.add(db.trim().toLowerCase());
+		}
+	}
+
+	/**
+	 * @return Key of the pair, the same for A-B and B-A.
+	 */
+	static String getKey(final String idA, final String idB) {
+		return idA.compareTo(idB) > 0 ? idB + '\t' + idA : idA + '\t' + idB;
+	}
+
+	static int spread(final int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	boolean isMappingDb(final String db) {
+		return mappingDbs.contains(db);
+	}
+
+	/**
+	 * @return Position of the database in the mapping databases, or their
+	 *         number if it is none of them. Lower is better.
+	 */
+	int getPriority(final String db) {
+		final int index = db == null ? -1 : mappingDbs.indexOf(db.toLowerCase());
+		return index < 0 ? mappingDbs.size() : index;
+	}
+
+	/**
+	 * @return ID of the interactor in the mapping database with the highest
+	 *         priority, or its first identifier. Null if it has no ID at all.
+	 */
+	CrossReference getMappingId(final Interactor interactor) {
+		if (interactor == null)
+			return null;
+
+		for (final String db : mappingDbs) {
+			final CrossReference id = findId(interactor.getIdentifiers(), db);
+			if (id != null)
+				return id;
+			final CrossReference altId = findId(interactor.getAlternativeIdentifiers(), db);
+			if (altId != null)
+				return altId;
+		}
+
+		final List<CrossReference> ids = interactor.getIdentifiers();
+		return ids == null || ids.isEmpty() ? null : ids.get(0);
+	}
+
+	private static CrossReference findId(final Collection<CrossReference> ids, final String db) {
+		if (ids == null)
+			return null;
+		for (final CrossReference id : ids) {
+			if (id.getDatabase() != null && id.getIdentifier() != null && db.equalsIgnoreCase(id.getDatabase()))
+				return id;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,138 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a local MITAB 2.5 - 2.7 file through memory-mapped windows.
+ * 
+ * Lines are found by scanning the mapped bytes, and comment and empty lines
+ * are skipped before anything is decoded. Only the lines which are returned
+ * are turned into strings. A window always starts at the beginning of a
+ * line, so no line is split between two of them.
+ */
+public final class MappedMitabFile implements LineSource {
+
+	// Large enough for any line, small enough to map on a 32-bit JVM.
+	static final int DEF_WINDOW_SIZE = 1 << 28;
+
+	private static final byte LF = '\n';
+	private static final byte CR = '\r';
+	private static final byte COMMENT = '#';
+
+	private final FileChannel channel;
+	private final long fileSize;
+	private final int windowSize;
+
+	private MappedByteBuffer window;
+	// Position of the window in the file.
+	private long windowStart = 0;
+	private byte[] buffer = new byte[4096];
+
+	public MappedMitabFile(final File file) throws IOException {
+		this(file, DEF_WINDOW_SIZE);
+	}
+
+	MappedMitabFile(final File file, final int windowSize) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		this.fileSize = channel.size();
+		this.windowSize = windowSize;
+		map(0);
+	}
+
+	private void map(final long start) throws IOException {
+		windowStart = start;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, fileSize - start));
+	}
+
+	@Override
+	public String readLine() throws IOException {
+		while (true) {
+			if (!window.hasRemaining()) {
+				final long next = windowStart + window.limit();
+				if (next >= fileSize)
+					return null;
+				map(next);
+			}
+
+			final int start = window.position();
+			final int limit = window.limit();
+			int end = start;
+			while (end < limit && window.get(end) != LF)
+				end++;
+
+			if (end == limit && windowStart + limit < fileSize) {
+				// The line goes on in the next window.
+				if (start == 0)
+					throw new IOException("MITAB line longer than " + windowSize + " bytes.");
+				map(windowStart + start);
+				continue;
+			}
+
+			final int next = end < limit ? end + 1 : end;
+			int length = end - start;
+			if (length > 0 && window.get(start + length - 1) == CR)
+				length--;
+			if (length == 0 || window.get(start) == COMMENT) {
+				window.position(next);
+				continue;
+			}
+
+			if (buffer.length < length)
+				buffer = new byte[Math.max(length, buffer.length * 2)];
+			window.get(buffer, 0, length);
+			window.position(next);
+			return new String(buffer, 0, length, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * @return Ratio of the file read so far (0.0 - 1.0).
+	 */
+	public double getProgress() {
+		return fileSize == 0 ? 1.0 : (double) (windowStart + window.position()) / fileSize;
+	}
+
+	/**
+	 * @return Rough number of interactions in the file, to size the node
+	 *         index.
+	 */
+	public long estimateLineCount() {
+		// A MITAB 2.5 line is a few hundred bytes, 2.7 lines are longer.
+		return fileSize / 400;
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+}
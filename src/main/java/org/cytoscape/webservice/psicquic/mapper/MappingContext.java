@@ -0,0 +1,71 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.webservice.psicquic.mapper.NodeAttributeAccumulator.NodeAttributes;
+
+/**
+ * State of one import into one network.
+ * 
+ * Node attributes are collected here while the interactions are read, and
+ * written to the node table once at the end by
+ * {@link InteractionClusterMapper#flush(MappingContext)}, instead of
+ * rewriting the rows of hub nodes for every one of their edges.
+ */
+final class MappingContext {
+
+	private final CyNetwork network;
+	private final ColumnSchema nodeColumns;
+	private final ColumnSchema edgeColumns;
+	private final NodeAttributeAccumulator nodeAttributes = new NodeAttributeAccumulator();
+
+	MappingContext(final CyNetwork network) {
+		this.network = network;
+		this.nodeColumns = new ColumnSchema(network.getDefaultNodeTable());
+		this.edgeColumns = new ColumnSchema(network.getDefaultEdgeTable());
+	}
+
+	CyNetwork getNetwork() {
+		return network;
+	}
+
+	ColumnSchema getNodeColumns() {
+		return nodeColumns;
+	}
+
+	ColumnSchema getEdgeColumns() {
+		return edgeColumns;
+	}
+
+	NodeAttributes getAttributes(final CyNode node) {
+		return nodeAttributes.get(node);
+	}
+
+	NodeAttributeAccumulator getNodeAttributes() {
+		return nodeAttributes;
+	}
+}
@@ -0,0 +1,228 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import psidev.psi.mi.tab.model.Confidence;
+import psidev.psi.mi.tab.model.CrossReference;
+import uk.ac.ebi.enfin.mi.cluster.EncoreInteraction;
+
+/**
+ * All evidence for the interaction of one pair of interactors, merged from
+ * one or more providers. Either built by {@link InteractionMerger} or
+ * converted from the result of MiCluster.
+ * 
+ * The getters have the same meaning as those of {@link EncoreInteraction}.
+ */
+public final class MergedInteraction {
+
+	private final String interactorA;
+	private final String interactorB;
+
+	private final Map<String, String> interactorAccsA;
+	private final Map<String, String> interactorAccsB;
+	private final Map<String, List<String>> otherInteractorAccsA;
+	private final Map<String, List<String>> otherInteractorAccsB;
+	private final Collection<CrossReference> organismsA;
+	private final Collection<CrossReference> organismsB;
+
+	private final Map<String, List<String>> experimentToPubmed;
+	private final List<CrossReference> publicationIds;
+	private final List<Confidence> confidenceValues;
+	private final String mappingIdDbNames;
+
+	MergedInteraction(final String interactorA, final String interactorB, final String mappingIdDbNames) {
+		this(interactorA, interactorB, new LinkedHashMap<String, String>(), new LinkedHashMap<String, String>(),
+				new LinkedHashMap<String, List<String>>(), new LinkedHashMap<String, List<String>>(),
+				new ArrayList<CrossReference>(), new ArrayList<CrossReference>(),
+				new LinkedHashMap<String, List<String>>(), new ArrayList<CrossReference>(),
+				new ArrayList<Confidence>(), mappingIdDbNames);
+	}
+
+	private MergedInteraction(final String interactorA, final String interactorB,
+			final Map<String, String> interactorAccsA, final Map<String, String> interactorAccsB,
+			final Map<String, List<String>> otherInteractorAccsA,
+			final Map<String, List<String>> otherInteractorAccsB, final Collection<CrossReference> organismsA,
+			final Collection<CrossReference> organismsB, final Map<String, List<String>> experimentToPubmed,
+			final List<CrossReference> publicationIds, final List<Confidence> confidenceValues,
+			final String mappingIdDbNames) {
+		this.interactorA = interactorA;
+		this.interactorB = interactorB;
+		this.interactorAccsA = interactorAccsA;
+		this.interactorAccsB = interactorAccsB;
+		this.otherInteractorAccsA = otherInteractorAccsA;
+		this.otherInteractorAccsB = otherInteractorAccsB;
+		this.organismsA = organismsA;
+		this.organismsB = organismsB;
+		this.experimentToPubmed = experimentToPubmed;
+		this.publicationIds = publicationIds;
+		this.confidenceValues = confidenceValues;
+		this.mappingIdDbNames = mappingIdDbNames;
+	}
+
+	/**
+	 * Use the result of MiCluster as it is.
+	 */
+	public static MergedInteraction of(final EncoreInteraction interaction) {
+		return new MergedInteraction(interaction.getInteractorA(), interaction.getInteractorB(),
+				interaction.getInteractorAccsA(), interaction.getInteractorAccsB(),
+				interaction.getOtherInteractorAccsA(), interaction.getOtherInteractorAccsB(),
+				interaction.getOrganismsA(), interaction.getOrganismsB(), interaction.getExperimentToPubmed(),
+				interaction.getPublicationIds(), interaction.getConfidenceValues(),
+				interaction.getMappingIdDbNames());
+	}
+
+	public static List<MergedInteraction> of(final Collection<EncoreInteraction> interactions) {
+		final List<MergedInteraction> result = new ArrayList<MergedInteraction>(interactions.size());
+		for (final EncoreInteraction interaction : interactions)
+			result.add(of(interaction));
+		return result;
+	}
+
+	/**
+	 * @return Key of the pair, which sorts merged interactions in run files.
+	 */
+	String getKey() {
+		return InteractorPairs.getKey(interactorA, interactorB);
+	}
+
+	/**
+	 * @return The same evidence for other IDs of the interactors, e.g. once
+	 *         more of their IDs are known. If swap is true, the new A is the
+	 *         old B.
+	 */
+	MergedInteraction withInteractors(final String interactorA, final String interactorB,
+			final String mappingIdDbNames, final boolean swap) {
+		if (swap)
+			return new MergedInteraction(interactorA, interactorB, interactorAccsB, interactorAccsA,
+					otherInteractorAccsB, otherInteractorAccsA, organismsB, organismsA, experimentToPubmed,
+					publicationIds, confidenceValues, mappingIdDbNames);
+		return new MergedInteraction(interactorA, interactorB, interactorAccsA, interactorAccsB, otherInteractorAccsA,
+				otherInteractorAccsB, organismsA, organismsB, experimentToPubmed, publicationIds, confidenceValues,
+				mappingIdDbNames);
+	}
+
+	/**
+	 * Add the evidence of another interaction of the same pair, e.g. one
+	 * merged in another run.
+	 */
+	void merge(final MergedInteraction other) {
+		mergeAccs(other.interactorAccsA, interactorAccsA);
+		mergeAccs(other.interactorAccsB, interactorAccsB);
+		mergeLists(other.otherInteractorAccsA, otherInteractorAccsA);
+		mergeLists(other.otherInteractorAccsB, otherInteractorAccsB);
+		for (final CrossReference organism : other.organismsA)
+			InteractionMerger.addIfAbsent(organismsA, organism);
+		for (final CrossReference organism : other.organismsB)
+			InteractionMerger.addIfAbsent(organismsB, organism);
+		mergeLists(other.experimentToPubmed, experimentToPubmed);
+		for (final CrossReference publication : other.publicationIds)
+			InteractionMerger.addIfAbsent(publicationIds, publication);
+		for (final Confidence confidence : other.confidenceValues) {
+			if (!InteractionMerger.containsConfidence(confidenceValues, confidence))
+				confidenceValues.add(confidence);
+		}
+	}
+
+	private static void mergeAccs(final Map<String, String> from, final Map<String, String> to) {
+		for (final Map.Entry<String, String> entry : from.entrySet())
+			to.putIfAbsent(entry.getKey(), entry.getValue());
+	}
+
+	private static void mergeLists(final Map<String, List<String>> from, final Map<String, List<String>> to) {
+		for (final Map.Entry<String, List<String>> entry : from.entrySet()) {
+			final List<String> list = to.computeIfAbsent(entry.getKey(), key -> new ArrayList<String>(2));
+			for (final String value : entry.getValue()) {
+				if (!list.contains(value))
+					list.add(value);
+			}
+		}
+	}
+
+	public String getInteractorA() {
+		return interactorA;
+	}
+
+	public String getInteractorB() {
+		return interactorB;
+	}
+
+	/**
+	 * @return IDs of interactor A in the mapping databases, by database.
+	 */
+	public Map<String, String> getInteractorAccsA() {
+		return interactorAccsA;
+	}
+
+	public Map<String, String> getInteractorAccsB() {
+		return interactorAccsB;
+	}
+
+	/**
+	 * @return Other IDs of interactor A, by database.
+	 */
+	public Map<String, List<String>> getOtherInteractorAccsA() {
+		return otherInteractorAccsA;
+	}
+
+	public Map<String, List<String>> getOtherInteractorAccsB() {
+		return otherInteractorAccsB;
+	}
+
+	public Collection<CrossReference> getOrganismsA() {
+		return organismsA;
+	}
+
+	public Collection<CrossReference> getOrganismsB() {
+		return organismsB;
+	}
+
+	/**
+	 * @return Publication IDs by interaction accession.
+	 */
+	public Map<String, List<String>> getExperimentToPubmed() {
+		return experimentToPubmed;
+	}
+
+	public List<CrossReference> getPublicationIds() {
+		return publicationIds;
+	}
+
+	public List<Confidence> getConfidenceValues() {
+		return confidenceValues;
+	}
+
+	/**
+	 * @return Databases of the IDs used as interactor A and B.
+	 */
+	public String getMappingIdDbNames() {
+		return mappingIdDbNames;
+	}
+}
@@ -0,0 +1,219 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Result of a merge, possibly spilled to run files by
+ * {@link SpillingMerger}. The runs are merged while they are iterated, so
+ * only one interaction of each run is in memory at a time.
+ * 
+ * Can be iterated only once. Must be closed to delete the run files.
+ */
+public final class MergedRuns implements Iterable<MergedInteraction>, Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(MergedRuns.class);
+
+	private final List<File> files;
+	// Each one sorted by key, unless there is only one.
+	private final List<List<MergedInteraction>> lists;
+	private final long size;
+
+	private final List<RecordReader> openReaders = new ArrayList<RecordReader>();
+	private boolean iterated = false;
+
+	MergedRuns(final List<File> files, final List<List<MergedInteraction>> lists, final long size) {
+		this.files = files;
+		this.lists = lists;
+		this.size = size;
+	}
+
+	/**
+	 * @return Result which is in memory as a whole, in any order.
+	 */
+	public static MergedRuns of(final List<MergedInteraction> interactions) {
+		return new MergedRuns(Collections.<File>emptyList(), Collections.singletonList(interactions),
+				interactions.size());
+	}
+
+	/**
+	 * @return Number of interactions before the runs are merged. Interactions
+	 *         of the same pair in different runs are counted more than once.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * @return true if nothing has been written to disk.
+	 */
+	public boolean isInMemory() {
+		return files.isEmpty();
+	}
+
+	@Override
+	public synchronized Iterator<MergedInteraction> iterator() {
+		if (iterated)
+			throw new IllegalStateException("Merged runs can be iterated only once.");
+		iterated = true;
+
+		if (files.isEmpty() && lists.size() == 1)
+			return lists.get(0).iterator();
+
+		final PriorityQueue<Run> queue = new PriorityQueue<Run>(files.size() + lists.size(),
+				Comparator.comparing((Run run) -> run.key));
+		try {
+			for (final File file : files) {
+				final RecordReader reader = new RecordReader(file);
+				openReaders.add(reader);
+				addIfNotEmpty(queue, new FileRun(reader));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		for (final List<MergedInteraction> list : lists)
+			addIfNotEmpty(queue, new ListRun(list.iterator()));
+
+		return new Iterator<MergedInteraction>() {
+			@Override
+			public boolean hasNext() {
+				return !queue.isEmpty();
+			}
+
+			@Override
+			public MergedInteraction next() {
+				if (queue.isEmpty())
+					throw new NoSuchElementException();
+
+				final Run first = queue.poll();
+				final String key = first.key;
+				final MergedInteraction result = first.current;
+				addIfNotEmpty(queue, first);
+
+				// Other runs with the same pair are next in the queue.
+				while (!queue.isEmpty() && queue.peek().key.equals(key)) {
+					final Run run = queue.poll();
+					result.merge(run.current);
+					addIfNotEmpty(queue, run);
+				}
+				return result;
+			}
+		};
+	}
+
+	/**
+	 * @return All interactions, merged into one list.
+	 */
+	public List<MergedInteraction> toList() {
+		final List<MergedInteraction> result = new ArrayList<MergedInteraction>();
+		for (final MergedInteraction interaction : this)
+			result.add(interaction);
+		return result;
+	}
+
+	private static void addIfNotEmpty(final PriorityQueue<Run> queue, final Run run) {
+		if (run.advance())
+			queue.add(run);
+	}
+
+	@Override
+	public synchronized void close() {
+		for (final RecordReader reader : openReaders) {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				// Deleted below anyway.
+			}
+		}
+		openReaders.clear();
+		for (final File file : files) {
+			if (!file.delete() && file.exists())
+				logger.warn("Could not delete merge run file: " + file);
+		}
+	}
+
+	/**
+	 * Interactions of one run, read one at a time.
+	 */
+	private static abstract class Run {
+		private MergedInteraction current;
+		private String key;
+
+		/**
+		 * @return false if the run has ended.
+		 */
+		private boolean advance() {
+			current = readNext();
+			key = current == null ? null : current.getKey();
+			return current != null;
+		}
+
+		abstract MergedInteraction readNext();
+	}
+
+	private static final class FileRun extends Run {
+		private final RecordReader reader;
+
+		private FileRun(final RecordReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		MergedInteraction readNext() {
+			try {
+				return reader.read();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	private static final class ListRun extends Run {
+		private final Iterator<MergedInteraction> iterator;
+
+		private ListRun(final Iterator<MergedInteraction> iterator) {
+			this.iterator = iterator;
+		}
+
+		@Override
+		MergedInteraction readNext() {
+			return iterator.hasNext() ? iterator.next() : null;
+		}
+	}
+}
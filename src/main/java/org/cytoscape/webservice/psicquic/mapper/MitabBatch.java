@@ -0,0 +1,84 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.cytoscape.webservice.psicquic.mapper.NodeAttributeAccumulator.NodeAttributes;
+
+/**
+ * Lines of a MITAB file parsed on a worker thread, ready to be added to the
+ * network in the original order.
+ */
+final class MitabBatch {
+
+	private final ColumnRequests nodeColumns = new ColumnRequests();
+	private final ColumnRequests edgeColumns = new ColumnRequests();
+	private final List<Line> lines;
+
+	MitabBatch(final int size) {
+		this.lines = new ArrayList<Line>(size);
+	}
+
+	ColumnRequests getNodeColumns() {
+		return nodeColumns;
+	}
+
+	ColumnRequests getEdgeColumns() {
+		return edgeColumns;
+	}
+
+	List<Line> getLines() {
+		return lines;
+	}
+
+	void add(final Line line) {
+		lines.add(line);
+	}
+
+	/**
+	 * One interaction.
+	 */
+	static final class Line {
+		// Column name and ID
+		final String[] sourceId;
+		final String[] targetId;
+		final NodeAttributes source;
+		// The same object as the source for a self-interaction.
+		final NodeAttributes target;
+		final Map<String, Object> edgeValues;
+
+		Line(final String[] sourceId, final String[] targetId, final NodeAttributes source, final NodeAttributes target,
+				final Map<String, Object> edgeValues) {
+			this.sourceId = sourceId;
+			this.targetId = targetId;
+			this.source = source;
+			this.target = target;
+			this.edgeValues = edgeValues;
+		}
+	}
+}
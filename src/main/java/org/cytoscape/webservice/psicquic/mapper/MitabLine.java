@@ -0,0 +1,389 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Splits one line of PSI-MI TAB into columns and <code>db:id(description)</code>
+ * entries without regular expressions or intermediate strings.
+ * 
+ * The line is scanned once for tabs. Entries are found on demand and only hold
+ * offsets into the line. Strings are created only when a value is actually
+ * needed, and namespaces, which repeat on every line, are reused. Values
+ * which repeat across lines can be shared through a {@link StringPool}.
+ * 
+ * One instance is meant to be reused for all lines of a file, by one thread.
+ * The cursor and views it returns are overwritten by the next call.
+ */
+final class MitabLine {
+
+	private static final char COLUMN_SEPARATOR = '\t';
+	private static final char ENTRY_SEPARATOR = '|';
+	private static final char NAMESPACE_SEPARATOR = ':';
+	private static final char DESCRIPTION_START = '(';
+	private static final char DESCRIPTION_END = ')';
+	private static final char QUOTE = '"';
+
+	private static final String EMPTY = "-";
+
+	// Number of columns in MITAB 2.7. Grows if needed.
+	private static final int INITIAL_COLUMNS = 42;
+
+	private static final int NAMESPACE_CACHE_SIZE = 256;
+
+	private String line = "";
+	private int[] starts = new int[INITIAL_COLUMNS];
+	private int[] ends = new int[INITIAL_COLUMNS];
+	private int columnCount = 0;
+
+	private final Entry entry = new Entry();
+	private final View columnView = new View();
+	private final String[] namespaces = new String[NAMESPACE_CACHE_SIZE];
+	private final StringPool pool;
+
+	MitabLine() {
+		this(null);
+	}
+
+	/**
+	 * @param pool
+	 *            Used for namespaces and {@link #intern(String)}, or null for
+	 *            no sharing between instances.
+	 */
+	MitabLine(final StringPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Use the next line.
+	 * 
+	 * @return Number of columns.
+	 */
+	int reset(final String line) {
+		this.line = line;
+		columnCount = 0;
+
+		final int length = line.length();
+		int start = 0;
+		for (int i = 0; i < length; i++) {
+			if (line.charAt(i) == COLUMN_SEPARATOR) {
+				addColumn(start, i);
+				start = i + 1;
+			}
+		}
+		addColumn(start, length);
+		return columnCount;
+	}
+
+	private void addColumn(final int start, final int end) {
+		if (columnCount == starts.length) {
+			starts = Arrays.copyOf(starts, columnCount * 2);
+			ends = Arrays.copyOf(ends, columnCount * 2);
+		}
+		starts[columnCount] = start;
+		ends[columnCount] = end;
+		columnCount++;
+	}
+
+	int getColumnCount() {
+		return columnCount;
+	}
+
+	/**
+	 * @return true if the column is missing, empty or "-".
+	 */
+	boolean isEmpty(final int column) {
+		if (column >= columnCount)
+			return true;
+		final int length = ends[column] - starts[column];
+		return length == 0 || (length == 1 && line.charAt(starts[column]) == EMPTY.charAt(0));
+	}
+
+	/**
+	 * @return View of the column, valid until the next call. Empty if the column
+	 *         is missing.
+	 */
+	CharSequence column(final int column) {
+		if (column >= columnCount)
+			return columnView.set(0, 0);
+		return columnView.set(starts[column], ends[column]);
+	}
+
+	/**
+	 * @return The column as a new string, or null if it is empty.
+	 */
+	String getColumn(final int column) {
+		if (isEmpty(column))
+			return null;
+		return line.substring(starts[column], ends[column]);
+	}
+
+	/**
+	 * Start iterating the entries of a column. Call {@link Entry#next()} before
+	 * reading the first one.
+	 * 
+	 * @return The shared cursor of this line.
+	 */
+	Entry entries(final int column) {
+		if (column >= columnCount)
+			entry.reset(0, -1);
+		else
+			entry.reset(starts[column], ends[column]);
+		return entry;
+	}
+
+	/**
+	 * @return Cached string with the same content, to avoid a new string for
+	 *         every occurrence of the same namespace.
+	 */
+	private String namespace(final int start, final int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++)
+			hash = 31 * hash + line.charAt(i);
+
+		final int slot = (hash ^ (hash >>> 16)) & (NAMESPACE_CACHE_SIZE - 1);
+		final String cached = namespaces[slot];
+		final int length = end - start;
+		if (cached != null && cached.length() == length && line.regionMatches(start, cached, 0, length))
+			return cached;
+
+		final String ns = intern(line.substring(start, end));
+		namespaces[slot] = ns;
+		return ns;
+	}
+
+	/**
+	 * @return Shared instance of a value which is likely to repeat on other
+	 *         lines, e.g. a CV term. Not meant for IDs of interactors.
+	 */
+	String intern(final String value) {
+		return pool == null ? value : pool.get(value);
+	}
+
+	/**
+	 * Index of the first separator outside of quotes, or <code>end</code>.
+	 */
+	private int indexOf(final char separator, final int start, final int end) {
+		boolean quoted = false;
+		for (int i = start; i < end; i++) {
+			final char c = line.charAt(i);
+			if (c == QUOTE)
+				quoted = !quoted;
+			else if (c == separator && !quoted)
+				return i;
+		}
+		return end;
+	}
+
+	/**
+	 * The same as substring, but without quotes.
+	 */
+	private String unquote(final int start, final int end) {
+		final int quote = line.indexOf(QUOTE, start);
+		if (quote == -1 || quote >= end)
+			return line.substring(start, end);
+
+		final StringBuilder builder = new StringBuilder(end - start);
+		for (int i = start; i < end; i++) {
+			final char c = line.charAt(i);
+			if (c != QUOTE)
+				builder.append(c);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Cursor over the entries of one column. Each entry has a namespace, and
+	 * optionally an ID and a description in parentheses:
+	 * <code>psi-mi:"MI:0018"(two hybrid)</code>. Quotes are not part of the
+	 * values.
+	 */
+	final class Entry {
+
+		private int columnEnd;
+		private int next;
+
+		private int start;
+		private int end;
+		private int nsEnd;
+		private int idStart;
+		private int idEnd;
+		private int descStart;
+		private int descEnd;
+
+		private final View view = new View();
+
+		private void reset(final int columnStart, final int columnEnd) {
+			this.columnEnd = columnEnd;
+			this.next = columnStart;
+		}
+
+		/**
+		 * @return false if there are no more entries.
+		 */
+		boolean next() {
+			if (next > columnEnd)
+				return false;
+
+			start = next;
+			end = indexOf(ENTRY_SEPARATOR, start, columnEnd);
+			next = end + 1;
+
+			nsEnd = indexOf(NAMESPACE_SEPARATOR, start, end);
+			idStart = idEnd = descStart = descEnd = -1;
+			if (nsEnd + 1 >= end)
+				return true;
+
+			idStart = nsEnd + 1;
+			idEnd = indexOf(DESCRIPTION_START, idStart, end);
+			if (idEnd < end) {
+				descStart = idEnd + 1;
+				descEnd = findDescriptionEnd(descStart, end);
+			}
+			return true;
+		}
+
+		/**
+		 * Descriptions may contain parentheses themselves.
+		 */
+		private int findDescriptionEnd(final int from, final int to) {
+			int depth = 0;
+			boolean quoted = false;
+			for (int i = from; i < to; i++) {
+				final char c = line.charAt(i);
+				if (c == QUOTE) {
+					quoted = !quoted;
+				} else if (!quoted) {
+					if (c == DESCRIPTION_START) {
+						depth++;
+					} else if (c == DESCRIPTION_END) {
+						if (depth == 0)
+							return i;
+						depth--;
+					}
+				}
+			}
+			return to;
+		}
+
+		/**
+		 * @return true if the entry is empty or "-".
+		 */
+		boolean isEmpty() {
+			return end == start || (end - start == 1 && line.charAt(start) == EMPTY.charAt(0));
+		}
+
+		String getNamespace() {
+			return namespace(start, nsEnd);
+		}
+
+		boolean hasId() {
+			return idStart != -1;
+		}
+
+		/**
+		 * @return View of the ID, valid until the next call. Null if there is
+		 *         none.
+		 */
+		CharSequence id() {
+			return hasId() ? view.set(idStart, idEnd) : null;
+		}
+
+		String getId() {
+			return hasId() ? unquote(idStart, idEnd) : null;
+		}
+
+		boolean hasDescription() {
+			return descStart != -1;
+		}
+
+		/**
+		 * @return View of the description, valid until the next call. Null if
+		 *         there is none.
+		 */
+		CharSequence description() {
+			return hasDescription() ? view.set(descStart, descEnd) : null;
+		}
+
+		String getDescription() {
+			return hasDescription() ? unquote(descStart, descEnd) : null;
+		}
+
+		boolean descriptionEquals(final String value) {
+			return hasDescription() && view.set(descStart, descEnd).contentEquals(value);
+		}
+
+		/**
+		 * @return The whole entry without quotes.
+		 */
+		String getText() {
+			return unquote(start, end);
+		}
+	}
+
+	/**
+	 * Reusable view of a part of the line, without enclosing quotes.
+	 */
+	private final class View implements CharSequence {
+
+		private int start;
+		private int end;
+
+		private View set(int start, int end) {
+			if (end - start >= 2 && line.charAt(start) == QUOTE && line.charAt(end - 1) == QUOTE) {
+				start++;
+				end--;
+			}
+			this.start = start;
+			this.end = end;
+			return this;
+		}
+
+		@Override
+		public int length() {
+			return end - start;
+		}
+
+		@Override
+		public char charAt(final int index) {
+			return line.charAt(start + index);
+		}
+
+		@Override
+		public CharSequence subSequence(final int from, final int to) {
+			return line.subSequence(start + from, start + to);
+		}
+
+		@Override
+		public String toString() {
+			return unquote(start, end);
+		}
+
+		private boolean contentEquals(final String value) {
+			return length() == value.length() && line.regionMatches(start, value, 0, value.length());
+		}
+	}
+}
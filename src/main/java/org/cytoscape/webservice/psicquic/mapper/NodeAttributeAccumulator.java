@@ -0,0 +1,143 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.cytoscape.model.CyNode;
+
+/**
+ * Node attributes collected from all interactions of one import, one entry
+ * per node.
+ * 
+ * A hub node which appears in thousands of interactions gets its identifiers
+ * merged here, in the order they were first seen, and its row is written
+ * once at the end.
+ */
+final class NodeAttributeAccumulator {
+
+	private final Map<CyNode, NodeAttributes> nodes = new LinkedHashMap<CyNode, NodeAttributes>();
+
+	NodeAttributes get(final CyNode node) {
+		NodeAttributes attributes = nodes.get(node);
+		if (attributes == null) {
+			attributes = new NodeAttributes();
+			nodes.put(node, attributes);
+		}
+		return attributes;
+	}
+
+	/**
+	 * @return Nodes in the order they were first seen.
+	 */
+	Set<Map.Entry<CyNode, NodeAttributes>> entries() {
+		return nodes.entrySet();
+	}
+
+	int size() {
+		return nodes.size();
+	}
+
+	void clear() {
+		nodes.clear();
+	}
+
+	static final class NodeAttributes {
+
+		// Most nodes only have a few namespaces.
+		private final Map<String, Set<String>> lists = new LinkedHashMap<String, Set<String>>(8);
+		private final Map<String, Object> values = new HashMap<String, Object>(8);
+
+		private String geneName;
+
+		/**
+		 * Add an identifier to a list column. Duplicates are ignored.
+		 */
+		void add(final String column, final String value) {
+			getList(column).add(value);
+		}
+
+		void addAll(final String column, final Collection<String> values) {
+			getList(column).addAll(values);
+		}
+
+		private Set<String> getList(final String column) {
+			Set<String> list = lists.get(column);
+			if (list == null) {
+				list = new LinkedHashSet<String>();
+				lists.put(column, list);
+			}
+			return list;
+		}
+
+		/**
+		 * Set a value which replaces the one in the table. The last one wins.
+		 */
+		void set(final String column, final Object value) {
+			values.put(column, value);
+		}
+
+		Object get(final String column) {
+			return values.get(column);
+		}
+
+		/**
+		 * Add everything collected in the other object, as if it had been
+		 * collected here.
+		 */
+		void merge(final NodeAttributes other) {
+			for (final Map.Entry<String, Set<String>> entry : other.lists.entrySet())
+				addAll(entry.getKey(), entry.getValue());
+			values.putAll(other.values);
+			if (other.geneName != null)
+				geneName = other.geneName;
+		}
+
+		Map<String, Set<String>> getLists() {
+			return lists;
+		}
+
+		Map<String, Object> getValues() {
+			return values;
+		}
+
+		/**
+		 * Gene name given by the data source itself. Used as the label instead of
+		 * a guess.
+		 */
+		void setGeneName(final String geneName) {
+			this.geneName = geneName;
+		}
+
+		String getGeneName() {
+			return geneName;
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+/**
+ * Node SUIDs by node ID (the NAME of nodes created by the importers), for
+ * fast lookup while adding interactions to a network.
+ * 
+ * Entries are kept in open-addressing arrays, so no boxing is needed. A 64
+ * bit hash of each ID is compared first, and the ID itself only if the hashes
+ * are equal, so two IDs with the same hash still get an entry each.
+ * 
+ * Thread-safe, as it is updated by network events while an import uses it.
+ */
+public final class NodeIndex {
+
+	/** Returned by {@link #get(String)} if the ID is not in the index. */
+	public static final long NO_NODE = -1;
+
+	private static final int MIN_CAPACITY = 16;
+	// Capacity is allocated lazily above this, in case a count is far too big.
+	private static final int MAX_PRESIZE = 1 << 22;
+
+	private final ToLongFunction<String> hashFunction;
+
+	// 0 marks an empty slot.
+	private long[] hashes;
+	private String[] ids;
+	private long[] suids;
+	private int size = 0;
+
+	public NodeIndex() {
+		this(0);
+	}
+
+	/**
+	 * @param expectedSize
+	 *            Number of nodes expected, e.g. from the search result count.
+	 *            The index grows as needed anyway.
+	 */
+	public NodeIndex(final long expectedSize) {
+		this(expectedSize, NodeIndex::hash);
+	}
+
+	NodeIndex(final long expectedSize, final ToLongFunction<String> hashFunction) {
+		this.hashFunction = hashFunction;
+		allocate(capacityFor(Math.min(expectedSize, MAX_PRESIZE)));
+	}
+
+	private static int capacityFor(final long size) {
+		// Load factor 0.5
+		int capacity = MIN_CAPACITY;
+		while (capacity < size * 2)
+			capacity <<= 1;
+		return capacity;
+	}
+
+	private void allocate(final int capacity) {
+		hashes = new long[capacity];
+		ids = new String[capacity];
+		suids = new long[capacity];
+	}
+
+	/**
+	 * @return 64 bit hash of the ID, never 0.
+	 */
+	static long hash(final String id) {
+		// FNV-1a, then the MurmurHash3 finalizer to spread the bits.
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < id.length(); i++) {
+			h ^= id.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h == 0 ? 1 : h;
+	}
+
+	private long hashOf(final String id) {
+		final long hash = hashFunction.applyAsLong(id);
+		return hash == 0 ? 1 : hash;
+	}
+
+	/**
+	 * @return Slot of the ID, or the empty slot where it would go.
+	 */
+	private int slot(final long hash, final String id) {
+		final int mask = hashes.length - 1;
+		int i = (int) hash & mask;
+		while (hashes[i] != 0 && (hashes[i] != hash || !ids[i].equals(id)))
+			i = (i + 1) & mask;
+		return i;
+	}
+
+	/**
+	 * @return SUID of the node, or {@link #NO_NODE}.
+	 */
+	public synchronized long get(final String id) {
+		if (id == null)
+			return NO_NODE;
+		final int i = slot(hashOf(id), id);
+		return hashes[i] == 0 ? NO_NODE : suids[i];
+	}
+
+	public boolean contains(final String id) {
+		return get(id) != NO_NODE;
+	}
+
+	/**
+	 * Add or replace the node for the ID.
+	 */
+	public synchronized void put(final String id, final long suid) {
+		if (id == null)
+			return;
+		final long hash = hashOf(id);
+		int i = slot(hash, id);
+		if (hashes[i] == 0) {
+			if ((size + 1) * 2 > hashes.length) {
+				rehash(hashes.length << 1);
+				i = slot(hash, id);
+			}
+			hashes[i] = hash;
+			ids[i] = id;
+			size++;
+		}
+		suids[i] = suid;
+	}
+
+	/**
+	 * @return true if the ID was in the index.
+	 */
+	public synchronized boolean remove(final String id) {
+		if (id == null)
+			return false;
+		final int mask = hashes.length - 1;
+		int i = slot(hashOf(id), id);
+		if (hashes[i] == 0)
+			return false;
+
+		// Shift the following entries back so that no probe chain is broken.
+		int next = (i + 1) & mask;
+		while (hashes[next] != 0) {
+			final int home = (int) hashes[next] & mask;
+			// Move the entry if its home slot is not between the gap and its slot.
+			if (((next - home) & mask) >= ((next - i) & mask)) {
+				hashes[i] = hashes[next];
+				ids[i] = ids[next];
+				suids[i] = suids[next];
+				i = next;
+			}
+			next = (next + 1) & mask;
+		}
+		hashes[i] = 0;
+		ids[i] = null;
+		suids[i] = 0;
+		size--;
+		return true;
+	}
+
+	private void rehash(final int capacity) {
+		final long[] oldHashes = hashes;
+		final String[] oldIds = ids;
+		final long[] oldSuids = suids;
+		allocate(capacity);
+		for (int i = 0; i < oldHashes.length; i++) {
+			if (oldHashes[i] != 0) {
+				final int slot = slot(oldHashes[i], oldIds[i]);
+				hashes[slot] = oldHashes[i];
+				ids[slot] = oldIds[i];
+				suids[slot] = oldSuids[i];
+			}
+		}
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	public synchronized void clear() {
+		Arrays.fill(hashes, 0);
+		Arrays.fill(ids, null);
+		Arrays.fill(suids, 0);
+		size = 0;
+	}
+}
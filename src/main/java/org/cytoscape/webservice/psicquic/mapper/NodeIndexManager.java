@@ -0,0 +1,155 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.cytoscape.event.CyEventHelper;
+import org.cytoscape.model.CyIdentifiable;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.events.AboutToRemoveNodesEvent;
+import org.cytoscape.model.events.AboutToRemoveNodesListener;
+import org.cytoscape.model.events.AddedNodesEvent;
+import org.cytoscape.model.events.AddedNodesListener;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedEvent;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedListener;
+import org.cytoscape.model.events.RowSetRecord;
+import org.cytoscape.model.events.RowsSetEvent;
+import org.cytoscape.model.events.RowsSetListener;
+import org.cytoscape.service.util.CyServiceRegistrar;
+
+/**
+ * Keeps one {@link NodeIndex} per network built or expanded by this app, so
+ * that expanding a node only costs as much as the new interactions, not a scan
+ * of the whole node table.
+ * 
+ * The indexes follow nodes added, removed and renamed by anyone through network
+ * events. Renaming leaves the old name in the index, so users of the index
+ * check the NAME of the node they get.
+ */
+public final class NodeIndexManager implements AddedNodesListener, AboutToRemoveNodesListener, RowsSetListener,
+		NetworkAboutToBeDestroyedListener {
+
+	private final CyServiceRegistrar serviceRegistrar;
+
+	// Weak keys: networks which were never registered are never destroyed.
+	private final Map<CyNetwork, NodeIndex> indexes = Collections
+			.synchronizedMap(new WeakHashMap<CyNetwork, NodeIndex>());
+	private final Map<CyTable, NodeIndex> tableIndexes = Collections
+			.synchronizedMap(new WeakHashMap<CyTable, NodeIndex>());
+
+	public NodeIndexManager(final CyServiceRegistrar serviceRegistrar) {
+		this.serviceRegistrar = serviceRegistrar;
+	}
+
+	/**
+	 * @param expectedNodes
+	 *            Number of nodes about to be added, for the initial size of a
+	 *            new index.
+	 * @return Index of the nodes in the network by NAME. Built from the node
+	 *         table the first time only.
+	 */
+	public NodeIndex getIndex(final CyNetwork network, final long expectedNodes) {
+		final NodeIndex index = indexes.get(network);
+		if (index != null) {
+			// Pending events may still have changes by others.
+			final CyEventHelper eventHelper = serviceRegistrar.getService(CyEventHelper.class);
+			if (eventHelper != null)
+				eventHelper.flushPayloadEvents();
+			return index;
+		}
+
+		final NodeIndex newIndex = new NodeIndex(network.getNodeCount() + expectedNodes);
+		for (final CyNode node : network.getNodeList())
+			newIndex.put(network.getRow(node).get(CyNetwork.NAME, String.class), node.getSUID());
+		indexes.put(network, newIndex);
+		tableIndexes.put(network.getDefaultNodeTable(), newIndex);
+		return newIndex;
+	}
+
+	/**
+	 * @return true if the network has an index.
+	 */
+	public boolean isIndexed(final CyNetwork network) {
+		return indexes.containsKey(network);
+	}
+
+	@Override
+	public void handleEvent(final AddedNodesEvent e) {
+		final CyNetwork network = e.getSource();
+		final NodeIndex index = indexes.get(network);
+		if (index == null)
+			return;
+
+		// The name of a new node is usually set later, see RowsSetEvent.
+		for (final CyNode node : e.getPayloadCollection()) {
+			final CyRow row = network.getRow(node);
+			if (row != null)
+				index.put(row.get(CyNetwork.NAME, String.class), node.getSUID());
+		}
+	}
+
+	@Override
+	public void handleEvent(final AboutToRemoveNodesEvent e) {
+		final CyNetwork network = e.getSource();
+		final NodeIndex index = indexes.get(network);
+		if (index == null)
+			return;
+
+		for (final CyNode node : e.getNodes()) {
+			final String name = network.getRow(node).get(CyNetwork.NAME, String.class);
+			if (name != null && index.get(name) == node.getSUID())
+				index.remove(name);
+		}
+	}
+
+	@Override
+	public void handleEvent(final RowsSetEvent e) {
+		if (!e.containsColumn(CyNetwork.NAME))
+			return;
+		final NodeIndex index = tableIndexes.get(e.getSource());
+		if (index == null)
+			return;
+
+		for (final RowSetRecord record : e.getColumnRecords(CyNetwork.NAME)) {
+			final Object name = record.getValue();
+			final Long suid = record.getRow().get(CyIdentifiable.SUID, Long.class);
+			if (name instanceof String && suid != null)
+				index.put((String) name, suid);
+		}
+	}
+
+	@Override
+	public void handleEvent(final NetworkAboutToBeDestroyedEvent e) {
+		final CyNetwork network = e.getNetwork();
+		indexes.remove(network);
+		tableIndexes.remove(network.getDefaultNodeTable());
+	}
+}
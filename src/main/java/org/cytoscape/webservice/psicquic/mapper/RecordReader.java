@@ -0,0 +1,196 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import psidev.psi.mi.tab.model.ConfidenceImpl;
+import psidev.psi.mi.tab.model.CrossReference;
+import psidev.psi.mi.tab.model.CrossReferenceImpl;
+
+/**
+ * Reads merged interactions written by {@link RecordWriter}. Terms are read
+ * into the dictionary once, so all records of a file share the same string
+ * instances for them.
+ */
+final class RecordReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final DataInputStream in;
+	private final List<String> terms = new ArrayList<String>();
+
+	private boolean ended = false;
+
+	RecordReader(final File file) throws IOException {
+		this(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+	}
+
+	RecordReader(final InputStream in) throws IOException {
+		this.in = new DataInputStream(in);
+		try {
+			if (this.in.readInt() != RecordWriter.MAGIC)
+				throw new IOException("Not a merged interaction file.");
+			final int version = this.in.readUnsignedByte();
+			if (version != RecordWriter.VERSION)
+				throw new IOException("Unsupported merged interaction file version: " + version);
+		} catch (IOException e) {
+			this.in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return The next interaction, or null at the end of the file.
+	 */
+	MergedInteraction read() throws IOException {
+		if (ended)
+			return null;
+
+		final int tag = in.readUnsignedByte();
+		if (tag == RecordWriter.END) {
+			ended = true;
+			return null;
+		}
+		if (tag != RecordWriter.RECORD)
+			throw new IOException("Broken merged interaction file: unknown record " + tag);
+
+		final String interactorA = readText();
+		final String interactorB = readText();
+		final MergedInteraction interaction = new MergedInteraction(interactorA, interactorB, readTerm());
+		readAccs(interaction.getInteractorAccsA());
+		readAccs(interaction.getInteractorAccsB());
+		readOtherAccs(interaction.getOtherInteractorAccsA());
+		readOtherAccs(interaction.getOtherInteractorAccsB());
+		readRefs(interaction.getOrganismsA(), true);
+		readRefs(interaction.getOrganismsB(), true);
+
+		final int experiments = readVarInt();
+		for (int i = 0; i < experiments; i++) {
+			final String ac = readText();
+			final int size = readVarInt();
+			final List<String> pubmedIds = new ArrayList<String>(size);
+			for (int j = 0; j < size; j++)
+				pubmedIds.add(readText());
+			interaction.getExperimentToPubmed().put(ac, pubmedIds);
+		}
+
+		readRefs(interaction.getPublicationIds(), false);
+
+		final int confidences = readVarInt();
+		for (int i = 0; i < confidences; i++) {
+			final String type = readTerm();
+			interaction.getConfidenceValues().add(new ConfidenceImpl(type, readTerm()));
+		}
+		return interaction;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private void readAccs(final Map<String, String> accs) throws IOException {
+		final int size = readVarInt();
+		for (int i = 0; i < size; i++) {
+			final String db = readTerm();
+			accs.put(db, readText());
+		}
+	}
+
+	private void readOtherAccs(final Map<String, List<String>> accs) throws IOException {
+		final int size = readVarInt();
+		for (int i = 0; i < size; i++) {
+			final String db = readTerm();
+			final int length = readVarInt();
+			final List<String> ids = new ArrayList<String>(length);
+			for (int j = 0; j < length; j++)
+				ids.add(readText());
+			accs.put(db, ids);
+		}
+	}
+
+	private void readRefs(final Collection<CrossReference> refs, final boolean termIds) throws IOException {
+		final int size = readVarInt();
+		for (int i = 0; i < size; i++) {
+			final String db = readTerm();
+			final String id = termIds ? readTerm() : readText();
+			refs.add(new CrossReferenceImpl(db, id, readTerm()));
+		}
+	}
+
+	private String readTerm() throws IOException {
+		final int code = readVarInt();
+		switch (code) {
+		case RecordWriter.NULL:
+			return null;
+		case RecordWriter.LITERAL:
+			return readBytes(readVarInt());
+		case RecordWriter.NEW_TERM:
+			final String term = readBytes(readVarInt());
+			terms.add(term);
+			return term;
+		default:
+			final int index = code - RecordWriter.FIRST_TERM;
+			if (index >= terms.size())
+				throw new IOException("Broken merged interaction file: unknown term " + index);
+			return terms.get(index);
+		}
+	}
+
+	private String readText() throws IOException {
+		final int length = readVarInt();
+		return length == 0 ? null : readBytes(length - 1);
+	}
+
+	private String readBytes(final int length) throws IOException {
+		final byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int readVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			final int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new EOFException("Broken merged interaction file: variable-length integer too long.");
+	}
+}
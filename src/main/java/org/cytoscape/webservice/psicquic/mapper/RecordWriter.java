@@ -0,0 +1,238 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import psidev.psi.mi.tab.model.Confidence;
+import psidev.psi.mi.tab.model.CrossReference;
+
+/**
+ * Writes merged interactions in a compact binary format, e.g. to the run
+ * files of {@link SpillingMerger}. Read them with {@link RecordReader}.
+ * 
+ * Only the native merge engine stores its records this way. Raw
+ * interactions are merged into them as they arrive, so they are not kept.
+ * MiCluster, if chosen instead, holds every raw interaction until it runs.
+ * 
+ * Lengths and counts are variable-length integers. Terms which repeat on
+ * many records, such as database names, taxonomy and CV terms, are written
+ * once and then referred to by their number in a dictionary which is built
+ * up while writing. IDs and other values are written as they are.
+ */
+final class RecordWriter implements Closeable {
+
+	static final int MAGIC = 0x50514d52;
+	static final int VERSION = 1;
+
+	// Terms beyond this are written as literals and not remembered.
+	static final int MAX_TERMS = 1 << 16;
+
+	// Term codes. Codes from FIRST_TERM on refer to the dictionary.
+	static final int NULL = 0;
+	static final int LITERAL = 1;
+	static final int NEW_TERM = 2;
+	static final int FIRST_TERM = 3;
+
+	static final int END = 0;
+	static final int RECORD = 1;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final DataOutputStream out;
+	private final Map<String, Integer> terms = new HashMap<String, Integer>();
+
+	private long count = 0;
+
+	RecordWriter(final File file) throws IOException {
+		this(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+	}
+
+	RecordWriter(final OutputStream out) throws IOException {
+		this.out = new DataOutputStream(out);
+		this.out.writeInt(MAGIC);
+		this.out.writeByte(VERSION);
+	}
+
+	/**
+	 * Write all interactions to a new file.
+	 */
+	static void write(final File file, final List<MergedInteraction> interactions) throws IOException {
+		try (final RecordWriter writer = new RecordWriter(file)) {
+			for (final MergedInteraction interaction : interactions)
+				writer.write(interaction);
+		}
+	}
+
+	void write(final MergedInteraction interaction) throws IOException {
+		out.writeByte(RECORD);
+		writeText(interaction.getInteractorA());
+		writeText(interaction.getInteractorB());
+		writeTerm(interaction.getMappingIdDbNames());
+		writeAccs(interaction.getInteractorAccsA());
+		writeAccs(interaction.getInteractorAccsB());
+		writeOtherAccs(interaction.getOtherInteractorAccsA());
+		writeOtherAccs(interaction.getOtherInteractorAccsB());
+		writeRefs(interaction.getOrganismsA(), true);
+		writeRefs(interaction.getOrganismsB(), true);
+
+		final Map<String, List<String>> experiments = interaction.getExperimentToPubmed();
+		writeVarInt(experiments.size());
+		for (final Map.Entry<String, List<String>> entry : experiments.entrySet()) {
+			writeText(entry.getKey());
+			writeVarInt(entry.getValue().size());
+			for (final String pubmedId : entry.getValue())
+				writeText(pubmedId);
+		}
+
+		writeRefs(interaction.getPublicationIds(), false);
+
+		final List<Confidence> confidences = interaction.getConfidenceValues();
+		writeVarInt(confidences.size());
+		for (final Confidence confidence : confidences) {
+			writeTerm(confidence.getType());
+			writeTerm(confidence.getValue());
+		}
+		count++;
+	}
+
+	/**
+	 * @return Number of records written so far.
+	 */
+	long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return Number of terms in the dictionary.
+	 */
+	int getTermCount() {
+		return terms.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			out.writeByte(END);
+		} finally {
+			out.close();
+		}
+	}
+
+	private void writeAccs(final Map<String, String> accs) throws IOException {
+		writeVarInt(accs.size());
+		for (final Map.Entry<String, String> acc : accs.entrySet()) {
+			writeTerm(acc.getKey());
+			writeText(acc.getValue());
+		}
+	}
+
+	private void writeOtherAccs(final Map<String, List<String>> accs) throws IOException {
+		writeVarInt(accs.size());
+		for (final Map.Entry<String, List<String>> acc : accs.entrySet()) {
+			writeTerm(acc.getKey());
+			writeVarInt(acc.getValue().size());
+			for (final String id : acc.getValue())
+				writeText(id);
+		}
+	}
+
+	/**
+	 * @param termIds
+	 *            true if the IDs repeat too, e.g. taxonomy IDs.
+	 */
+	private void writeRefs(final Collection<CrossReference> refs, final boolean termIds) throws IOException {
+		writeVarInt(refs.size());
+		for (final CrossReference ref : refs) {
+			writeTerm(ref.getDatabase());
+			if (termIds)
+				writeTerm(ref.getIdentifier());
+			else
+				writeText(ref.getIdentifier());
+			writeTerm(ref.getText());
+		}
+	}
+
+	private void writeTerm(final String term) throws IOException {
+		if (term == null) {
+			writeVarInt(NULL);
+			return;
+		}
+
+		final Integer index = terms.get(term);
+		if (index != null) {
+			writeVarInt(FIRST_TERM + index);
+		} else if (terms.size() < MAX_TERMS) {
+			terms.put(term, terms.size());
+			writeVarInt(NEW_TERM);
+			writeBytes(term);
+		} else {
+			writeVarInt(LITERAL);
+			writeBytes(term);
+		}
+	}
+
+	/**
+	 * Length + 1, or 0 for null, followed by the UTF-8 bytes.
+	 */
+	private void writeText(final String text) throws IOException {
+		if (text == null) {
+			writeVarInt(0);
+			return;
+		}
+		final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length + 1);
+		out.write(bytes);
+	}
+
+	private void writeBytes(final String text) throws IOException {
+		final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * 7 bits per byte, lowest first. The high bit is set on all but the last
+	 * byte.
+	 */
+	private void writeVarInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+}
@@ -0,0 +1,235 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import psidev.psi.mi.tab.model.BinaryInteraction;
+
+/**
+ * {@link InteractionMerger} with a memory budget. Once the merged
+ * interactions would take more than the budget, they are written to a run
+ * file sorted by their pair and merging starts over. The runs are merged
+ * again by {@link MergedRuns} while the network is built.
+ * 
+ * All runs share the IDs seen for each interactor, so that an interactor is
+ * mapped to the same ID in every run. Since IDs seen later may change the
+ * pair of an interaction written earlier, the runs are merged once more
+ * under the final pairs when merging finishes. The IDs themselves are kept
+ * in memory, but there are far fewer interactors than interactions.
+ * 
+ * If a run cannot be written, it is kept in memory and spilling is turned
+ * off for the rest of the merge.
+ */
+public final class SpillingMerger {
+
+	private static final Logger logger = LoggerFactory.getLogger(SpillingMerger.class);
+
+	// Rough size of one merged interaction with its IDs and evidence.
+	static final long EST_BYTES_PER_INTERACTION = 2048;
+
+	private static final String RUN_PREFIX = "psicquic-merge-";
+	private static final String RUN_SUFFIX = ".run";
+
+	private final InteractorPairs pairs;
+	private final InteractorIds ids;
+	private final int maxInMemory;
+	private final File directory;
+
+	// Adding takes the read lock, so that merging stays parallel. Spilling takes the write lock.
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private InteractionMerger current;
+	private final List<File> runs = new ArrayList<File>();
+	private final List<List<MergedInteraction>> keptRuns = new ArrayList<List<MergedInteraction>>();
+	private long spilled = 0;
+	private volatile boolean spillFailed = false;
+	private boolean finished = false;
+
+	/**
+	 * @param memoryBudget
+	 *            Bytes of merged interactions kept in memory at most.
+	 */
+	public SpillingMerger(final String mappingIdDbNames, final long memoryBudget) {
+		this(mappingIdDbNames, (int) Math.min(Integer.MAX_VALUE, memoryBudget / EST_BYTES_PER_INTERACTION), null);
+	}
+
+	/**
+	 * @param directory
+	 *            Where run files are written, or null for the default
+	 *            temporary directory.
+	 */
+	SpillingMerger(final String mappingIdDbNames, final int maxInMemory, final File directory) {
+		this.pairs = new InteractorPairs(mappingIdDbNames);
+		this.ids = new InteractorIds(pairs);
+		this.maxInMemory = Math.max(1, maxInMemory);
+		this.directory = directory;
+		this.current = createMerger();
+	}
+
+	private InteractionMerger createMerger() {
+		return new InteractionMerger(pairs, ids, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Can be called from several threads.
+	 * 
+	 * @return false if the interaction has been ignored because
+	 *         {@link #finish()} has already been called.
+	 */
+	public boolean add(final BinaryInteraction<?> interaction) {
+		final InteractionMerger merger;
+		lock.readLock().lock();
+		try {
+			if (finished)
+				return false;
+			merger = current;
+			merger.add(interaction);
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		if (!spillFailed && merger.size() >= maxInMemory)
+			spill(merger);
+		return true;
+	}
+
+	private void spill(final InteractionMerger full) {
+		lock.writeLock().lock();
+		try {
+			// Another thread may have spilled it already.
+			if (finished || current != full)
+				return;
+			writeRun();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Write the current merger to a run file and start a new one. Called with
+	 * the write lock held.
+	 */
+	private void writeRun() {
+		final List<MergedInteraction> sorted = current.getSortedInteractions();
+		current = createMerger();
+
+		File file = null;
+		try {
+			file = File.createTempFile(RUN_PREFIX, RUN_SUFFIX, directory);
+			file.deleteOnExit();
+			RecordWriter.write(file, sorted);
+			runs.add(file);
+			spilled += sorted.size();
+			logger.info("Merged interactions written to disk: " + sorted.size() + " (" + runs.size() + " runs)");
+		} catch (IOException e) {
+			logger.error("Could not write merge run. Merging in memory from now on.", e);
+			if (file != null)
+				file.delete();
+			keptRuns.add(sorted);
+			spillFailed = true;
+		}
+	}
+
+	/**
+	 * Stop merging. Later calls to {@link #add(BinaryInteraction)} are
+	 * ignored.
+	 * 
+	 * @return The merged interactions. Must be closed once they have been
+	 *         read.
+	 */
+	public MergedRuns finish() {
+		lock.writeLock().lock();
+		try {
+			finished = true;
+			if (runs.isEmpty() && keptRuns.isEmpty())
+				return MergedRuns.of(current.getInteractions());
+
+			mergeAgain();
+			final List<MergedInteraction> last = current.getSortedInteractions();
+			final List<List<MergedInteraction>> lists = new ArrayList<List<MergedInteraction>>(keptRuns);
+			lists.add(last);
+
+			long size = spilled + last.size();
+			for (final List<MergedInteraction> kept : keptRuns)
+				size += kept.size();
+			return new MergedRuns(new ArrayList<File>(runs), lists, size);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Merge all runs again under the final pairs of their interactions,
+	 * within the same memory budget. The IDs do not change anymore, so the
+	 * new runs stay sorted by the pairs they are read with.
+	 */
+	private void mergeAgain() {
+		final List<List<MergedInteraction>> oldLists = new ArrayList<List<MergedInteraction>>(keptRuns);
+		oldLists.add(current.getInteractions());
+		final List<File> oldRuns = new ArrayList<File>(runs);
+		keptRuns.clear();
+		runs.clear();
+		spilled = 0;
+		current = createMerger();
+
+		try {
+			// Those in memory first, so that they can be dropped before the files are read.
+			while (!oldLists.isEmpty()) {
+				for (final MergedInteraction interaction : oldLists.remove(oldLists.size() - 1))
+					addAgain(interaction);
+			}
+			for (final File file : oldRuns) {
+				try (final RecordReader reader = new RecordReader(file)) {
+					MergedInteraction interaction;
+					while ((interaction = reader.read()) != null)
+						addAgain(interaction);
+				}
+				file.delete();
+			}
+		} catch (IOException e) {
+			for (final File file : oldRuns)
+				file.delete();
+			for (final File file : runs)
+				file.delete();
+			throw new UncheckedIOException("Could not read merge run.", e);
+		}
+	}
+
+	private void addAgain(final MergedInteraction interaction) {
+		current.add(interaction);
+		if (!spillFailed && current.size() >= maxInMemory)
+			writeRun();
+	}
+}
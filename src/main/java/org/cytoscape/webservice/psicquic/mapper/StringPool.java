@@ -0,0 +1,74 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Canonical instances of strings which repeat on many MITAB lines, such as
+ * CV terms, taxonomy IDs and names, and dates, so that the table cells of
+ * one import share them.
+ * 
+ * One pool is meant for one import and can be used by the parse threads at
+ * the same time. Once it is full, new values are returned as they are.
+ */
+final class StringPool {
+
+	static final int DEF_MAX_SIZE = 1 << 16;
+
+	private final int maxSize;
+	private final ConcurrentMap<String, String> pool = new ConcurrentHashMap<String, String>();
+
+	StringPool() {
+		this(DEF_MAX_SIZE);
+	}
+
+	StringPool(final int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return The pooled string equal to the value, or the value itself. Null
+	 *         for null.
+	 */
+	String get(final String value) {
+		if (value == null)
+			return null;
+
+		final String pooled = pool.get(value);
+		if (pooled != null)
+			return pooled;
+		if (pool.size() >= maxSize)
+			return value;
+
+		final String previous = pool.putIfAbsent(value, value);
+		return previous == null ? value : previous;
+	}
+
+	int size() {
+		return pool.size();
+	}
+}
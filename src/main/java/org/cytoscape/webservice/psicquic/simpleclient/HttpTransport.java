@@ -0,0 +1,198 @@
+package org.cytoscape.webservice.psicquic.simpleclient;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.Authenticator;
+import java.net.PasswordAuthentication;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * HTTP transport shared by all calls to the registry and PSICQUIC services.
+ *
+ * One {@link HttpClient} is used for the whole session, so connections to a
+ * service are kept alive and reused between count, page and import requests,
+ * and HTTP/2 is used for https if the server supports it. Responses are
+ * requested with gzip or deflate encoding and decoded here, which callers
+ * never see. Proxy credentials come from the default {@link Authenticator}.
+ *
+ * PSICQUIC queries can optionally be served from a {@link ResponseCache}.
+ */
+public final class HttpTransport {
+
+	public static final long DEF_CONNECT_TIMEOUT_MSEC = 10000;
+
+	// Time until the response headers arrive. Reading the body is not limited.
+	public static final long DEF_REQUEST_TIMEOUT_MSEC = 120000;
+
+	private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+	private final HttpClient client;
+	private final Duration requestTimeout;
+	private final ResponseCache cache;
+
+	public HttpTransport() {
+		this(DEF_CONNECT_TIMEOUT_MSEC, DEF_REQUEST_TIMEOUT_MSEC, null);
+	}
+
+	/**
+	 * @param cache
+	 *            Cache used by {@link #getCached(String)}, or null.
+	 */
+	public HttpTransport(final long connectTimeoutMsec, final long requestTimeoutMsec, final ResponseCache cache) {
+		// HTTP/2 is only asked for over TLS. Over plain http it would send an
+		// h2c upgrade request to every service.
+		this.client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.connectTimeout(Duration.ofMillis(connectTimeoutMsec))
+				.authenticator(new DefaultAuthenticator())
+				.build();
+		this.requestTimeout = Duration.ofMillis(requestTimeoutMsec);
+		this.cache = cache;
+	}
+
+	/**
+	 * @return the response cache, or null if caching is disabled.
+	 */
+	public ResponseCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Same as {@link #get(String)}, but uses the response cache if there is one.
+	 * Only for requests whose result depends on the URL alone.
+	 */
+	public InputStream getCached(final String url) throws IOException {
+		if (cache == null)
+			return get(url);
+		return cache.open(url, () -> get(url));
+	}
+
+	/**
+	 * Same as {@link #getCached(String)}, but a missing entry is loaded by the
+	 * given loader instead of a single request, e.g. in pages. The result is
+	 * still cached as one entry under the URL.
+	 */
+	public InputStream getCached(final String url, final ResponseCache.Loader loader) throws IOException {
+		if (cache == null)
+			return loader.load();
+		return cache.open(url, loader);
+	}
+
+	public InputStream get(final String url) throws IOException {
+		return get(url, null);
+	}
+
+	/**
+	 * Send a GET request and return the decoded body.
+	 *
+	 * @param accept
+	 *            Value of the Accept header, or null.
+	 * @throws HttpStatusException
+	 *             If the status code is not 2xx.
+	 */
+	public InputStream get(final String url, final String accept) throws IOException {
+		final HttpRequest.Builder request;
+		try {
+			request = HttpRequest.newBuilder(URI.create(url))
+					.timeout(requestTimeout)
+					.header("Accept-Encoding", ACCEPT_ENCODING)
+					.GET();
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid URL: " + url, e);
+		}
+		if (accept != null)
+			request.header("Accept", accept);
+		if (url.regionMatches(true, 0, "https:", 0, 6))
+			request.version(HttpClient.Version.HTTP_2);
+
+		final HttpResponse<InputStream> response;
+		try {
+			response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted: " + url);
+		}
+
+		final int status = response.statusCode();
+		if (status < 200 || status >= 300) {
+			response.body().close();
+			throw new HttpStatusException(status, url);
+		}
+
+		return decode(response);
+	}
+
+	public String getString(final String url) throws IOException {
+		try (final InputStream is = get(url)) {
+			return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static InputStream decode(final HttpResponse<InputStream> response) throws IOException {
+		final String encoding = response.headers().firstValue("Content-Encoding").orElse("").trim();
+		final InputStream body = response.body();
+
+		try {
+			if (encoding.equalsIgnoreCase("gzip") || encoding.equalsIgnoreCase("x-gzip"))
+				return new GZIPInputStream(body);
+			else if (encoding.equalsIgnoreCase("deflate"))
+				return new InflaterInputStream(body);
+		} catch (IOException e) {
+			body.close();
+			throw e;
+		}
+		return body;
+	}
+
+	/**
+	 * Asks the default {@link Authenticator} at the time of the request, e.g.
+	 * the one installed by the proxy settings of Cytoscape. It may be set or
+	 * replaced after this transport has been created.
+	 */
+	private static final class DefaultAuthenticator extends Authenticator {
+
+		@Override
+		protected PasswordAuthentication getPasswordAuthentication() {
+			final Authenticator authenticator = Authenticator.getDefault();
+			if (authenticator == null || authenticator instanceof DefaultAuthenticator)
+				return null;
+
+			return authenticator.requestPasswordAuthenticationInstance(getRequestingHost(), getRequestingSite(),
+					getRequestingPort(), getRequestingProtocol(), getRequestingPrompt(), getRequestingScheme(),
+					getRequestingURL(), getRequestorType());
+		}
+	}
+}
@@ -21,9 +21,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.net.URLEncoder;
+import java.util.concurrent.Executor;
 
 /**
  * Simple rest client created by IntAct team.
@@ -39,10 +38,29 @@ public final class PSICQUICSimpleClient {
 	public static final String MITAB25_COMPRESSED = "tab25-bin";
 	public static final String COUNT = "count";
 
+	/** Default number of records requested per page by the paged methods. */
+	public static final int DEFAULT_PAGE_SIZE = 5000;
+
+	/** Default number of pages of one result downloaded at the same time. */
+	public static final int DEFAULT_PARALLEL_PAGES = 4;
+
+	/** Result size for the paged methods which is not known yet. */
+	public static final long UNKNOWN_COUNT = -1;
+
 	private String serviceRestUrl;
+	private final HttpTransport transport;
 
+	/**
+	 * Creates a client with its own connection pool. Use
+	 * {@link #PSICQUICSimpleClient(String, HttpTransport)} to share connections.
+	 */
 	public PSICQUICSimpleClient(String serviceRestUrl) {
+		this(serviceRestUrl, new HttpTransport());
+	}
+
+	public PSICQUICSimpleClient(String serviceRestUrl, HttpTransport transport) {
 		this.serviceRestUrl = serviceRestUrl;
+		this.transport = transport;
 	}
 
 	public InputStream getByQuery(String query) throws IOException {
@@ -82,6 +100,47 @@ public final class PSICQUICSimpleClient {
 		return getBy("interaction", query, format, firstResult, maxResults);
 	}
 
+	/**
+	 * Retrieve the full result of a query in pages of <code>pageSize</code>
+	 * records, downloading up to <code>parallelPages</code> pages at once on the
+	 * given executor. The returned stream delivers the pages in order, so it can
+	 * be read exactly like the result of {@link #getByQuery(String, String)}.
+	 */
+	public InputStream getByQueryInPages(String query, String format, int pageSize, int parallelPages,
+			Executor executor) throws IOException {
+		return getByQueryInPages(query, format, UNKNOWN_COUNT, pageSize, parallelPages, executor);
+	}
+
+	public InputStream getByInteractorInPages(String query, String format, int pageSize, int parallelPages,
+			Executor executor) throws IOException {
+		return getByInteractorInPages(query, format, UNKNOWN_COUNT, pageSize, parallelPages, executor);
+	}
+
+	public InputStream getByInteractionInPages(String query, String format, int pageSize, int parallelPages,
+			Executor executor) throws IOException {
+		return getByInteractionInPages(query, format, UNKNOWN_COUNT, pageSize, parallelPages, executor);
+	}
+
+	/**
+	 * @param count
+	 *            Number of records in the result if already known, e.g. from
+	 *            the search, or {@link #UNKNOWN_COUNT} to ask the service.
+	 */
+	public InputStream getByQueryInPages(String query, String format, long count, int pageSize, int parallelPages,
+			Executor executor) throws IOException {
+		return getInPages("query", query, format, count, pageSize, parallelPages, executor);
+	}
+
+	public InputStream getByInteractorInPages(String query, String format, long count, int pageSize,
+			int parallelPages, Executor executor) throws IOException {
+		return getInPages("interactor", query, format, count, pageSize, parallelPages, executor);
+	}
+
+	public InputStream getByInteractionInPages(String query, String format, long count, int pageSize,
+			int parallelPages, Executor executor) throws IOException {
+		return getInPages("interaction", query, format, count, pageSize, parallelPages, executor);
+	}
+
 	public long countByQuery(String query) throws IOException {
 		return countBy("query", query);
 	}
@@ -96,16 +155,49 @@ public final class PSICQUICSimpleClient {
 
 	private InputStream getBy(String queryType, String query, String format, int firstResult, int maxResults)
 			throws IOException {
-		final String encodedQuery = encodeQuery(query);
+		return transport.getCached(createUrl(queryType, encodeQuery(query), format, firstResult, maxResults));
+	}
 
-		URL url = createUrl(queryType, encodedQuery, format, firstResult, maxResults);
+	/**
+	 * The pages are not cached one by one. The whole result is cached as one
+	 * entry under the URL of the unpaged request, so a later import never
+	 * mixes pages of different ages, which may overlap or leave gaps once the
+	 * service has reindexed.
+	 */
+	private InputStream getInPages(final String queryType, final String query, final String format,
+			final long knownCount, final int pageSize, final int parallelPages, final Executor executor)
+			throws IOException {
+		if (pageSize <= 0)
+			throw new IllegalArgumentException("Page size must be positive: " + pageSize);
 
-		return url.openStream();
+		final String encodedQuery = encodeQuery(query);
+		final String url = createUrl(queryType, encodedQuery, format, 0, Integer.MAX_VALUE);
+		return transport.getCached(url, () -> {
+			// Not from the cache: the result is downloaded again, so its count may have changed too.
+			final long count = knownCount < 0
+					? countBy(transport.get(createUrl(queryType, encodedQuery, COUNT, 0, 0)))
+					: knownCount;
+
+			// Small enough for one request.
+			if (count <= pageSize)
+				return transport.get(url);
+
+			// Pages beyond the count are fetched as long as the previous one is full.
+			final int pageCount = (int) Math.min(Integer.MAX_VALUE, (count + pageSize - 1) / pageSize);
+			return new PagedInputStream(executor, pageCount, pageSize, parallelPages, page -> {
+				final long firstResult = (long) page * pageSize;
+				if (firstResult > Integer.MAX_VALUE)
+					throw new IOException("Result too large to download in pages: " + url);
+				return transport.get(createUrl(queryType, encodedQuery, format, (int) firstResult, pageSize));
+			});
+		});
 	}
 
 	private long countBy(String queryType, String query) throws IOException {
-		InputStream result = getBy(queryType, query, COUNT, 0, 0);
+		return countBy(getBy(queryType, query, COUNT, 0, 0));
+	}
 
+	private long countBy(InputStream result) throws IOException {
 		String strCount = streamToString(result);
 		strCount = strCount.replaceAll("\n", "");
 
@@ -126,18 +218,10 @@ public final class PSICQUICSimpleClient {
 		return encodedQuery;
 	}
 
-	private URL createUrl(String queryType, String encodedQuery, String format, int firstResult, int maxResults) {
+	private String createUrl(String queryType, String encodedQuery, String format, int firstResult, int maxResults) {
 		String strUrl = serviceRestUrl + "/" + queryType + "/" + encodedQuery + "?format=" + format + "&firstResult="
 				+ firstResult + "&maxResults=" + maxResults;
-		strUrl = strUrl.replaceAll("//" + queryType, "/" + queryType);
-
-		URL url;
-		try {
-			url = new URL(strUrl);
-		} catch (MalformedURLException e) {
-			throw new IllegalArgumentException("Problem creating URL: " + strUrl, e);
-		}
-		return url;
+		return strUrl.replaceAll("//" + queryType, "/" + queryType);
 	}
 
 	private String streamToString(InputStream is) throws IOException {
@@ -0,0 +1,185 @@
+package org.cytoscape.webservice.psicquic.simpleclient;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Concatenates the pages of a paged PSICQUIC result in order.
+ *
+ * At most <code>parallelPages</code> pages are downloaded ahead of the reader,
+ * which also bounds the memory used by one result. If a page has not been
+ * picked up by the executor yet when the reader needs it, the reader fetches
+ * it in its own thread, so this never waits on a saturated pool.
+ *
+ * The number of pages comes from a count which may be out of date. If the
+ * last expected page is full, the next one is fetched too, and so on until a
+ * page is not full, so records added since the count are not cut off.
+ */
+final class PagedInputStream extends InputStream {
+
+	interface PageFetcher {
+		InputStream open(int page) throws IOException;
+	}
+
+	private final Executor executor;
+	private final PageFetcher fetcher;
+	private final int pageSize;
+	private final int parallelPages;
+	private int pageCount;
+
+	private final Deque<FutureTask<byte[]>> pending = new ArrayDeque<FutureTask<byte[]>>();
+
+	private int nextPageToSubmit = 0;
+	private int nextPageToRead = 0;
+	private InputStream current;
+	private boolean closed = false;
+
+	PagedInputStream(final Executor executor, final int pageCount, final int parallelPages,
+			final PageFetcher fetcher) {
+		this(executor, pageCount, 0, parallelPages, fetcher);
+	}
+
+	/**
+	 * @param pageSize
+	 *            Records (lines) per page, or 0 to never fetch more than
+	 *            <code>pageCount</code> pages.
+	 */
+	PagedInputStream(final Executor executor, final int pageCount, final int pageSize, final int parallelPages,
+			final PageFetcher fetcher) {
+		this.executor = executor;
+		this.fetcher = fetcher;
+		this.pageCount = pageCount;
+		this.pageSize = pageSize;
+		this.parallelPages = Math.max(1, parallelPages);
+		fillWindow();
+	}
+
+	private void fillWindow() {
+		while (pending.size() < parallelPages && nextPageToSubmit < pageCount) {
+			final int page = nextPageToSubmit++;
+			final FutureTask<byte[]> task = new FutureTask<byte[]>(() -> readPage(page));
+			pending.addLast(task);
+			executor.execute(task);
+		}
+	}
+
+	private byte[] readPage(final int page) throws IOException {
+		try (final InputStream is = fetcher.open(page)) {
+			final byte[] bytes = is.readAllBytes();
+
+			// Make sure the last line of this page is not glued to the first line of the next one.
+			if (bytes.length != 0 && bytes[bytes.length - 1] != '\n') {
+				final byte[] terminated = new byte[bytes.length + 1];
+				System.arraycopy(bytes, 0, terminated, 0, bytes.length);
+				terminated[bytes.length] = '\n';
+				return terminated;
+			}
+			return bytes;
+		}
+	}
+
+	/**
+	 * @return false if there are no more pages.
+	 */
+	private boolean nextPage() throws IOException {
+		final FutureTask<byte[]> task = pending.pollFirst();
+		if (task == null)
+			return false;
+
+		// No-op if a worker has already started it.
+		task.run();
+		final byte[] bytes;
+		try {
+			bytes = task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for page.");
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			throw new IOException("Could not fetch page.", cause);
+		}
+		current = new ByteArrayInputStream(bytes);
+
+		final int page = nextPageToRead++;
+		if (pageSize > 0 && page == pageCount - 1 && countLines(bytes) >= pageSize)
+			pageCount++;
+		fillWindow();
+		return true;
+	}
+
+	private static int countLines(final byte[] bytes) {
+		int lines = 0;
+		for (final byte b : bytes) {
+			if (b == '\n')
+				lines++;
+		}
+		return lines;
+	}
+
+	@Override
+	public int read() throws IOException {
+		final byte[] one = new byte[1];
+		final int n = read(one, 0, 1);
+		return n == -1 ? -1 : (one[0] & 0xff);
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		if (closed)
+			throw new IOException("Stream closed.");
+		if (len == 0)
+			return 0;
+
+		while (true) {
+			if (current != null) {
+				final int n = current.read(b, off, len);
+				if (n != -1)
+					return n;
+			}
+			if (!nextPage())
+				return -1;
+		}
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		current = null;
+		for (final FutureTask<byte[]> task : pending)
+			task.cancel(true);
+		pending.clear();
+	}
+}
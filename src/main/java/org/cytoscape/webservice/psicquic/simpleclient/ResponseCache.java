@@ -0,0 +1,376 @@
+package org.cytoscape.webservice.psicquic.simpleclient;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local disk cache for PSICQUIC responses (MITAB results and counts).
+ *
+ * Entries are addressed by the SHA-256 of the normalized request URL, which
+ * contains the service, query type, query, format and range. A result which
+ * is downloaded in pages is stored as one entry under the URL of the whole
+ * result (see {@link PSICQUICSimpleClient}). Bodies are stored
+ * gzipped. A response is written while the caller reads it and is only added
+ * to the cache once it has been read to the end, so a cancelled or failed
+ * download never leaves a truncated entry.
+ *
+ * Entries older than the TTL are downloaded again. When the cache grows over
+ * its size limit, the least recently used entries are deleted. In offline
+ * mode every request is answered from the cache regardless of age, and a
+ * missing entry is an error.
+ */
+public final class ResponseCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+	public static final long DEF_TTL_MSEC = 24 * 60 * 60 * 1000L;
+	public static final long DEF_MAX_BYTES = 512L * 1024 * 1024;
+
+	private static final String SUFFIX = ".cache";
+	private static final String TEMP_SUFFIX = ".tmp";
+	private static final int MAGIC = 0x50534331; // "PSC1"
+
+	public interface Loader {
+		InputStream load() throws IOException;
+	}
+
+	private final File dir;
+	private final long ttlMsec;
+	private final long maxBytes;
+
+	private volatile boolean offline;
+
+	// Size of all entries. Kept up to date on each change, so that the
+	// directory is only listed when the cache is over its limit.
+	private long totalBytes;
+
+	public ResponseCache(final File dir, final long ttlMsec, final long maxBytes, final boolean offline) {
+		this.dir = dir;
+		this.ttlMsec = ttlMsec;
+		this.maxBytes = maxBytes;
+		this.offline = offline;
+
+		if (!dir.isDirectory() && !dir.mkdirs())
+			logger.warn("Could not create PSICQUIC cache directory: " + dir);
+
+		// Leftovers from downloads interrupted by a shutdown.
+		for (final File tmp : listFiles(TEMP_SUFFIX))
+			tmp.delete();
+
+		for (final File file : listFiles(SUFFIX))
+			totalBytes += file.length();
+	}
+
+	public boolean isOffline() {
+		return offline;
+	}
+
+	public void setOffline(final boolean offline) {
+		this.offline = offline;
+	}
+
+	/**
+	 * Returns the cached response for the URL, or the one from the loader if
+	 * there is no fresh entry.
+	 */
+	public InputStream open(final String url, final Loader loader) throws IOException {
+		final String normalized = normalize(url);
+		final File file = new File(dir, key(normalized) + SUFFIX);
+
+		final InputStream cached = openEntry(file, normalized);
+		if (cached != null)
+			return cached;
+
+		if (offline)
+			throw new IOException("Offline mode: no cached response for " + url);
+
+		final InputStream source = loader.load();
+		try {
+			return new CachingInputStream(source, file, normalized);
+		} catch (IOException e) {
+			logger.warn("Could not write PSICQUIC cache entry.", e);
+			return source;
+		}
+	}
+
+	/**
+	 * Delete all entries.
+	 */
+	public synchronized void clear() {
+		for (final File file : listFiles(SUFFIX))
+			file.delete();
+		totalBytes = 0;
+	}
+
+	/**
+	 * @return null if there is no usable entry.
+	 */
+	private InputStream openEntry(final File file, final String url) {
+		if (!file.isFile())
+			return null;
+
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a cache entry.");
+			final long created = in.readLong();
+			if (!url.equals(in.readUTF())) {
+				in.close();
+				return null;
+			}
+			if (!offline && System.currentTimeMillis() - created > ttlMsec) {
+				in.close();
+				delete(file);
+				return null;
+			}
+
+			// Used for LRU eviction.
+			file.setLastModified(System.currentTimeMillis());
+			return new GZIPInputStream(in);
+		} catch (IOException e) {
+			logger.warn("Removing unreadable PSICQUIC cache entry: " + file.getName());
+			closeQuietly(in);
+			delete(file);
+			return null;
+		}
+	}
+
+	private synchronized void commit(final File tmp, final File file) throws IOException {
+		final long size = tmp.length();
+		final long replaced = file.length();
+		try {
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		totalBytes += size - replaced;
+		if (totalBytes > maxBytes)
+			evict();
+	}
+
+	private synchronized void delete(final File file) {
+		final long size = file.length();
+		if (file.delete())
+			totalBytes -= size;
+	}
+
+	/**
+	 * Delete least recently used entries until the cache fits its size limit.
+	 * The total is counted again here, in case the directory was changed by
+	 * someone else.
+	 */
+	private void evict() {
+		final File[] files = listFiles(SUFFIX);
+		long total = 0;
+		for (final File file : files)
+			total += file.length();
+
+		if (total > maxBytes) {
+			Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+			for (final File file : files) {
+				if (total <= maxBytes)
+					break;
+				final long size = file.length();
+				if (file.delete())
+					total -= size;
+			}
+		}
+		totalBytes = total;
+	}
+
+	private File[] listFiles(final String suffix) {
+		final File[] files = dir.listFiles((d, name) -> name.endsWith(suffix));
+		return files == null ? new File[0] : files;
+	}
+
+	/**
+	 * Lower-cases scheme and host, which are case-insensitive. The rest of the
+	 * URL is built by {@link PSICQUICSimpleClient} and already canonical.
+	 */
+	static String normalize(final String url) {
+		final String trimmed = url.trim();
+		final int schemeEnd = trimmed.indexOf("://");
+		if (schemeEnd < 0)
+			return trimmed;
+
+		int hostEnd = trimmed.indexOf('/', schemeEnd + 3);
+		if (hostEnd < 0)
+			hostEnd = trimmed.length();
+		return trimmed.substring(0, hostEnd).toLowerCase() + trimmed.substring(hostEnd);
+	}
+
+	static String key(final String normalizedUrl) {
+		try {
+			final byte[] digest = MessageDigest.getInstance("SHA-256")
+					.digest(normalizedUrl.getBytes(StandardCharsets.UTF_8));
+			final StringBuilder sb = new StringBuilder(digest.length * 2);
+			for (final byte b : digest)
+				sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 should be supported", e);
+		}
+	}
+
+	private static void closeQuietly(final InputStream is) {
+		if (is == null)
+			return;
+		try {
+			is.close();
+		} catch (IOException e) {
+			// Ignore
+		}
+	}
+
+	/**
+	 * Copies everything read from the source into a temporary entry, which
+	 * replaces the real one when the end of the source is reached.
+	 */
+	private final class CachingInputStream extends FilterInputStream {
+
+		private final File file;
+		private final File tmp;
+		private DataOutputStream out;
+
+		private CachingInputStream(final InputStream source, final File file, final String url) throws IOException {
+			super(source);
+			this.file = file;
+			this.tmp = File.createTempFile(file.getName(), TEMP_SUFFIX, dir);
+
+			try {
+				out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+				out.writeInt(MAGIC);
+				out.writeLong(System.currentTimeMillis());
+				out.writeUTF(url);
+				out.flush();
+				out = new DataOutputStream(new GZIPOutputStream(out));
+			} catch (IOException e) {
+				abandon();
+				throw e;
+			}
+		}
+
+		@Override
+		public int read() throws IOException {
+			final int b = super.read();
+			if (b == -1)
+				finish();
+			else if (out != null)
+				write(new byte[] { (byte) b }, 0, 1);
+			return b;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			final int n = super.read(b, off, len);
+			if (n == -1)
+				finish();
+			else if (n > 0 && out != null)
+				write(b, off, n);
+			return n;
+		}
+
+		@Override
+		public long skip(final long n) throws IOException {
+			// Skipped bytes would be missing from the entry.
+			abandon();
+			return super.skip(n);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			} finally {
+				// Not read to the end.
+				abandon();
+			}
+		}
+
+		private void write(final byte[] b, final int off, final int len) {
+			try {
+				out.write(b, off, len);
+			} catch (IOException e) {
+				logger.warn("Could not write PSICQUIC cache entry.", e);
+				abandon();
+			}
+		}
+
+		private void finish() {
+			if (out == null)
+				return;
+			try {
+				out.close();
+				out = null;
+				commit(tmp, file);
+			} catch (IOException e) {
+				logger.warn("Could not write PSICQUIC cache entry.", e);
+				abandon();
+			}
+		}
+
+		private void abandon() {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					// Ignore
+				}
+				out = null;
+			}
+			tmp.delete();
+		}
+	}
+}
@@ -17,17 +17,17 @@ import org.cytoscape.view.model.CyNetworkView;
 import org.cytoscape.view.model.View;
 import org.cytoscape.view.vizmap.VisualMappingManager;
 import org.cytoscape.view.vizmap.VisualStyle;
+import org.cytoscape.webservice.psicquic.CancellationToken;
 import org.cytoscape.webservice.psicquic.PSICQUICRestClient;
 import org.cytoscape.webservice.psicquic.PSICQUICRestClient.SearchMode;
 import org.cytoscape.webservice.psicquic.mapper.CyNetworkBuilder;
+import org.cytoscape.webservice.psicquic.mapper.MergedInteraction;
 import org.cytoscape.work.AbstractTask;
 import org.cytoscape.work.TaskIterator;
 import org.cytoscape.work.TaskMonitor;
 import org.cytoscape.work.Tunable;
 import org.cytoscape.work.util.ListMultipleSelection;
 
-import uk.ac.ebi.enfin.mi.cluster.InteractionCluster;
-
 /*
  * #%L
  * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
@@ -56,6 +56,9 @@ public class ExpandFromSelectedSourcesTask extends AbstractTask {
 
 	@Tunable(description="Select Data Source:")
 	public ListMultipleSelection<String> services;
+
+	@Tunable(description="Add Interactions between Existing Nodes:")
+	public boolean inducedEdges = false;
 	
 	private static final String DEFAULT_LAYOUT = "force-directed";
 	
@@ -68,6 +71,7 @@ public class ExpandFromSelectedSourcesTask extends AbstractTask {
 	private final View<CyNode> nodeView;
 
 	private volatile boolean canceled = false;
+	private final CancellationToken token = new CancellationToken();
 	
 	private final Map<String, String> sourceMap;
 
@@ -108,15 +112,15 @@ public class ExpandFromSelectedSourcesTask extends AbstractTask {
 			targetServices.add(sourceMap.get(targetURL));
 		
 		// Switch task type based on the user option.
-		InteractionCluster ic = client.importNeighbours(query, targetServices, SearchMode.INTERACTOR, taskMonitor);
+		List<MergedInteraction> interactions = client.importNeighbours(query, targetServices, SearchMode.INTERACTOR, taskMonitor, token);
 
 		if (canceled) {
-			ic = null;
+			interactions = null;
 			return;
 		}
 
 		taskMonitor.setProgress(0.8d);
-		expand(ic);
+		expand(interactions);
 		
 		final CyLayoutAlgorithmManager layoutManager = serviceRegistrar.getService(CyLayoutAlgorithmManager.class);
 		final CyLayoutAlgorithm layout = layoutManager.getLayout(DEFAULT_LAYOUT);
@@ -137,8 +141,8 @@ public class ExpandFromSelectedSourcesTask extends AbstractTask {
 		taskMonitor.setProgress(1.0d);
 	}
 
-	private void expand(final InteractionCluster iC) {
-		builder.addToNetwork(iC, netView, nodeView);
+	private void expand(final List<MergedInteraction> interactions) {
+		builder.addToNetwork(interactions, netView, nodeView, inducedEdges, token);
 
 		// Apply visual style
 		final VisualStyle vs = serviceRegistrar.getService(VisualMappingManager.class).getVisualStyle(netView);
@@ -149,6 +153,6 @@ public class ExpandFromSelectedSourcesTask extends AbstractTask {
 	@Override
 	public void cancel() {
 		this.canceled = true;
-		client.cancel();
+		token.cancel();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,244 @@
+package org.cytoscape.webservice.psicquic.task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.service.util.CyServiceRegistrar;
+import org.cytoscape.view.layout.CyLayoutAlgorithm;
+import org.cytoscape.view.layout.CyLayoutAlgorithmManager;
+import org.cytoscape.view.model.CyNetworkView;
+import org.cytoscape.view.model.View;
+import org.cytoscape.view.vizmap.VisualMappingManager;
+import org.cytoscape.view.vizmap.VisualStyle;
+import org.cytoscape.webservice.psicquic.CancellationToken;
+import org.cytoscape.webservice.psicquic.PSICQUICRestClient;
+import org.cytoscape.webservice.psicquic.PSICQUICRestClient.SearchMode;
+import org.cytoscape.webservice.psicquic.QueryBuilder;
+import org.cytoscape.webservice.psicquic.RegistryManager;
+import org.cytoscape.webservice.psicquic.mapper.CyNetworkBuilder;
+import org.cytoscape.webservice.psicquic.mapper.ExpansionBudget;
+import org.cytoscape.webservice.psicquic.mapper.MergedInteraction;
+import org.cytoscape.work.AbstractTask;
+import org.cytoscape.work.ProvidesTitle;
+import org.cytoscape.work.TaskIterator;
+import org.cytoscape.work.TaskMonitor;
+import org.cytoscape.work.Tunable;
+import org.cytoscape.work.util.BoundedInteger;
+import org.cytoscape.work.util.ListMultipleSelection;
+import org.cytoscape.work.util.ListSingleSelection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Expand all selected nodes at once. The IDs of the nodes are grouped into a
+ * few <code>identifier:(a OR b ...)</code> queries, which are sent to all
+ * selected services in parallel, and the merged result is added to the network
+ * in one pass.
+ * 
+ * With more than one hop, the neighbours found in one hop are expanded in the
+ * next one. Each ID is queried only once, and the expansion stops early when
+ * the node or edge budget is used up.
+ */
+public class ExpandSelectedNodesTask extends AbstractTask {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExpandSelectedNodesTask.class);
+
+	private static final String DEFAULT_LAYOUT = "force-directed";
+	private static final String IDENTIFIER = "identifier";
+
+	private static final int MAX_HOPS = 5;
+	private static final int DEF_MAX_NODES = 1000;
+	private static final int DEF_MAX_EDGES = 5000;
+
+	@ProvidesTitle
+	public String getTitle() {
+		return "Extend Network from Selected Nodes by PSICQUIC Web Services";
+	}
+
+	@Tunable(description = "Select Query Column:")
+	public ListSingleSelection<String> columnList;
+
+	@Tunable(description = "Select Databases:")
+	public ListMultipleSelection<String> services;
+
+	@Tunable(description = "Number of Hops:")
+	public BoundedInteger hops = new BoundedInteger(1, 1, MAX_HOPS, false, false);
+
+	@Tunable(description = "Max Number of New Nodes (0 for no limit):")
+	public int maxNodes = DEF_MAX_NODES;
+
+	@Tunable(description = "Max Number of New Edges (0 for no limit):")
+	public int maxEdges = DEF_MAX_EDGES;
+
+	@Tunable(description = "Add Interactions between Existing Nodes:")
+	public boolean inducedEdges = false;
+
+	private final PSICQUICRestClient client;
+	private final CyNetworkBuilder builder;
+	private final CyNetworkView netView;
+	private final Map<String, String> activeServices;
+
+	private final CancellationToken token = new CancellationToken();
+
+	private final CyServiceRegistrar serviceRegistrar;
+
+	ExpandSelectedNodesTask(
+			final CyNetworkView netView,
+			final PSICQUICRestClient client,
+			final RegistryManager manager,
+			final CyNetworkBuilder builder,
+			final CyServiceRegistrar serviceRegistrar
+	) {
+		this.netView = netView;
+		this.client = client;
+		this.builder = builder;
+		this.serviceRegistrar = serviceRegistrar;
+		this.activeServices = manager.getActiveServices();
+
+		final List<String> columnNames = new ArrayList<>();
+		for (final CyColumn col : netView.getModel().getDefaultNodeTable().getColumns()) {
+			if (col.getType() == String.class)
+				columnNames.add(col.getName());
+		}
+		columnList = new ListSingleSelection<>(columnNames);
+		if (columnNames.contains(IDENTIFIER))
+			columnList.setSelectedValue(IDENTIFIER);
+		else if (columnNames.contains(CyNetwork.NAME))
+			columnList.setSelectedValue(CyNetwork.NAME);
+
+		final List<String> sourceNames = new ArrayList<>(activeServices.keySet());
+		services = new ListMultipleSelection<>(sourceNames);
+		services.setSelectedValues(sourceNames);
+	}
+
+	@Override
+	public void run(TaskMonitor taskMonitor) throws Exception {
+		taskMonitor.setTitle("Expanding selected nodes by PSICQUIC Services");
+		taskMonitor.setProgress(0.01d);
+
+		final String column = columnList.getSelectedValue();
+		if (column == null)
+			throw new NullPointerException("Query column is not selected.");
+
+		final Map<String, CyNode> hubs = getSelectedNodes(netView.getModel(), column);
+		if (hubs.isEmpty())
+			return;
+
+		final Collection<String> targetServices = new HashSet<>();
+		for (final String name : services.getSelectedValues())
+			targetServices.add(activeServices.get(name));
+		if (targetServices.isEmpty())
+			return;
+
+		expand(hubs, targetServices, taskMonitor);
+		if (cancelled)
+			return;
+
+		// Apply visual style
+		final VisualStyle vs = serviceRegistrar.getService(VisualMappingManager.class).getVisualStyle(netView);
+		vs.apply(netView);
+		netView.updateView();
+
+		final CyLayoutAlgorithm layout = serviceRegistrar.getService(CyLayoutAlgorithmManager.class)
+				.getLayout(DEFAULT_LAYOUT);
+		final Set<View<CyNode>> entries = new HashSet<>();
+		final CyNetwork network = netView.getModel();
+		for (final CyNode node : network.getNodeList()) {
+			if (Boolean.TRUE.equals(network.getRow(node).get(CyNetwork.SELECTED, Boolean.class)))
+				entries.add(netView.getNodeView(node));
+		}
+
+		TaskIterator itr = layout.createTaskIterator(netView, layout.getDefaultLayoutContext(), entries, null);
+		insertTasksAfterCurrentTask(itr);
+		taskMonitor.setProgress(1.0d);
+	}
+
+	private void expand(final Map<String, CyNode> selected, final Collection<String> targetServices,
+			final TaskMonitor taskMonitor) throws IOException {
+		final int hopCount = hops.getValue();
+		final ExpansionBudget budget = new ExpansionBudget(maxNodes, maxEdges);
+		final Set<String> visited = new HashSet<>();
+		Map<String, CyNode> frontier = selected;
+
+		for (int hop = 1; hop <= hopCount; hop++) {
+			final List<String> queries = QueryBuilder.buildIdentifierQueries(frontier.keySet());
+			taskMonitor.setTitle("Expanding selected nodes: hop " + hop + " of " + hopCount);
+			taskMonitor.setStatusMessage(frontier.size() + " nodes in " + queries.size() + " queries.");
+			visited.addAll(frontier.keySet());
+
+			final List<MergedInteraction> interactions = client.importNeighbours(queries, targetServices, SearchMode.MIQL,
+					taskMonitor, token);
+			if (cancelled)
+				return;
+
+			// Added to the network right away, so that each hop is visible.
+			final Map<String, CyNode> neighbours = builder.addToNetwork(interactions, netView, frontier, budget,
+					inducedEdges, token);
+			neighbours.keySet().removeAll(visited);
+			if (neighbours.isEmpty() || budget.isExhausted()) {
+				if (budget.isExhausted())
+					logger.warn("Expansion stopped at hop " + hop + ": node or edge limit reached.");
+				break;
+			}
+			frontier = neighbours;
+		}
+	}
+
+	/**
+	 * @return Selected nodes by the value of the query column. Nodes without a
+	 *         value are skipped.
+	 */
+	static Map<String, CyNode> getSelectedNodes(final CyNetwork network, final String column) {
+		final Map<String, CyNode> nodes = new LinkedHashMap<>();
+		for (final CyNode node : network.getNodeList()) {
+			final CyRow row = network.getRow(node);
+			if (!Boolean.TRUE.equals(row.get(CyNetwork.SELECTED, Boolean.class)))
+				continue;
+			final String id = row.get(column, String.class);
+			if (id != null && !id.trim().isEmpty())
+				nodes.put(id.trim(), node);
+		}
+		return nodes;
+	}
+
+	@Override
+	public void cancel() {
+		super.cancel();
+		token.cancel();
+	}
+}
@@ -0,0 +1,80 @@
+package org.cytoscape.webservice.psicquic.task;
+
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.service.util.CyServiceRegistrar;
+import org.cytoscape.task.AbstractNetworkViewTaskFactory;
+import org.cytoscape.view.model.CyNetworkView;
+import org.cytoscape.webservice.psicquic.PSICQUICRestClient;
+import org.cytoscape.webservice.psicquic.RegistryManager;
+import org.cytoscape.webservice.psicquic.mapper.CyNetworkBuilder;
+import org.cytoscape.work.TaskIterator;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Expand all selected nodes with one set of queries.
+ */
+public class ExpandSelectedNodesTaskFactory extends AbstractNetworkViewTaskFactory {
+
+	private final RegistryManager manager;
+	private final PSICQUICRestClient client;
+	private final CyNetworkBuilder builder;
+
+	private final CyServiceRegistrar serviceRegistrar;
+
+	public ExpandSelectedNodesTaskFactory(
+			final PSICQUICRestClient client,
+			final RegistryManager manager,
+			final CyNetworkBuilder builder,
+			final CyServiceRegistrar serviceRegistrar
+	) {
+		this.client = client;
+		this.manager = manager;
+		this.builder = builder;
+		this.serviceRegistrar = serviceRegistrar;
+	}
+
+	@Override
+	public boolean isReady(final CyNetworkView netView) {
+		if (!super.isReady(netView))
+			return false;
+
+		final CyNetwork network = netView.getModel();
+		for (final CyNode node : network.getNodeList()) {
+			if (Boolean.TRUE.equals(network.getRow(node).get(CyNetwork.SELECTED, Boolean.class)))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public TaskIterator createTaskIterator(final CyNetworkView netView) {
+		if (manager == null)
+			throw new NullPointerException("RegistryManager is null");
+
+		return new TaskIterator(new ExpandSelectedNodesTask(netView, client, manager, builder, serviceRegistrar));
+	}
+}
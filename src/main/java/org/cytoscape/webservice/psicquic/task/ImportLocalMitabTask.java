@@ -0,0 +1,139 @@
+package org.cytoscape.webservice.psicquic.task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.service.util.CyServiceRegistrar;
+import org.cytoscape.task.create.CreateNetworkViewTaskFactory;
+import org.cytoscape.webservice.psicquic.CancellationToken;
+import org.cytoscape.webservice.psicquic.PSIMI25VisualStyleBuilder;
+import org.cytoscape.webservice.psicquic.mapper.CyNetworkBuilder;
+import org.cytoscape.webservice.psicquic.mapper.InteractorFilter;
+import org.cytoscape.webservice.psicquic.mapper.LineSource;
+import org.cytoscape.webservice.psicquic.mapper.MappedMitabFile;
+import org.cytoscape.work.AbstractTask;
+import org.cytoscape.work.ObservableTask;
+import org.cytoscape.work.ProvidesTitle;
+import org.cytoscape.work.TaskMonitor;
+import org.cytoscape.work.Tunable;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Import a MITAB file from the local disk with the same builder as the
+ * results of PSICQUIC services, e.g. a bulk download of a provider.
+ */
+public class ImportLocalMitabTask extends AbstractTask implements ObservableTask {
+
+	// Progress is updated once per this many lines.
+	private static final int PROGRESS_INTERVAL = 10000;
+
+	@ProvidesTitle
+	public String getTitle() {
+		return "Import Local MITAB File";
+	}
+
+	@Tunable(description = "MITAB 2.5 - 2.7 File:", params = "input=true;fileCategory=network")
+	public File file;
+
+	@Tunable(description = "Only Interactions of (IDs, optional):")
+	public String filter = "";
+
+	private final CyNetworkBuilder builder;
+	private final PSIMI25VisualStyleBuilder vsBuilder;
+	private final CyServiceRegistrar serviceRegistrar;
+
+	private final CancellationToken token = new CancellationToken();
+	private CyNetwork network;
+
+	public ImportLocalMitabTask(final CyNetworkBuilder builder, final PSIMI25VisualStyleBuilder vsBuilder,
+			final CyServiceRegistrar serviceRegistrar) {
+		this.builder = builder;
+		this.vsBuilder = vsBuilder;
+		this.serviceRegistrar = serviceRegistrar;
+	}
+
+	@Override
+	public void run(final TaskMonitor taskMonitor) throws Exception {
+		if (file == null)
+			throw new NullPointerException("File is null");
+
+		taskMonitor.setTitle("Importing Interactions from " + file.getName());
+		taskMonitor.setStatusMessage("Loading interactions from local file...");
+		taskMonitor.setProgress(0.0d);
+
+		final InteractorFilter interactorFilter = InteractorFilter.parse(filter);
+		try (final MappedMitabFile mitab = new MappedMitabFile(file)) {
+			final LineSource lines = new LineSource() {
+				private long count = 0;
+
+				@Override
+				public String readLine() throws IOException {
+					if (++count % PROGRESS_INTERVAL == 0)
+						taskMonitor.setProgress(mitab.getProgress());
+					return mitab.readLine();
+				}
+
+				@Override
+				public void close() throws IOException {
+					mitab.close();
+				}
+			};
+			// With a filter only a fraction of the lines becomes interactions.
+			final long expected = interactorFilter == null ? mitab.estimateLineCount() : 0;
+			network = builder.buildNetwork(lines, file.getName(), token, expected, interactorFilter);
+		}
+
+		// Kept after a cancel, named "<Incomplete!>" by the builder.
+		ImportNetworkFromPSICQUICTask.addNetworkData(network);
+		serviceRegistrar.getService(CyNetworkManager.class).addNetwork(network);
+		if (cancelled)
+			return;
+
+		ImportNetworkFromPSICQUICTask.setCurrentVisualStyle(vsBuilder, serviceRegistrar);
+		if (network.getNodeCount() + network.getEdgeCount() < ImportNetworkFromPSICQUICTask
+				.getViewThreshold(serviceRegistrar)) {
+			final CreateNetworkViewTaskFactory createViewTaskFactory =
+					serviceRegistrar.getService(CreateNetworkViewTaskFactory.class);
+			insertTasksAfterCurrentTask(createViewTaskFactory.createTaskIterator(Collections.singleton(network)));
+		}
+		taskMonitor.setProgress(1.0d);
+	}
+
+	@Override
+	public void cancel() {
+		super.cancel();
+		token.cancel();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T getResults(final Class<? extends T> type) {
+		return (T) network;
+	}
+}
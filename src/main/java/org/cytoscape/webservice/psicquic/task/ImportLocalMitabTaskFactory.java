@@ -0,0 +1,56 @@
+package org.cytoscape.webservice.psicquic.task;
+
+import org.cytoscape.service.util.CyServiceRegistrar;
+import org.cytoscape.webservice.psicquic.PSIMI25VisualStyleBuilder;
+import org.cytoscape.webservice.psicquic.mapper.CyNetworkBuilder;
+import org.cytoscape.work.AbstractTaskFactory;
+import org.cytoscape.work.TaskIterator;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Import a local MITAB file without any remote service.
+ */
+public class ImportLocalMitabTaskFactory extends AbstractTaskFactory {
+
+	private final CyNetworkBuilder builder;
+	private final PSIMI25VisualStyleBuilder vsBuilder;
+	private final CyServiceRegistrar serviceRegistrar;
+
+	public ImportLocalMitabTaskFactory(
+			final CyNetworkBuilder builder,
+			final PSIMI25VisualStyleBuilder vsBuilder,
+			final CyServiceRegistrar serviceRegistrar
+	) {
+		this.builder = builder;
+		this.vsBuilder = vsBuilder;
+		this.serviceRegistrar = serviceRegistrar;
+	}
+
+	@Override
+	public TaskIterator createTaskIterator() {
+		return new TaskIterator(new ImportLocalMitabTask(builder, vsBuilder, serviceRegistrar));
+	}
+}
@@ -18,6 +18,7 @@ import org.cytoscape.service.util.CyServiceRegistrar;
 import org.cytoscape.task.create.CreateNetworkViewTaskFactory;
 import org.cytoscape.view.vizmap.VisualMappingManager;
 import org.cytoscape.view.vizmap.VisualStyle;
+import org.cytoscape.webservice.psicquic.CancellationToken;
 import org.cytoscape.webservice.psicquic.PSICQUICRestClient;
 import org.cytoscape.webservice.psicquic.PSICQUICRestClient.SearchMode;
 import org.cytoscape.webservice.psicquic.PSIMI25VisualStyleBuilder;
@@ -73,6 +74,7 @@ public class ImportNetworkFromPSICQUICTask extends AbstractTask implements Obser
 	private CyServiceRegistrar serviceRegistrar;
 
 	private volatile boolean canceled;
+	private final CancellationToken token = new CancellationToken();
 
 	public ImportNetworkFromPSICQUICTask(
 			final String query,
@@ -141,13 +143,13 @@ public class ImportNetworkFromPSICQUICTask extends AbstractTask implements Obser
 		CyNetworkManager netManager = serviceRegistrar.getService(CyNetworkManager.class);
 		
 		if (mergeNetworks) {
-			final CyNetwork network = client.importMergedNetwork(query, targetServices, mode, taskMonitor);
+			final CyNetwork network = client.importMergedNetwork(query, targetServices, mode, taskMonitor, token);
 			network.getRow(network).set(CyNetwork.NAME, "Merged Network " + suffix);
 			addNetworkData(network);
 			netManager.addNetwork(network);
 			result.put("clustered", network);
 		} else {
-			final Collection<CyNetwork> networks = client.importNetworks(query, targetServices, mode, taskMonitor);
+			final Collection<CyNetwork> networks = client.importNetworks(query, targetServices, mode, taskMonitor, token);
 			
 			for (CyNetwork network : networks) {
 				final String networkName = network.getRow(network).get(CyNetwork.NAME, String.class) + " " + suffix;
@@ -161,29 +163,13 @@ public class ImportNetworkFromPSICQUICTask extends AbstractTask implements Obser
 		if (canceled)
 			return;
 		
-		// Check Visual Style exists or not
-		VisualStyle psiStyle = null;
-		VisualMappingManager vmManager = serviceRegistrar.getService(VisualMappingManager.class);
-		
-		for (VisualStyle style : vmManager.getAllVisualStyles()) {
-			if (style.getTitle().equals(PSIMI25VisualStyleBuilder.DEF_VS_NAME)) {
-				psiStyle = style;
-				break;
-			}
-		}
-		
-		if (psiStyle == null) {
-			psiStyle = vsBuilder.getVisualStyle();
-			vmManager.addVisualStyle(psiStyle);
-		}
-		
-		vmManager.setCurrentVisualStyle(psiStyle);
+		setCurrentVisualStyle(vsBuilder, serviceRegistrar);
 
 		if (canceled)
 			return;
 		
 		final List<CyNetwork> smallNetworks = new ArrayList<>();
-		final int viewThreshold = getViewThreshold();
+		final int viewThreshold = getViewThreshold(serviceRegistrar);
 		
 		for (CyNetwork net : result.values()) {
 			final int numGraphObjects = net.getNodeCount() + net.getEdgeCount();
@@ -205,10 +191,10 @@ public class ImportNetworkFromPSICQUICTask extends AbstractTask implements Obser
 	@Override
 	public void cancel() {
 		this.canceled = true;
-		client.cancel();
+		token.cancel();
 	}
 
-	private void addNetworkData(final CyNetwork network) {
+	static void addNetworkData(final CyNetwork network) {
 		network.getRow(network).getTable().createColumn("created by", String.class, true);
 		network.getRow(network).set("created by", "PSICQUIC Web Service");
 	}
@@ -236,7 +222,33 @@ public class ImportNetworkFromPSICQUICTask extends AbstractTask implements Obser
 		return (T) getNetworks();
 	}
 	
-	private int getViewThreshold() {
+	/**
+	 * Use the PSI-MI style, and create it if it does not exist yet.
+	 */
+	static void setCurrentVisualStyle(final PSIMI25VisualStyleBuilder vsBuilder,
+			final CyServiceRegistrar serviceRegistrar) {
+		VisualStyle psiStyle = null;
+		VisualMappingManager vmManager = serviceRegistrar.getService(VisualMappingManager.class);
+		
+		for (VisualStyle style : vmManager.getAllVisualStyles()) {
+			if (style.getTitle().equals(PSIMI25VisualStyleBuilder.DEF_VS_NAME)) {
+				psiStyle = style;
+				break;
+			}
+		}
+		
+		if (psiStyle == null) {
+			psiStyle = vsBuilder.getVisualStyle();
+			vmManager.addVisualStyle(psiStyle);
+		}
+		
+		vmManager.setCurrentVisualStyle(psiStyle);
+	}
+
+	/**
+	 * @return Networks with more nodes and edges than this get no view.
+	 */
+	static int getViewThreshold(final CyServiceRegistrar serviceRegistrar) {
 		final Properties props = (Properties) 
 				serviceRegistrar.getService(CyProperty.class, "(cyPropertyName=cytoscape3.props)").getProperties();
 		final String vts = props.getProperty(VIEW_THRESHOLD);
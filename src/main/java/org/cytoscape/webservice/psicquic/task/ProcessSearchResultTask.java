@@ -94,7 +94,6 @@ public class ProcessSearchResultTask extends AbstractTask {
 	@Override
 	public void cancel() {
 		this.canceled = true;
-		client.cancel();
 	}
 
 	private final Map<String, String> processSearchResult() {
@@ -3,6 +3,7 @@ package org.cytoscape.webservice.psicquic.task;
 import java.util.Collection;
 import java.util.Map;
 
+import org.cytoscape.webservice.psicquic.CancellationToken;
 import org.cytoscape.webservice.psicquic.PSICQUICRestClient;
 import org.cytoscape.webservice.psicquic.PSICQUICRestClient.SearchMode;
 import org.cytoscape.work.AbstractTask;
@@ -46,6 +47,8 @@ public class SearchRecordsTask extends AbstractTask {
 	private Collection<String> targetServices;
 
 	private Map<String, Long> result;
+
+	private final CancellationToken token = new CancellationToken();
 	
 	public SearchRecordsTask(final PSICQUICRestClient client, final SearchMode mode) {
 		this.client = client;
@@ -63,13 +66,13 @@ public class SearchRecordsTask extends AbstractTask {
 		if (targetServices == null)
 			throw new NullPointerException("Target service set is null");
 
-		result = client.search(query, targetServices, mode, taskMonitor);
+		result = client.search(query, targetServices, mode, taskMonitor, token);
 		taskMonitor.setProgress(1.0d);
 	}
 	
 	@Override
 	public void cancel() {
-		client.cancel();
+		token.cancel();
 	}
 	
 	public void setTargets(final Collection<String> targetServices) {
@@ -270,6 +270,8 @@ public class SourceStatusPanel extends JPanel implements TaskObserver {
 					rowValues[STATUS_COLUMN_INDEX] = "Timeout.  Try again later.";
 				} else if (errorID == PSICQUICRestClient.ERROR_SEARCH_FAILED.intValue()) {
 					rowValues[STATUS_COLUMN_INDEX] = "Server returns error.  Try again later.";
+				} else if (errorID == PSICQUICRestClient.ERROR_UNAVAILABLE.intValue()) {
+					rowValues[STATUS_COLUMN_INDEX] = "Not responding.  Skipped for now.";
 				} else {
 					rowValues[STATUS_COLUMN_INDEX] = "Unknown error.  Try again later.";
 				}
@@ -0,0 +1,83 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class CancellationTokenTest {
+
+	@Test
+	public void testStreamEndsOnCancel() throws Exception {
+		final CancellationToken token = new CancellationToken();
+		final InputStream is = token.wrap(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+
+		assertEquals(1, is.read());
+		token.cancel();
+		assertEquals(-1, is.read());
+		assertEquals(-1, is.read(new byte[2], 0, 2));
+	}
+
+	@Test
+	public void testIteratorEndsOnCancel() {
+		final CancellationToken token = new CancellationToken();
+		final Iterator<String> itr = token.wrap(Arrays.asList("a", "b").iterator());
+
+		assertEquals("a", itr.next());
+		token.cancel();
+		assertFalse(itr.hasNext());
+	}
+
+	@Test
+	public void testTokensAreIndependent() {
+		final CancellationToken first = new CancellationToken();
+		final CancellationToken second = new CancellationToken();
+		first.cancel();
+
+		assertTrue(first.isCanceled());
+		assertFalse(second.isCanceled());
+	}
+
+	@Test
+	public void testCallbackRunsOnceEvenIfRegisteredLate() {
+		final CancellationToken token = new CancellationToken();
+		final AtomicInteger calls = new AtomicInteger();
+		token.onCancel(calls::incrementAndGet);
+		token.cancel();
+		token.cancel();
+		token.onCancel(calls::incrementAndGet);
+
+		assertEquals(2, calls.get());
+	}
+}
@@ -0,0 +1,93 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cytoscape.webservice.psicquic.PSICQUICRestClient.SearchMode;
+import org.junit.Test;
+
+public class CountCacheTest {
+
+	private static final String URL = "http://example.org/psicquic";
+
+	@Test
+	public void testConcurrentRequestsShareOneLoad() throws Exception {
+		final CountCache cache = new CountCache(CountCache.DEF_TTL_MSEC);
+		final AtomicInteger loads = new AtomicInteger();
+		final CountDownLatch release = new CountDownLatch(1);
+
+		final ExecutorService exe = Executors.newFixedThreadPool(4);
+		try {
+			final Future<?>[] results = new Future<?>[4];
+			for (int i = 0; i < results.length; i++) {
+				results[i] = exe.submit(() -> cache.get(URL, SearchMode.MIQL, "brca2", () -> {
+					loads.incrementAndGet();
+					release.await();
+					return 42L;
+				}));
+			}
+			Thread.sleep(100);
+			release.countDown();
+
+			for (final Future<?> result : results)
+				assertEquals(42L, result.get(5, TimeUnit.SECONDS));
+			assertEquals(1, loads.get());
+			assertEquals(Long.valueOf(42L), cache.getIfPresent(URL, SearchMode.MIQL, "brca2"));
+		} finally {
+			exe.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testFailureIsNotCached() throws Exception {
+		final CountCache cache = new CountCache(CountCache.DEF_TTL_MSEC);
+		try {
+			cache.get(URL, SearchMode.MIQL, "brca2", () -> {
+				throw new IOException("down");
+			});
+		} catch (IOException e) {
+			// Expected
+		}
+		assertNull(cache.getIfPresent(URL, SearchMode.MIQL, "brca2"));
+		assertEquals(7L, cache.get(URL, SearchMode.MIQL, "brca2", () -> 7L));
+	}
+
+	@Test
+	public void testModesAreCachedSeparately() throws Exception {
+		final CountCache cache = new CountCache(CountCache.DEF_TTL_MSEC);
+		cache.get(URL, SearchMode.MIQL, "brca2", () -> 1L);
+		assertNull(cache.getIfPresent(URL, SearchMode.INTERACTOR, "brca2"));
+	}
+}
@@ -0,0 +1,169 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HedgedRequestTest {
+
+	private static final String PRIMARY = "http://primary.example.org/psicquic";
+	private static final String MIRROR = "http://mirror.example.org/psicquic";
+
+	private PSICQUICScheduler scheduler;
+	private final LatencyTracker latencies = new LatencyTracker();
+
+	private final HedgedRequest.Listener<String> listener = new HedgedRequest.Listener<String>() {
+		@Override
+		public void succeeded(final String url, final long latencyMsec, final String result) {
+			latencies.record(url, latencyMsec);
+		}
+
+		@Override
+		public void failed(final String url, final Throwable error) {
+		}
+	};
+
+	@Before
+	public void setUp() {
+		scheduler = new PSICQUICScheduler(4, 2);
+	}
+
+	@After
+	public void tearDown() {
+		scheduler.shutdown();
+	}
+
+	private HedgedRequest<String> submit(final long timeout, final long hedgeDelay,
+			final BlockingQueue<Future<String>> queue) {
+		return HedgedRequest.submit(scheduler, Arrays.asList(PRIMARY, MIRROR), url -> true, url -> () -> {
+			if (url.equals(PRIMARY))
+				Thread.sleep(5000);
+			return url;
+		}, timeout, hedgeDelay, listener, queue);
+	}
+
+	@Test
+	public void testSlowServiceIsHedged() throws Exception {
+		final BlockingQueue<Future<String>> queue = new LinkedBlockingQueue<Future<String>>();
+		final HedgedRequest<String> request = submit(0, 50, queue);
+
+		assertEquals(MIRROR, request.get(2, TimeUnit.SECONDS));
+		assertTrue(queue.poll(1, TimeUnit.SECONDS) == request);
+	}
+
+	@Test
+	public void testMirrorIsUsedAfterTimeout() throws Exception {
+		final HedgedRequest<String> request = submit(50, 0, null);
+		assertEquals(MIRROR, request.get(2, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testFailsWhenAllAttemptsFail() throws Exception {
+		final HedgedRequest<String> request = HedgedRequest.submit(scheduler, Arrays.asList(PRIMARY, MIRROR),
+				url -> true, url -> () -> {
+					throw new IOException("down: " + url);
+				}, 0, 0, listener, null);
+		try {
+			request.get(2, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+			return;
+		}
+		throw new AssertionError("Should fail.");
+	}
+
+	@Test
+	public void testTimeoutWithoutMirror() throws Exception {
+		final HedgedRequest<String> request = HedgedRequest.submit(scheduler, Arrays.asList(PRIMARY),
+				url -> true, url -> () -> {
+					Thread.sleep(5000);
+					return url;
+				}, 50, 0, listener, null);
+		try {
+			request.get(2, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+			return;
+		}
+		throw new AssertionError("Should time out.");
+	}
+
+	@Test
+	public void testProbeIsOnlyTakenWhenLaunched() throws Exception {
+		final ProviderHealth health = new ProviderHealth(1, 60000);
+		health.recordFailure(MIRROR);
+
+		// The primary answers, so the mirror is never asked whether it may be called.
+		final List<String> asked = new CopyOnWriteArrayList<String>();
+		final HedgedRequest<String> request = HedgedRequest.submit(scheduler, Arrays.asList(PRIMARY, MIRROR),
+				url -> asked.add(url) && health.allowRequest(url), url -> () -> url, 0, 0, listener, null);
+
+		assertEquals(PRIMARY, request.get(2, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList(PRIMARY), asked);
+		assertEquals(ProviderHealth.State.OPEN, health.getState(MIRROR));
+	}
+
+	@Test
+	public void testSkippedUrlsCountAsFailed() throws Exception {
+		final HedgedRequest<String> request = HedgedRequest.submit(scheduler, Arrays.asList(PRIMARY, MIRROR),
+				url -> url.equals(MIRROR), url -> () -> url, 0, 0, listener, null);
+		assertEquals(MIRROR, request.get(2, TimeUnit.SECONDS));
+
+		final HedgedRequest<String> skipped = HedgedRequest.submit(scheduler, Arrays.asList(PRIMARY, MIRROR),
+				url -> false, url -> () -> url, 0, 0, listener, null);
+		try {
+			skipped.get(2, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+			return;
+		}
+		throw new AssertionError("Should fail.");
+	}
+
+	@Test
+	public void testPercentile() {
+		for (int i = 1; i <= 100; i++)
+			latencies.record(PRIMARY, i);
+		// Only the latest 64 samples are kept: 37 - 100.
+		assertEquals(97, latencies.getPercentile(PRIMARY, 0.95));
+		assertEquals(-1, latencies.getPercentile(MIRROR, 0.95));
+	}
+}
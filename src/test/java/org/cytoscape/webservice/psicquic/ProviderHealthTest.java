@@ -0,0 +1,113 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.cytoscape.webservice.psicquic.ProviderHealth.State;
+import org.junit.Test;
+
+public class ProviderHealthTest {
+
+	private static final String GOOD = "http://good.example.org/psicquic";
+	private static final String BAD = "http://bad.example.org/psicquic";
+
+	private final AtomicLong now = new AtomicLong(1000);
+	private final ProviderHealth health = new ProviderHealth(3, 1000, now::get);
+
+	@Test
+	public void testCircuitOpensAfterFailuresInRow() {
+		health.recordFailure(BAD);
+		health.recordFailure(BAD);
+		assertTrue(health.allowRequest(BAD));
+
+		health.recordFailure(BAD);
+		assertEquals(State.OPEN, health.getState(BAD));
+		assertFalse(health.allowRequest(BAD));
+		assertTrue(health.allowRequest(GOOD));
+	}
+
+	@Test
+	public void testSuccessResetsFailureCount() {
+		health.recordFailure(BAD);
+		health.recordFailure(BAD);
+		health.recordSuccess(BAD, 100, 0);
+		health.recordFailure(BAD);
+		assertEquals(State.CLOSED, health.getState(BAD));
+	}
+
+	@Test
+	public void testProbeClosesOrReopensCircuit() {
+		for (int i = 0; i < 3; i++)
+			health.recordFailure(BAD);
+
+		now.addAndGet(1000);
+		assertTrue(health.allowRequest(BAD));
+		assertEquals(State.HALF_OPEN, health.getState(BAD));
+		// Only one probe at a time.
+		assertFalse(health.allowRequest(BAD));
+
+		// Failed probe: open for twice as long.
+		health.recordFailure(BAD);
+		assertEquals(State.OPEN, health.getState(BAD));
+		now.addAndGet(1000);
+		assertFalse(health.allowRequest(BAD));
+		now.addAndGet(1000);
+		assertTrue(health.allowRequest(BAD));
+
+		health.recordSuccess(BAD, 100, 0);
+		assertEquals(State.CLOSED, health.getState(BAD));
+		assertTrue(health.allowRequest(BAD));
+	}
+
+	@Test
+	public void testSelectDoesNotTakeProbe() {
+		for (int i = 0; i < 3; i++)
+			health.recordFailure(BAD);
+
+		now.addAndGet(1000);
+		assertEquals(Arrays.asList(BAD), health.select(Arrays.asList(BAD)));
+		assertEquals(State.OPEN, health.getState(BAD));
+		assertTrue(health.allowRequest(BAD));
+		assertEquals(State.HALF_OPEN, health.getState(BAD));
+	}
+
+	@Test
+	public void testUnhealthyProvidersGoLast() {
+		for (int i = 0; i < 3; i++)
+			health.recordFailure(BAD);
+		health.recordSuccess(GOOD, 100, 500);
+
+		assertEquals(Arrays.asList(GOOD, BAD), health.sortByHealth(Arrays.asList(BAD, GOOD)));
+		assertEquals(Arrays.asList(GOOD), health.select(Arrays.asList(BAD, GOOD)));
+		assertEquals(5000.0, health.getThroughput(GOOD), 0.001);
+	}
+}
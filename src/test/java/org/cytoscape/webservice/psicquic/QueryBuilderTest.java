@@ -0,0 +1,66 @@
+package org.cytoscape.webservice.psicquic;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class QueryBuilderTest {
+
+	@Test
+	public void testIdentifierQuery() {
+		final List<String> queries = QueryBuilder
+				.buildIdentifierQueries(Arrays.asList("P51587", " Q06609", "P51587", "", null, "a\"b"));
+		assertEquals(Collections.singletonList("identifier:(\"P51587\" OR \"Q06609\" OR \"a\\\"b\")"), queries);
+		assertTrue(QueryBuilder.buildIdentifierQueries(Collections.<String>emptyList()).isEmpty());
+	}
+
+	@Test
+	public void testChunksStayUnderLimits() throws Exception {
+		final List<String> ids = new ArrayList<String>();
+		for (int i = 0; i < 1000; i++)
+			ids.add("EBI-" + i);
+
+		final List<String> queries = QueryBuilder.buildIdentifierQueries(ids, 300, 50);
+		int count = 0;
+		for (final String query : queries) {
+			assertTrue(URLEncoder.encode(query, "UTF-8").length() <= 300);
+			final int terms = query.split(" OR ").length;
+			assertTrue(terms <= 50);
+			count += terms;
+		}
+		assertEquals(1000, count);
+		assertTrue(queries.get(0).startsWith("identifier:(\"EBI-0\" OR \"EBI-1\""));
+	}
+}
@@ -24,6 +24,16 @@ package org.cytoscape.webservice.psicquic;
  * #L%
  */
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+
+import org.cytoscape.webservice.psicquic.PSICQUICRestClient.MergeEngine;
+import org.cytoscape.webservice.psicquic.simpleclient.HttpStatusException;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -66,4 +76,24 @@ public class RestClientTest {
 		//assertEquals(20, result.size());
 	}
 
+	@Test
+	public void testOnlyFormatRejectionIsRemembered() throws Exception {
+		assertTrue(PSICQUICRestClient.isFormatRejected(new HttpStatusException(406, "http://a")));
+		assertTrue(PSICQUICRestClient.isFormatRejected(new HttpStatusException(400, "http://a")));
+		assertFalse(PSICQUICRestClient.isFormatRejected(new HttpStatusException(500, "http://a")));
+		assertFalse(PSICQUICRestClient.isFormatRejected(new HttpStatusException(429, "http://a")));
+		assertFalse(PSICQUICRestClient.isFormatRejected(new SocketTimeoutException()));
+		assertFalse(PSICQUICRestClient.isFormatRejected(new IOException("Connection reset")));
+
+		assertTrue(PSICQUICRestClient.isInterrupt(new InterruptedIOException()));
+		assertFalse(PSICQUICRestClient.isInterrupt(new SocketTimeoutException()));
+		assertFalse(PSICQUICRestClient.isInterrupt(new HttpStatusException(503, "http://a")));
+	}
+
+	@Test
+	public void testMergeEngine() {
+		assertEquals(MergeEngine.NATIVE, MergeEngine.parse(null));
+		assertEquals(MergeEngine.NATIVE, MergeEngine.parse("unknown"));
+		assertEquals(MergeEngine.MICLUSTER, MergeEngine.parse(" micluster "));
+	}
 }
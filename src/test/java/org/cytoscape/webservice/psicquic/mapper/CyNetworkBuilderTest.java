@@ -0,0 +1,132 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.cytoscape.webservice.psicquic.mapper.TestInteractions.MAPPING_NAMES;
+import static org.cytoscape.webservice.psicquic.mapper.TestInteractions.createIntactInteractor;
+import static org.cytoscape.webservice.psicquic.mapper.TestInteractions.createInteraction;
+import static org.cytoscape.webservice.psicquic.mapper.TestInteractions.createInteractor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.NetworkTestSupport;
+import org.cytoscape.service.util.CyServiceRegistrar;
+import org.cytoscape.view.model.CyNetworkView;
+import org.cytoscape.webservice.psicquic.CancellationToken;
+import org.junit.Before;
+import org.junit.Test;
+
+import psidev.psi.mi.tab.model.BinaryInteraction;
+
+public class CyNetworkBuilderTest {
+
+	private CyNetwork network;
+	private CyNetworkView networkView;
+	private CyNetworkBuilder builder;
+
+	@Before
+	public void setUp() {
+		final CyServiceRegistrar serviceRegistrar = mock(CyServiceRegistrar.class);
+		network = new NetworkTestSupport().getNetwork();
+		networkView = mock(CyNetworkView.class);
+		when(networkView.getModel()).thenReturn(network);
+		builder = new CyNetworkBuilder(serviceRegistrar, new NodeIndexManager(serviceRegistrar));
+	}
+
+	@Test
+	public void testSecondHopDoesNotAddParentEdgeAgain() {
+		final CyNode hub = addNode("P1");
+		final ExpansionBudget budget = new ExpansionBudget(10, 10);
+
+		final Map<String, CyNode> hop1 = builder.addToNetwork(merge(createInteraction("P1", "P2", "1")), networkView,
+				Collections.singletonMap("P1", hub), budget, false, new CancellationToken());
+		assertEquals(1, network.getEdgeCount());
+		assertEquals(9, budget.getEdgesLeft());
+
+		// P2 interacts with its parent P1 again in the second hop.
+		final Map<String, CyNode> hop2 = builder.addToNetwork(
+				merge(createInteraction("P2", "P1", "1"), createInteraction("P2", "P3", "2")), networkView, hop1,
+				budget, false, new CancellationToken());
+		assertEquals(3, network.getNodeCount());
+		assertEquals(2, network.getEdgeCount());
+		assertEquals(8, budget.getEdgesLeft());
+		assertTrue(hop2.containsKey("P3"));
+	}
+
+	@Test
+	public void testConnectedHubsAreNotConnectedAgain() {
+		final CyNode p1 = addNode("P1");
+		final CyNode p2 = addNode("P2");
+		network.addEdge(p2, p1, true);
+		final ExpansionBudget budget = new ExpansionBudget(10, 10);
+
+		final Map<String, CyNode> hubs = new HashMap<String, CyNode>();
+		hubs.put("P1", p1);
+		hubs.put("P2", p2);
+		builder.addToNetwork(merge(createInteraction("P1", "P2", "1")), networkView, hubs, budget, true,
+				new CancellationToken());
+		assertEquals(1, network.getEdgeCount());
+		assertEquals(10, budget.getEdgesLeft());
+	}
+
+	@Test
+	public void testInteractorKnownByOtherIdIsOneNode() {
+		final CyNode hub = addNode("P1");
+
+		// The second interaction knows P1 by its IntAct ID only.
+		final Map<String, CyNode> added = builder.addToNetwork(
+				merge(createInteraction("P1", "P2", "1"),
+						createInteraction(createIntactInteractor("P1"), createInteractor("P3"), "2")),
+				networkView, Collections.singletonMap("P1", hub), ExpansionBudget.unlimited(), false,
+				new CancellationToken());
+		assertEquals(3, network.getNodeCount());
+		assertEquals(2, network.getEdgeCount());
+		assertEquals(new HashSet<String>(Arrays.asList("P2", "P3")), added.keySet());
+	}
+
+	private CyNode addNode(final String name) {
+		final CyNode node = network.addNode();
+		network.getRow(node).set(CyNetwork.NAME, name);
+		return node;
+	}
+
+	private static List<MergedInteraction> merge(final BinaryInteraction<?>... interactions) {
+		final InteractionMerger merger = new InteractionMerger(MAPPING_NAMES, 1);
+		for (final BinaryInteraction<?> interaction : interactions)
+			merger.add(interaction);
+		return merger.getInteractions();
+	}
+}
@@ -0,0 +1,56 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ExpansionBudgetTest {
+
+	@Test
+	public void testNodesAndEdgesAreCounted() {
+		final ExpansionBudget budget = new ExpansionBudget(1, 3);
+		assertTrue(budget.take(true));
+		// No new node left, but edges to existing nodes still fit.
+		assertFalse(budget.take(true));
+		assertTrue(budget.isExhausted());
+		assertTrue(budget.take(false));
+		assertTrue(budget.take(false));
+		assertFalse(budget.take(false));
+		assertEquals(0, budget.getEdgesLeft());
+	}
+
+	@Test
+	public void testUnlimited() {
+		final ExpansionBudget budget = ExpansionBudget.unlimited();
+		for (int i = 0; i < 10000; i++)
+			assertTrue(budget.take(true));
+		assertFalse(budget.isExhausted());
+	}
+}
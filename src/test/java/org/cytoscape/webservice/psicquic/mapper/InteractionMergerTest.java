@@ -0,0 +1,168 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.cytoscape.webservice.psicquic.mapper.TestInteractions.MAPPING_NAMES;
+import static org.cytoscape.webservice.psicquic.mapper.TestInteractions.createIntactInteractor;
+import static org.cytoscape.webservice.psicquic.mapper.TestInteractions.createInteraction;
+import static org.cytoscape.webservice.psicquic.mapper.TestInteractions.createInteractor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import psidev.psi.mi.tab.model.BinaryInteraction;
+import psidev.psi.mi.tab.model.BinaryInteractionImpl;
+import psidev.psi.mi.tab.model.CrossReferenceImpl;
+import psidev.psi.mi.tab.model.Interactor;
+
+public class InteractionMergerTest {
+
+	@Test
+	public void testSamePairInBothDirectionsIsMerged() {
+		final InteractionMerger merger = new InteractionMerger(MAPPING_NAMES, 4);
+		merger.add(createInteraction("P12345", "Q99999", "11111"));
+		merger.add(createInteraction("Q99999", "P12345", "22222"));
+
+		final List<MergedInteraction> result = merger.getInteractions();
+		assertEquals(1, result.size());
+
+		final MergedInteraction merged = result.get(0);
+		assertEquals("P12345", merged.getInteractorA());
+		assertEquals("Q99999", merged.getInteractorB());
+		assertEquals("P12345", merged.getInteractorAccsA().get("uniprotkb"));
+		assertEquals("Q99999", merged.getInteractorAccsB().get("uniprotkb"));
+		assertEquals(2, merged.getPublicationIds().size());
+		assertEquals("uniprotkb-uniprotkb", merged.getMappingIdDbNames());
+	}
+
+	@Test
+	public void testEvidenceIsNotDuplicated() {
+		final InteractionMerger merger = new InteractionMerger(MAPPING_NAMES, 1);
+		merger.add(createInteraction("P12345", "Q99999", "11111"));
+		merger.add(createInteraction("P12345", "Q99999", "11111"));
+
+		final MergedInteraction merged = merger.getInteractions().get(0);
+		assertEquals(1, merged.getPublicationIds().size());
+		assertEquals(1, merged.getConfidenceValues().size());
+		assertEquals(1, merged.getOrganismsA().size());
+		assertEquals(Arrays.asList("EBI-P12345"), merged.getOtherInteractorAccsA().get("intact"));
+		assertEquals(Arrays.asList("11111"), merged.getExperimentToPubmed().get("intact:EBI-11111"));
+	}
+
+	@Test
+	public void testSelfInteraction() {
+		final InteractionMerger merger = new InteractionMerger(MAPPING_NAMES, 1);
+		merger.add(new BinaryInteractionImpl(createInteractor("P12345"), null));
+
+		final MergedInteraction merged = merger.getInteractions().get(0);
+		assertEquals("P12345", merged.getInteractorA());
+		assertEquals("P12345", merged.getInteractorB());
+	}
+
+	@Test
+	public void testOtherIdIsMappedAcrossInteractions() {
+		for (final boolean intactFirst : new boolean[] { true, false }) {
+			final InteractionMerger merger = new InteractionMerger(MAPPING_NAMES, 4);
+			// The interactor of the first interaction is known by its IntAct ID only.
+			final BinaryInteraction<?> known = createInteraction("P12345", "Q99999", "11111");
+			final BinaryInteraction<?> intactOnly = createInteraction(createIntactInteractor("P12345"),
+					createInteractor("Q99999"), "22222");
+			merger.add(intactFirst ? intactOnly : known);
+			merger.add(intactFirst ? known : intactOnly);
+
+			final List<MergedInteraction> result = merger.getInteractions();
+			assertEquals(1, result.size());
+			final MergedInteraction merged = result.get(0);
+			assertEquals("P12345", merged.getInteractorA());
+			assertEquals("Q99999", merged.getInteractorB());
+			assertEquals("uniprotkb-uniprotkb", merged.getMappingIdDbNames());
+			assertEquals(2, merged.getPublicationIds().size());
+		}
+	}
+
+	@Test
+	public void testOtherIdIsMappedForOtherPairs() {
+		final InteractionMerger merger = new InteractionMerger(MAPPING_NAMES, 4);
+		merger.add(createInteraction(createInteractor("Q99999"), createIntactInteractor("P12345"), "11111"));
+		merger.add(createInteraction("P12345", "Q11111", "22222"));
+
+		final Set<String> pairs = new HashSet<String>();
+		for (final MergedInteraction merged : merger.getInteractions())
+			pairs.add(merged.getInteractorA() + "-" + merged.getInteractorB());
+		assertEquals(new HashSet<String>(Arrays.asList("P12345-Q99999", "P12345-Q11111")), pairs);
+	}
+
+	@Test
+	public void testMappingIdsAreNotJoinedByOtherIds() {
+		final InteractionMerger merger = new InteractionMerger(MAPPING_NAMES, 1);
+		final Interactor a = createInteractor("P12345");
+		final Interactor b = createInteractor("P11111");
+		// The same other ID on two proteins, e.g. a gene name.
+		a.getAlternativeIdentifiers().add(new CrossReferenceImpl("entrez gene/locuslink", "TP53"));
+		b.getAlternativeIdentifiers().add(new CrossReferenceImpl("entrez gene/locuslink", "TP53"));
+		merger.add(createInteraction(a, createInteractor("Q99999"), "11111"));
+		merger.add(createInteraction(b, createInteractor("Q99999"), "22222"));
+		assertEquals(2, merger.getInteractions().size());
+	}
+
+	@Test
+	public void testConcurrentAdd() throws Exception {
+		final InteractionMerger merger = new InteractionMerger(MAPPING_NAMES, 8);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		for (int t = 0; t < 4; t++) {
+			final int thread = t;
+			executor.execute(() -> {
+				for (int i = 0; i < 1000; i++)
+					merger.add(createInteraction("P" + i, "Q" + (i % 100), Integer.toString(thread)));
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		final List<MergedInteraction> result = merger.getInteractions();
+		assertEquals(1000, result.size());
+		for (final MergedInteraction merged : result)
+			assertEquals(4, merged.getPublicationIds().size());
+	}
+
+	@Test
+	public void testNoChangeAfterGetInteractions() {
+		final InteractionMerger merger = new InteractionMerger(MAPPING_NAMES, 1);
+		assertTrue(merger.add(createInteraction("P12345", "Q99999", "11111")));
+		merger.getInteractions();
+		assertFalse(merger.add(createInteraction("P12345", "Q99999", "22222")));
+		assertEquals(1, merger.getInteractions().get(0).getPublicationIds().size());
+	}
+}
@@ -0,0 +1,61 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import psidev.psi.mi.tab.model.CrossReference;
+import psidev.psi.mi.tab.model.CrossReferenceImpl;
+import psidev.psi.mi.tab.model.Interactor;
+
+public class InteractorPairsTest {
+
+	private static final String MAPPING_NAMES = "uniprotkb,chebi,ddbj/embl/genbank,ensembl,irefindex";
+
+	private final InteractorPairs pairs = new InteractorPairs(MAPPING_NAMES);
+
+	@Test
+	public void testMappingIdPriority() {
+		final Interactor interactor = createInteractor(new CrossReferenceImpl("intact", "EBI-1"),
+				new CrossReferenceImpl("ensembl", "ENSG1"));
+		interactor.setAlternativeIdentifiers(new ArrayList<CrossReference>(
+				Arrays.<CrossReference>asList(new CrossReferenceImpl("uniprotkb", "P12345"))));
+		assertEquals("P12345", pairs.getMappingId(interactor).getIdentifier());
+
+		// No ID in the mapping databases.
+		final Interactor other = createInteractor(new CrossReferenceImpl("intact", "EBI-1"));
+		assertEquals("EBI-1", pairs.getMappingId(other).getIdentifier());
+	}
+
+	private static Interactor createInteractor(final CrossReference... ids) {
+		return new Interactor(new ArrayList<CrossReference>(Arrays.asList(ids)));
+	}
+}
@@ -0,0 +1,114 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedMitabFileTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File write(final String content) throws IOException {
+		final File file = folder.newFile();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	@Test
+	public void testLines() throws Exception {
+		final File file = write("#ID A\tID B\r\n\r\na:1\tb:2\r\n\na:3\tb:\u00e94\n#end\na:5\tb:6");
+		try (final MappedMitabFile mitab = new MappedMitabFile(file)) {
+			assertEquals("a:1\tb:2", mitab.readLine());
+			assertEquals("a:3\tb:\u00e94", mitab.readLine());
+			assertEquals("a:5\tb:6", mitab.readLine());
+			assertNull(mitab.readLine());
+			assertNull(mitab.readLine());
+			assertEquals(1.0, mitab.getProgress(), 0.0);
+		}
+	}
+
+	@Test
+	public void testLinesAcrossWindows() throws Exception {
+		final StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 100; i++)
+			content.append("a:").append(i).append("\tb:").append(i).append('\n');
+
+		// Most lines cross the end of a window.
+		try (final MappedMitabFile mitab = new MappedMitabFile(write(content.toString()), 16)) {
+			for (int i = 0; i < 100; i++) {
+				assertTrue(mitab.getProgress() < 1.0);
+				assertEquals("a:" + i + "\tb:" + i, mitab.readLine());
+			}
+			assertNull(mitab.readLine());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testLineLongerThanWindow() throws Exception {
+		try (final MappedMitabFile mitab = new MappedMitabFile(write("a:1\tb:2\na:12345678901234567890\tb:2\n"), 16)) {
+			assertEquals("a:1\tb:2", mitab.readLine());
+			mitab.readLine();
+		}
+	}
+
+	@Test
+	public void testEmptyFile() throws Exception {
+		try (final MappedMitabFile mitab = new MappedMitabFile(write(""))) {
+			assertNull(mitab.readLine());
+		}
+	}
+
+	@Test
+	public void testFilter() {
+		assertNull(InteractorFilter.parse(null));
+		assertNull(InteractorFilter.parse(" , OR "));
+
+		final InteractorFilter filter = InteractorFilter.parse("\"P04637\" OR uniprotkb:Q00987, brca2");
+		assertEquals(3, filter.getIds().size());
+
+		final MitabLine line = new MitabLine();
+		line.reset("uniprotkb:P04637\tuniprotkb:P12345\t-\t-");
+		assertTrue(filter.matches(line));
+		line.reset("uniprotkb:P12345\tintact:EBI-1\t-\tuniprotkb:Q00987");
+		assertTrue(filter.matches(line));
+		line.reset("intact:EBI-1\tintact:EBI-2\t-\t-\tuniprotkb:P04637(gene name)");
+		assertFalse(filter.matches(line));
+		line.reset("intact:EBI-1\tintact:EBI-2\t-\tpsi-mi:brca2\t-");
+		assertTrue(filter.matches(line));
+	}
+}
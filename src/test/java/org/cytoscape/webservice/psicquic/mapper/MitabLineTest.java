@@ -0,0 +1,138 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MitabLineTest {
+
+	private static final String LINE = "uniprotkb:P51587|intact:EBI-79792\t-\t"
+			+ "intact:EBI-79792\t-\tpsi-mi:brca2_human(display_long)|uniprotkb:BRCA2(gene name)\t-\t"
+			+ "psi-mi:\"MI:0018\"(two hybrid)\t\"Smith et al. (2001)\"\tpubmed:11239454|imex:IM-1234\t"
+			+ "taxid:9606(human)(Homo sapiens)\t-\tpsi-mi:\"MI:0915\"(physical association)\t"
+			+ "psi-mi:\"MI:0469\"(IntAct)\tintact:EBI-1234\tintact-miscore:0.56";
+
+	@Test
+	public void testColumns() {
+		final MitabLine line = new MitabLine();
+		assertEquals(15, line.reset(LINE));
+		assertTrue(line.isEmpty(1));
+		assertFalse(line.isEmpty(0));
+		assertTrue(line.isEmpty(20));
+		assertEquals("intact-miscore:0.56", line.column(14).toString());
+		assertEquals("intact:EBI-1234", line.getColumn(13));
+		assertNull(line.getColumn(3));
+	}
+
+	@Test
+	public void testEntries() {
+		final MitabLine line = new MitabLine();
+		line.reset(LINE);
+
+		MitabLine.Entry entry = line.entries(0);
+		assertTrue(entry.next());
+		assertEquals("uniprotkb", entry.getNamespace());
+		assertEquals("P51587", entry.getId());
+		assertFalse(entry.hasDescription());
+		assertTrue(entry.next());
+		assertEquals("intact", entry.getNamespace());
+		assertFalse(entry.next());
+
+		entry = line.entries(4);
+		entry.next();
+		assertTrue(entry.descriptionEquals("display_long"));
+		entry.next();
+		assertTrue(entry.descriptionEquals("gene name"));
+		assertEquals("BRCA2", entry.getId());
+
+		// Quotes are removed, colons inside quotes stay in the ID.
+		entry = line.entries(6);
+		entry.next();
+		assertEquals("psi-mi", entry.getNamespace());
+		assertEquals("MI:0018", entry.getId());
+		assertEquals("MI:0018", entry.id().toString());
+		assertEquals("two hybrid", entry.getDescription());
+
+		entry = line.entries(7);
+		entry.next();
+		assertEquals("Smith et al. (2001)", entry.getText());
+
+		// First description only.
+		entry = line.entries(9);
+		entry.next();
+		assertEquals("9606", entry.getId());
+		assertEquals("human", entry.getDescription());
+
+		entry = line.entries(1);
+		assertTrue(entry.next());
+		assertTrue(entry.isEmpty());
+		assertNull(entry.getId());
+		assertFalse(entry.next());
+
+		assertFalse(line.entries(30).next());
+	}
+
+	@Test
+	public void testNamespacesAreReused() {
+		final MitabLine line = new MitabLine();
+		line.reset(LINE);
+		final MitabLine.Entry entry = line.entries(0);
+		entry.next();
+		final String first = entry.getNamespace();
+
+		line.reset(LINE.replace("P51587", "Q12345"));
+		final MitabLine.Entry again = line.entries(0);
+		again.next();
+		assertSame(first, again.getNamespace());
+	}
+
+	@Test
+	public void testPoolIsSharedBetweenLines() {
+		final StringPool pool = new StringPool(2);
+		final MitabLine first = new MitabLine(pool);
+		final MitabLine second = new MitabLine(pool);
+		first.reset(LINE);
+		second.reset(new String(LINE));
+
+		final MitabLine.Entry a = first.entries(11);
+		final MitabLine.Entry b = second.entries(11);
+		assertTrue(a.next() && b.next());
+		assertSame(a.getNamespace(), b.getNamespace());
+		assertSame(first.intern(a.getDescription()), second.intern(b.getDescription()));
+
+		// Full: values are returned as they are.
+		final String term = first.intern(new String("two hybrid"));
+		assertEquals(2, pool.size());
+		assertEquals("two hybrid", term);
+		assertFalse(term == second.intern(new String("two hybrid")));
+	}
+}
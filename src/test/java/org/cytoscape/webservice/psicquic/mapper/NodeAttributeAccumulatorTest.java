@@ -0,0 +1,84 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.cytoscape.webservice.psicquic.mapper.NodeAttributeAccumulator.NodeAttributes;
+import org.junit.Test;
+
+public class NodeAttributeAccumulatorTest {
+
+	@Test
+	public void testListsKeepFirstSeenOrderWithoutDuplicates() {
+		final NodeAttributes attributes = new NodeAttributes();
+		for (int i = 0; i < 1000; i++) {
+			attributes.add("uniprot", "P51587");
+			attributes.addAll("intact", Arrays.asList("EBI-79792", "EBI-" + (i % 3)));
+		}
+
+		assertEquals(Arrays.asList("uniprot", "intact"), new ArrayList<String>(attributes.getLists().keySet()));
+		assertEquals(Arrays.asList("P51587"), new ArrayList<String>(attributes.getLists().get("uniprot")));
+		assertEquals(Arrays.asList("EBI-79792", "EBI-0", "EBI-1", "EBI-2"),
+				new ArrayList<String>(attributes.getLists().get("intact")));
+	}
+
+	@Test
+	public void testLastValueWins() {
+		final NodeAttributes attributes = new NodeAttributes();
+		assertNull(attributes.getGeneName());
+		attributes.set("Taxonomy ID", "9606");
+		attributes.set("Taxonomy ID", "10090");
+		attributes.setGeneName("BRCA2");
+
+		assertEquals("10090", attributes.get("Taxonomy ID"));
+		assertEquals("BRCA2", attributes.getGeneName());
+	}
+
+	@Test
+	public void testMergeKeepsOrderOfLines() {
+		final NodeAttributes first = new NodeAttributes();
+		first.addAll("intact", Arrays.asList("EBI-1", "EBI-2"));
+		first.set("Taxonomy ID", "9606");
+		first.setGeneName("BRCA2");
+
+		final NodeAttributes second = new NodeAttributes();
+		second.addAll("intact", Arrays.asList("EBI-3", "EBI-1"));
+		second.set("Taxonomy ID", "10090");
+
+		final NodeAttributes merged = new NodeAttributes();
+		merged.merge(first);
+		merged.merge(second);
+
+		assertEquals(Arrays.asList("EBI-1", "EBI-2", "EBI-3"), new ArrayList<String>(merged.getLists().get("intact")));
+		assertEquals("10090", merged.get("Taxonomy ID"));
+		assertEquals("BRCA2", merged.getGeneName());
+	}
+}
@@ -0,0 +1,83 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class NodeIndexTest {
+
+	@Test
+	public void testPutGetGrow() {
+		final NodeIndex index = new NodeIndex();
+		for (int i = 0; i < 10000; i++)
+			index.put("P" + i, i);
+		index.put("P42", 4242);
+
+		assertEquals(10000, index.size());
+		assertEquals(4242, index.get("P42"));
+		assertEquals(9999, index.get("P9999"));
+		assertEquals(NodeIndex.NO_NODE, index.get("Q1"));
+		assertEquals(NodeIndex.NO_NODE, index.get(null));
+	}
+
+	@Test
+	public void testRemoveKeepsOtherEntries() {
+		final NodeIndex index = new NodeIndex(100);
+		for (int i = 0; i < 1000; i++)
+			index.put("EBI-" + i, i);
+		for (int i = 0; i < 1000; i += 3)
+			assertTrue(index.remove("EBI-" + i));
+		assertFalse(index.remove("EBI-0"));
+
+		for (int i = 0; i < 1000; i++)
+			assertEquals(i % 3 == 0 ? NodeIndex.NO_NODE : i, index.get("EBI-" + i));
+		assertEquals(666, index.size());
+
+		index.clear();
+		assertEquals(0, index.size());
+		assertFalse(index.contains("EBI-1"));
+	}
+
+	@Test
+	public void testIdsWithTheSameHashKeepTheirOwnEntries() {
+		// Every ID collides.
+		final NodeIndex index = new NodeIndex(0, id -> 42);
+		index.put("P1", 1);
+		index.put("P2", 2);
+		assertEquals(1, index.get("P1"));
+		assertEquals(2, index.get("P2"));
+		assertEquals(NodeIndex.NO_NODE, index.get("P3"));
+
+		assertTrue(index.remove("P1"));
+		assertEquals(NodeIndex.NO_NODE, index.get("P1"));
+		assertEquals(2, index.get("P2"));
+		assertEquals(1, index.size());
+	}
+}
@@ -0,0 +1,112 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import psidev.psi.mi.tab.model.ConfidenceImpl;
+import psidev.psi.mi.tab.model.CrossReferenceImpl;
+
+public class RecordFormatTest {
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		final MergedInteraction interaction = createInteraction("P12345", "Q99999");
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final RecordWriter writer = new RecordWriter(bytes)) {
+			writer.write(interaction);
+		}
+
+		try (final RecordReader reader = new RecordReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+			final MergedInteraction copy = reader.read();
+			assertEquals("P12345", copy.getInteractorA());
+			assertEquals("Q99999", copy.getInteractorB());
+			assertEquals("uniprotkb-uniprotkb", copy.getMappingIdDbNames());
+			assertEquals(interaction.getInteractorAccsA(), copy.getInteractorAccsA());
+			assertEquals(interaction.getOtherInteractorAccsB(), copy.getOtherInteractorAccsB());
+			assertEquals("9606", copy.getOrganismsA().iterator().next().getIdentifier());
+			assertEquals("human", copy.getOrganismsA().iterator().next().getText());
+			assertEquals(interaction.getExperimentToPubmed(), copy.getExperimentToPubmed());
+			assertEquals("pubmed", copy.getPublicationIds().get(0).getDatabase());
+			assertEquals("11111", copy.getPublicationIds().get(0).getIdentifier());
+			assertNull(copy.getPublicationIds().get(0).getText());
+			assertEquals("intact-miscore", copy.getConfidenceValues().get(0).getType());
+			assertEquals("0.5", copy.getConfidenceValues().get(0).getValue());
+			assertNull(reader.read());
+		}
+	}
+
+	@Test
+	public void testTermsAreWrittenOnce() throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final RecordWriter writer = new RecordWriter(bytes);
+		writer.write(createInteraction("P1", "Q1"));
+		final int terms = writer.getTermCount();
+		writer.write(createInteraction("P2", "Q2"));
+		writer.close();
+
+		// The second record only refers to the terms of the first one.
+		assertEquals(terms, writer.getTermCount());
+		assertEquals(2, writer.getCount());
+
+		final RecordReader reader = new RecordReader(new ByteArrayInputStream(bytes.toByteArray()));
+		final MergedInteraction a = reader.read();
+		final MergedInteraction b = reader.read();
+		assertSame(a.getMappingIdDbNames(), b.getMappingIdDbNames());
+		assertSame(a.getOrganismsA().iterator().next().getText(), b.getOrganismsB().iterator().next().getText());
+		assertEquals("Q2", b.getInteractorB());
+		reader.close();
+	}
+
+	@Test(expected = IOException.class)
+	public void testWrongFile() throws Exception {
+		new RecordReader(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5 }));
+	}
+
+	private static MergedInteraction createInteraction(final String a, final String b) {
+		final MergedInteraction interaction = new MergedInteraction(a, b, "uniprotkb-uniprotkb");
+		interaction.getInteractorAccsA().put("uniprotkb", a);
+		interaction.getInteractorAccsB().put("uniprotkb", b);
+		interaction.getOtherInteractorAccsA().put("intact", new ArrayList<String>(Arrays.asList("EBI-" + a)));
+		interaction.getOtherInteractorAccsB().put("intact", new ArrayList<String>(Arrays.asList("EBI-" + b)));
+		interaction.getOrganismsA().add(new CrossReferenceImpl("taxid", "9606", "human"));
+		interaction.getOrganismsB().add(new CrossReferenceImpl("taxid", "9606", "human"));
+		interaction.getExperimentToPubmed().put("intact:EBI-" + a + b, new ArrayList<String>(Arrays.asList("11111")));
+		interaction.getPublicationIds().add(new CrossReferenceImpl("pubmed", "11111"));
+		interaction.getConfidenceValues().add(new ConfidenceImpl("intact-miscore", "0.5"));
+		return interaction;
+	}
+}
@@ -0,0 +1,127 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.cytoscape.webservice.psicquic.mapper.TestInteractions.MAPPING_NAMES;
+import static org.cytoscape.webservice.psicquic.mapper.TestInteractions.createIntactInteractor;
+import static org.cytoscape.webservice.psicquic.mapper.TestInteractions.createInteraction;
+import static org.cytoscape.webservice.psicquic.mapper.TestInteractions.createInteractor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SpillingMergerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testRunsAreMergedAgain() throws Exception {
+		final File dir = folder.newFolder();
+		final SpillingMerger merger = new SpillingMerger(MAPPING_NAMES, 10, dir);
+
+		// Every pair appears once in each round, and each round fills several runs.
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < 25; i++)
+				merger.add(createInteraction("P" + i, "Q" + i, Integer.toString(round)));
+		}
+
+		final MergedRuns runs = merger.finish();
+		assertFalse(runs.isInMemory());
+		assertTrue(dir.list().length > 0);
+		assertEquals(75, runs.size());
+
+		final Map<String, MergedInteraction> result = new HashMap<String, MergedInteraction>();
+		String lastKey = "";
+		for (final MergedInteraction interaction : runs) {
+			assertTrue(interaction.getKey().compareTo(lastKey) > 0);
+			lastKey = interaction.getKey();
+			result.put(interaction.getInteractorA(), interaction);
+		}
+		runs.close();
+
+		assertEquals(25, result.size());
+		final MergedInteraction merged = result.get("P7");
+		assertEquals("Q7", merged.getInteractorB());
+		assertEquals(3, merged.getPublicationIds().size());
+		assertEquals(1, merged.getConfidenceValues().size());
+		assertEquals(1, merged.getOrganismsA().size());
+		assertEquals("9606", merged.getOrganismsA().iterator().next().getIdentifier());
+		assertEquals("P7", merged.getInteractorAccsA().get("uniprotkb"));
+		assertEquals(Arrays.asList("EBI-P7"), merged.getOtherInteractorAccsA().get("intact"));
+		assertEquals("uniprotkb-uniprotkb", merged.getMappingIdDbNames());
+		assertEquals(0, dir.list().length);
+	}
+
+	@Test
+	public void testRunsAreMergedUnderFinalIds() throws Exception {
+		final File dir = folder.newFolder();
+		final SpillingMerger merger = new SpillingMerger(MAPPING_NAMES, 1, dir);
+
+		// Written to a run while P12345 is known by its IntAct ID only.
+		merger.add(createInteraction(createIntactInteractor("P12345"), createInteractor("Q99999"), "11111"));
+		merger.add(createInteraction("P12345", "Q99999", "22222"));
+		merger.add(createInteraction(createInteractor("Q11111"), createIntactInteractor("P12345"), "33333"));
+
+		try (final MergedRuns runs = merger.finish()) {
+			assertFalse(runs.isInMemory());
+			final Map<String, MergedInteraction> result = new HashMap<String, MergedInteraction>();
+			for (final MergedInteraction interaction : runs)
+				result.put(interaction.getKey(), interaction);
+
+			assertEquals(2, result.size());
+			final MergedInteraction merged = result.get(InteractorPairs.getKey("P12345", "Q99999"));
+			assertEquals("P12345", merged.getInteractorA());
+			assertEquals(2, merged.getPublicationIds().size());
+			assertEquals("uniprotkb-uniprotkb", merged.getMappingIdDbNames());
+			assertTrue(result.containsKey(InteractorPairs.getKey("P12345", "Q11111")));
+		}
+		assertEquals(0, dir.list().length);
+	}
+
+	@Test
+	public void testSmallResultStaysInMemory() throws Exception {
+		final File dir = folder.newFolder();
+		final SpillingMerger merger = new SpillingMerger(MAPPING_NAMES, 100, dir);
+		for (int i = 0; i < 10; i++)
+			merger.add(createInteraction("P" + i, "Q" + i, "1"));
+
+		try (final MergedRuns runs = merger.finish()) {
+			assertTrue(runs.isInMemory());
+			assertEquals(0, dir.list().length);
+			assertEquals(10, runs.toList().size());
+		}
+		assertFalse(merger.add(createInteraction("P1", "Q1", "2")));
+	}
+}
@@ -0,0 +1,89 @@
+package org.cytoscape.webservice.psicquic.mapper;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import psidev.psi.mi.tab.model.BinaryInteraction;
+import psidev.psi.mi.tab.model.BinaryInteractionImpl;
+import psidev.psi.mi.tab.model.ConfidenceImpl;
+import psidev.psi.mi.tab.model.CrossReference;
+import psidev.psi.mi.tab.model.CrossReferenceImpl;
+import psidev.psi.mi.tab.model.Interactor;
+import psidev.psi.mi.tab.model.OrganismImpl;
+
+/**
+ * Interactions for the merger tests.
+ */
+final class TestInteractions {
+
+	static final String MAPPING_NAMES = "uniprotkb,chebi,ddbj/embl/genbank,ensembl,irefindex";
+
+	private TestInteractions() {
+	}
+
+	/**
+	 * @return Human protein with an IntAct ID "EBI-<uniprot>" as its
+	 *         alternative ID.
+	 */
+	static Interactor createInteractor(final String uniprot) {
+		final Interactor interactor = new Interactor(new ArrayList<CrossReference>(
+				Arrays.<CrossReference>asList(new CrossReferenceImpl("uniprotkb", uniprot))));
+		interactor.setAlternativeIdentifiers(new ArrayList<CrossReference>(
+				Arrays.<CrossReference>asList(new CrossReferenceImpl("intact", "EBI-" + uniprot))));
+		interactor.setOrganism(new OrganismImpl(9606, "human"));
+		return interactor;
+	}
+
+	/**
+	 * @return The same protein as {@link #createInteractor(String)}, but
+	 *         known only by its IntAct ID.
+	 */
+	static Interactor createIntactInteractor(final String uniprot) {
+		final Interactor interactor = new Interactor(new ArrayList<CrossReference>(
+				Arrays.<CrossReference>asList(new CrossReferenceImpl("intact", "EBI-" + uniprot))));
+		interactor.setOrganism(new OrganismImpl(9606, "human"));
+		return interactor;
+	}
+
+	/**
+	 * @return Interaction with the interaction AC "intact:EBI-<pubmed>".
+	 */
+	static BinaryInteraction<Interactor> createInteraction(final String a, final String b, final String pubmed) {
+		return createInteraction(createInteractor(a), createInteractor(b), pubmed);
+	}
+
+	static BinaryInteraction<Interactor> createInteraction(final Interactor a, final Interactor b,
+			final String pubmed) {
+		final BinaryInteractionImpl interaction = new BinaryInteractionImpl(a, b);
+		interaction.setPublications(new ArrayList<CrossReference>(
+				Arrays.<CrossReference>asList(new CrossReferenceImpl("pubmed", pubmed))));
+		interaction.setInteractionAcs(new ArrayList<CrossReference>(
+				Arrays.<CrossReference>asList(new CrossReferenceImpl("intact", "EBI-" + pubmed))));
+		interaction.getConfidenceValues().add(new ConfidenceImpl("intact-miscore", "0.5"));
+		return interaction;
+	}
+}
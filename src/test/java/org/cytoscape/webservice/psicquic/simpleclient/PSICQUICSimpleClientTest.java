@@ -0,0 +1,140 @@
+package org.cytoscape.webservice.psicquic.simpleclient;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class PSICQUICSimpleClientTest {
+
+	private static final int PAGE_SIZE = 10;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private HttpServer server;
+	private ExecutorService executor;
+	private String serviceUrl;
+
+	// Records of the fake service, and the requests it has answered.
+	private volatile int records = 25;
+	private final AtomicInteger requests = new AtomicInteger();
+
+	@Before
+	public void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/service/query/", this::handle);
+		server.start();
+		serviceUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/service/";
+		executor = Executors.newFixedThreadPool(2);
+	}
+
+	@After
+	public void tearDown() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private void handle(final HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		final Map<String, String> params = new HashMap<String, String>();
+		for (final String param : URI.create(exchange.getRequestURI().toString()).getQuery().split("&")) {
+			final int eq = param.indexOf('=');
+			params.put(param.substring(0, eq), param.substring(eq + 1));
+		}
+
+		final StringBuilder body = new StringBuilder();
+		if (params.get("format").equals(PSICQUICSimpleClient.COUNT)) {
+			body.append(records).append('\n');
+		} else {
+			final long first = Long.parseLong(params.get("firstResult"));
+			final long last = Math.min(records, first + Long.parseLong(params.get("maxResults")));
+			for (long i = first; i < last; i++)
+				body.append("a").append(i).append("\tb").append(i).append('\n');
+		}
+
+		final byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (final OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static int countLines(final InputStream is) throws IOException {
+		try {
+			final String text = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+			return text.isEmpty() ? 0 : text.split("\n").length;
+		} finally {
+			is.close();
+		}
+	}
+
+	@Test
+	public void testPagedResultIsCachedAsOneEntry() throws Exception {
+		final ResponseCache cache = new ResponseCache(folder.getRoot(), ResponseCache.DEF_TTL_MSEC,
+				ResponseCache.DEF_MAX_BYTES, false);
+		final PSICQUICSimpleClient client = new PSICQUICSimpleClient(serviceUrl,
+				new HttpTransport(HttpTransport.DEF_CONNECT_TIMEOUT_MSEC, HttpTransport.DEF_REQUEST_TIMEOUT_MSEC, cache));
+
+		assertEquals(25, countLines(client.getByQueryInPages("brca2", PSICQUICSimpleClient.MITAB25, PAGE_SIZE, 2,
+				executor)));
+		// The count and three pages.
+		assertEquals(4, requests.get());
+		assertEquals(1, folder.getRoot().list().length);
+
+		records = 30;
+		assertEquals(25, countLines(client.getByQueryInPages("brca2", PSICQUICSimpleClient.MITAB25, PAGE_SIZE, 2,
+				executor)));
+		assertEquals(4, requests.get());
+	}
+
+	@Test
+	public void testRecordsBeyondTheKnownCountAreFetched() throws Exception {
+		final PSICQUICSimpleClient client = new PSICQUICSimpleClient(serviceUrl);
+		// Counted before the service got more records.
+		assertEquals(25, countLines(client.getByQueryInPages("brca2", PSICQUICSimpleClient.MITAB25, 15, PAGE_SIZE, 2,
+				executor)));
+	}
+}
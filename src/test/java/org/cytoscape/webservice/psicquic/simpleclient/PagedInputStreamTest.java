@@ -0,0 +1,90 @@
+package org.cytoscape.webservice.psicquic.simpleclient;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+public class PagedInputStreamTest {
+
+	private static final String[] PAGES = { "a\tb\n", "c\td", "e\tf\ng\th\n" };
+
+	private static InputStream page(final int i) {
+		return new ByteArrayInputStream(PAGES[i].getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String readAll(final InputStream is) throws IOException {
+		try {
+			return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+		} finally {
+			is.close();
+		}
+	}
+
+	@Test
+	public void testPagesAreConcatenatedInOrder() throws Exception {
+		final ExecutorService exe = Executors.newFixedThreadPool(3);
+		try {
+			final InputStream is = new PagedInputStream(exe, PAGES.length, 2, PagedInputStreamTest::page);
+			assertEquals("a\tb\nc\td\ne\tf\ng\th\n", readAll(is));
+		} finally {
+			exe.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testReaderFetchesPagesWhenExecutorIsBusy() throws Exception {
+		// Executor that never runs anything: the reader has to fetch every page itself.
+		final InputStream is = new PagedInputStream(r -> {}, PAGES.length, 2, PagedInputStreamTest::page);
+		assertEquals("a\tb\nc\td\ne\tf\ng\th\n", readAll(is));
+	}
+
+	@Test
+	public void testFullLastPageIsFollowedByMore() throws Exception {
+		// Two lines per page, but the count said there would be one page only.
+		final String[] pages = { "a\tb\nc\td\n", "e\tf\ng\th\n", "i\tj\n" };
+		final InputStream is = new PagedInputStream(r -> {}, 1, 2, 2,
+				i -> new ByteArrayInputStream(i < pages.length ? pages[i].getBytes(StandardCharsets.UTF_8) : new byte[0]));
+		assertEquals("a\tb\nc\td\ne\tf\ng\th\ni\tj\n", readAll(is));
+	}
+
+	@Test(expected = IOException.class)
+	public void testPageErrorIsPropagated() throws Exception {
+		final InputStream is = new PagedInputStream(r -> {}, 2, 1, i -> {
+			if (i == 1)
+				throw new IOException("Service failed");
+			return page(i);
+		});
+		readAll(is);
+	}
+}
@@ -0,0 +1,162 @@
+package org.cytoscape.webservice.psicquic.simpleclient;
+
+/*
+ * #%L
+ * Cytoscape PSIQUIC Web Service Impl (webservice-psicquic-client-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2017 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ResponseCacheTest {
+
+	private static final String URL = "http://example.org/psicquic/webservices/current/search/query/brca2?format=tab25";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private ResponseCache.Loader loader(final String body) {
+		return () -> {
+			loads.incrementAndGet();
+			return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+		};
+	}
+
+	private static String readAll(final InputStream is) throws IOException {
+		try {
+			return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+		} finally {
+			is.close();
+		}
+	}
+
+	@Test
+	public void testSecondRequestIsServedFromDisk() throws Exception {
+		final ResponseCache cache = new ResponseCache(folder.getRoot(), ResponseCache.DEF_TTL_MSEC,
+				ResponseCache.DEF_MAX_BYTES, false);
+
+		assertEquals("a\tb\n", readAll(cache.open(URL, loader("a\tb\n"))));
+		assertEquals("a\tb\n", readAll(cache.open(URL, loader("changed\n"))));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void testHostIsCaseInsensitive() throws Exception {
+		final ResponseCache cache = new ResponseCache(folder.getRoot(), ResponseCache.DEF_TTL_MSEC,
+				ResponseCache.DEF_MAX_BYTES, false);
+
+		readAll(cache.open(URL, loader("a\n")));
+		readAll(cache.open(URL.replace("example.org", "EXAMPLE.org"), loader("a\n")));
+		assertEquals(1, loads.get());
+		assertNotEquals(ResponseCache.key(URL), ResponseCache.key(URL.replace("brca2", "BRCA2")));
+	}
+
+	@Test
+	public void testIncompleteResponseIsNotCached() throws Exception {
+		final ResponseCache cache = new ResponseCache(folder.getRoot(), ResponseCache.DEF_TTL_MSEC,
+				ResponseCache.DEF_MAX_BYTES, false);
+
+		final InputStream is = cache.open(URL, loader("a\tb\nc\td\n"));
+		is.read(new byte[3]);
+		is.close();
+
+		assertEquals("a\tb\nc\td\n", readAll(cache.open(URL, loader("a\tb\nc\td\n"))));
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void testExpiredEntryIsReloaded() throws Exception {
+		final ResponseCache cache = new ResponseCache(folder.getRoot(), -1, ResponseCache.DEF_MAX_BYTES, false);
+
+		readAll(cache.open(URL, loader("old\n")));
+		assertEquals("new\n", readAll(cache.open(URL, loader("new\n"))));
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void testOfflineModeUsesExpiredEntry() throws Exception {
+		final File dir = folder.getRoot();
+		readAll(new ResponseCache(dir, -1, ResponseCache.DEF_MAX_BYTES, false).open(URL, loader("old\n")));
+
+		final ResponseCache offline = new ResponseCache(dir, -1, ResponseCache.DEF_MAX_BYTES, true);
+		assertEquals("old\n", readAll(offline.open(URL, loader("new\n"))));
+		assertEquals(1, loads.get());
+	}
+
+	@Test(expected = IOException.class)
+	public void testOfflineModeFailsOnMiss() throws Exception {
+		final ResponseCache cache = new ResponseCache(folder.getRoot(), ResponseCache.DEF_TTL_MSEC,
+				ResponseCache.DEF_MAX_BYTES, true);
+		cache.open(URL, loader("a\n"));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEntryIsEvicted() throws Exception {
+		// Room for about two entries.
+		final ResponseCache cache = new ResponseCache(folder.getRoot(), ResponseCache.DEF_TTL_MSEC, 300, false);
+
+		readAll(cache.open(URL + "&page=1", loader("1\n")));
+		readAll(cache.open(URL + "&page=2", loader("2\n")));
+		for (final File f : folder.getRoot().listFiles())
+			f.setLastModified(System.currentTimeMillis() - 60000);
+
+		// Touch page 1, then add page 3.
+		readAll(cache.open(URL + "&page=1", loader("1\n")));
+		readAll(cache.open(URL + "&page=3", loader("3\n")));
+		assertEquals(3, loads.get());
+
+		readAll(cache.open(URL + "&page=1", loader("1\n")));
+		assertEquals(3, loads.get());
+		readAll(cache.open(URL + "&page=2", loader("2\n")));
+		assertEquals(4, loads.get());
+		assertTrue(folder.getRoot().listFiles().length <= 2);
+	}
+
+	@Test
+	public void testExistingEntriesCountTowardsLimit() throws Exception {
+		final File dir = folder.getRoot();
+		final ResponseCache large = new ResponseCache(dir, ResponseCache.DEF_TTL_MSEC, ResponseCache.DEF_MAX_BYTES,
+				false);
+		for (int page = 1; page <= 3; page++)
+			readAll(large.open(URL + "&page=" + page, loader(page + "\n")));
+		assertEquals(3, dir.listFiles().length);
+
+		// Room for about two entries, and the ones from before are already there.
+		final ResponseCache small = new ResponseCache(dir, ResponseCache.DEF_TTL_MSEC, 300, false);
+		readAll(small.open(URL + "&page=4", loader("4\n")));
+		assertTrue(dir.listFiles().length <= 2);
+	}
+}